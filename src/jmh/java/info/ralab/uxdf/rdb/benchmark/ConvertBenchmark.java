@@ -0,0 +1,133 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdEventDefinition;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.EventEntity;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.model.InsertParam;
+import info.ralab.uxdf.rdb.model.RdbAttr;
+import info.ralab.uxdf.rdb.model.UpdateParam;
+import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库结果和实例互相转换的基准测试，按Node定义的属性数量递增。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBenchmark {
+
+    private static final String EVENT_NAME = "HAVE";
+    private static final String LEFT_NODE_NAME = "Repository";
+    private static final String RIGHT_NODE_NAME = "Branch";
+
+    /**
+     * Node定义，扩展属性分别为1、5、7个
+     */
+    @Param({"Repository", "NodeStatus", "SdEvent"})
+    private String nodeName;
+
+    private UXDFRdbConvert uxdfRdbConvert;
+    private JSONObject nodeRow;
+    private JSONObject eventRow;
+    private NodeEntity node;
+
+    @Setup
+    public void setup() {
+        final RdbLoader rdbLoader = RdbBenchmarkSupport.makeRdbLoader(RdbBenchmarkSupport.makeQueryPlanCache(0));
+        this.uxdfRdbConvert = RdbBenchmarkSupport.makeConvert(rdbLoader);
+
+        // Node实例，基本属性和扩展属性都有取值
+        this.node = new NodeEntity();
+        this.fillValues(this.node, UXDFLoader.getBaseUXDF().getSd().getNode().getAttr());
+        this.fillValues(this.node, UXDFLoader.getNode(this.nodeName).getProp());
+        this.node.put(NodeEntity.ATTR_SD, this.nodeName);
+
+        // Node实例对应的数据库结果
+        this.nodeRow = new JSONObject();
+        rdbLoader.getRdbNodeMapping(this.nodeName).getColumn()
+                .forEach((property, column) -> this.nodeRow.put(column, this.node.get(property)));
+
+        // Event实例对应的数据库结果
+        final SdEventDefinition eventDefinition = UXDFLoader.getEvent(EVENT_NAME, LEFT_NODE_NAME, RIGHT_NODE_NAME);
+        EventEntity event = new EventEntity();
+        this.fillValues(event, UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr());
+        this.fillValues(event, eventDefinition.getProp());
+        this.eventRow = new JSONObject();
+        rdbLoader.getRdbEventMapping(EVENT_NAME, LEFT_NODE_NAME, RIGHT_NODE_NAME).getColumn()
+                .forEach((property, column) -> this.eventRow.put(column, event.get(property)));
+        this.eventRow.put(RdbAttr.A_SD, EVENT_NAME);
+        this.eventRow.put(RdbAttr.A_LEFT_SD, LEFT_NODE_NAME);
+        this.eventRow.put(RdbAttr.A_RIGHT_SD, RIGHT_NODE_NAME);
+    }
+
+    @Benchmark
+    public NodeEntity rdbToNode() {
+        return this.uxdfRdbConvert.rdbToNode(this.nodeRow);
+    }
+
+    @Benchmark
+    public EventEntity rdbToEvent() {
+        return this.uxdfRdbConvert.rdbToEvent(this.eventRow);
+    }
+
+    @Benchmark
+    public InsertParam makeNodeInsertParam() {
+        return this.uxdfRdbConvert.makeNodeInsertParam(this.node);
+    }
+
+    @Benchmark
+    public UpdateParam makeNodeUpdateParam() {
+        return this.uxdfRdbConvert.makeNodeUpdateParam(this.node);
+    }
+
+    /**
+     * 按属性基本类型填充取值，二进制属性不填充
+     *
+     * @param values     取值
+     * @param properties 属性定义
+     */
+    private void fillValues(final Map<String, Object> values, final Map<String, SdProperty> properties) {
+        properties.forEach((name, property) -> {
+            switch (property.getBase()) {
+                case String:
+                    values.put(name, "1");
+                    break;
+                case Integer:
+                    values.put(name, 1);
+                    break;
+                case Float:
+                    values.put(name, 1.0D);
+                    break;
+                case Boolean:
+                    values.put(name, Boolean.TRUE);
+                    break;
+                case Datetime:
+                    values.put(name, new Date());
+                    break;
+                default:
+            }
+        });
+    }
+}
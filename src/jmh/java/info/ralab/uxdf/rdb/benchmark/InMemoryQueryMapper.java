@@ -0,0 +1,92 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.model.SdDataQueryOrder;
+import info.ralab.uxdf.model.SdDataQueryPage;
+import info.ralab.uxdf.rdb.DataAuth;
+import info.ralab.uxdf.rdb.mapper.UXDFQueryMapper;
+import info.ralab.uxdf.rdb.model.RdbAttr;
+import info.ralab.uxdf.rdb.model.RdbQueryInfo;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 内存中的查询Mapper，代替数据库返回固定行数的结果。
+ * <p>
+ * 按查询信息的列别名生成每行数据，每行使用不同的ID，Sd名称列使用查询信息中的定义名称，其它列都为{@code "1"}。
+ */
+class InMemoryQueryMapper implements UXDFQueryMapper {
+
+    private static final String VALUE = "1";
+
+    private final int rowCount;
+
+    InMemoryQueryMapper(final int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public List<JSONObject> query(
+            final Collection<RdbQueryInfo> queryInfoList,
+            final List<SdDataQueryOrder> orders,
+            final SdDataQueryPage page,
+            final DataAuth dataAuth
+    ) {
+        List<JSONObject> rows = Lists.newArrayListWithCapacity(this.rowCount);
+        for (int i = 0; i < this.rowCount; i++) {
+            rows.add(makeRow(queryInfoList, i));
+        }
+        return rows;
+    }
+
+    @Override
+    public void queryStream(
+            final Collection<RdbQueryInfo> queryInfoList,
+            final List<SdDataQueryOrder> orders,
+            final SdDataQueryPage page,
+            final DataAuth dataAuth,
+            final ResultHandler<JSONObject> resultHandler
+    ) {
+        DefaultResultContext<JSONObject> resultContext = new DefaultResultContext<>();
+        for (int i = 0; i < this.rowCount && !resultContext.isStopped(); i++) {
+            resultContext.nextResultObject(makeRow(queryInfoList, i));
+            resultHandler.handleResult(resultContext);
+        }
+    }
+
+    @Override
+    public long count(final RdbQueryInfo queryInfo) {
+        return this.rowCount;
+    }
+
+    @Override
+    public Long estimateCount(final String table) {
+        return (long) this.rowCount;
+    }
+
+    private static JSONObject makeRow(final Collection<RdbQueryInfo> queryInfoList, final int index) {
+        JSONObject row = new JSONObject();
+        for (RdbQueryInfo queryInfo : queryInfoList) {
+            queryInfo.getSelectColumns().forEach((alias, column) -> {
+                if (alias.equals(queryInfo.getIdAlias())) {
+                    row.put(alias, String.valueOf(index));
+                } else if (RdbAttr.A_SD.equals(column)) {
+                    row.put(alias, queryInfo.isNodeEntity() ?
+                            queryInfo.getNodeDefinition().getNodeName() :
+                            queryInfo.getEventDefinition().getEventName());
+                } else if (RdbAttr.A_LEFT_SD.equals(column) && queryInfo.isEventEntity()) {
+                    row.put(alias, queryInfo.getEventDefinition().getLeftNodeName());
+                } else if (RdbAttr.A_RIGHT_SD.equals(column) && queryInfo.isEventEntity()) {
+                    row.put(alias, queryInfo.getEventDefinition().getRightNodeName());
+                } else {
+                    row.put(alias, VALUE);
+                }
+            });
+        }
+        return row;
+    }
+}
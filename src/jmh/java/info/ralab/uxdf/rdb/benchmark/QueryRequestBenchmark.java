@@ -0,0 +1,87 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.model.SdDataQueryResult;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbQueryPlanCache;
+import info.ralab.uxdf.rdb.executor.QueryRequestExecutor;
+import info.ralab.uxdf.rdb.mapper.UXDFQueryMapper;
+import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询请求执行的基准测试，数据库由内存Mapper代替。
+ * <p>
+ * 返回0行时只包含查询计划构建，返回多行时包含结果转换。关系串按跳数递增，查询计划可选择是否缓存。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryRequestBenchmark {
+
+    private static final String[] CHAINS = {
+            "Repository",
+            "Repository-HAVE>Branch",
+            "Repository-HAVE>Branch-HAVE>Version",
+            "Repository-HAVE>Branch-HAVE>Version-HAVE>VersionObject"
+    };
+
+    /**
+     * 关系串的跳数
+     */
+    @Param({"0", "1", "2", "3"})
+    private int hops;
+
+    /**
+     * 返回行数
+     */
+    @Param({"0", "100", "1000"})
+    private int rows;
+
+    /**
+     * 是否缓存查询计划
+     */
+    @Param({"false", "true"})
+    private boolean planCached;
+
+    private RdbLoader rdbLoader;
+    private RdbQueryPlanCache queryPlanCache;
+    private UXDFRdbConvert uxdfRdbConvert;
+    private UXDFQueryMapper uxdfQueryMapper;
+
+    @Setup
+    public void setup() {
+        this.queryPlanCache = RdbBenchmarkSupport.makeQueryPlanCache(this.planCached ? 256 : 0);
+        this.rdbLoader = RdbBenchmarkSupport.makeRdbLoader(this.queryPlanCache);
+        this.uxdfRdbConvert = RdbBenchmarkSupport.makeConvert(this.rdbLoader);
+        this.uxdfQueryMapper = new InMemoryQueryMapper(this.rows);
+    }
+
+    @Benchmark
+    public SdDataQueryResult execute() {
+        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+        queryRequest.getChains().add(CHAINS[this.hops]);
+        return new QueryRequestExecutor(
+                this.rdbLoader,
+                this.queryPlanCache,
+                this.uxdfRdbConvert,
+                this.uxdfQueryMapper,
+                queryRequest
+        ).execute();
+    }
+}
@@ -0,0 +1,170 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.Sd;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdEvent;
+import info.ralab.uxdf.definition.SdEventDefinition;
+import info.ralab.uxdf.definition.SdNode;
+import info.ralab.uxdf.definition.SdNodeDefinition;
+import info.ralab.uxdf.rdb.PrefixNameStrategy;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbQueryPlanCache;
+import info.ralab.uxdf.rdb.SqlGenerator;
+import info.ralab.uxdf.rdb.SqlGeneratorMySqlImpl;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * 基准测试使用的环境，不启动Spring和数据库。
+ * <p>
+ * Sd定义使用测试资源中的uxdf定义，映射关系由MySql的Sql生成构建，Mapper使用内存实现。
+ */
+final class RdbBenchmarkSupport {
+
+    private RdbBenchmarkSupport() {
+    }
+
+    /**
+     * 使用默认配置的命名策略
+     *
+     * @return 命名策略
+     */
+    static PrefixNameStrategy makeNameStrategy() {
+        PrefixNameStrategy nameStrategy = new PrefixNameStrategy();
+        nameStrategy.setNodePrefix("TN_");
+        nameStrategy.setNodePkPrefix("PN_");
+        nameStrategy.setEventPrefix("TE_");
+        nameStrategy.setEventPkPrefix("PE_");
+        nameStrategy.setIndexPrefix("I_U_");
+        nameStrategy.setSeqPrefix("S_");
+        nameStrategy.setTrgPrefix("TRG_");
+        nameStrategy.setAttrPrefix("A_");
+        nameStrategy.setPropPrefix("P_");
+        nameStrategy.setRedundancyPropPrefix("R_");
+        nameStrategy.setMaxLength(30);
+        return nameStrategy;
+    }
+
+    /**
+     * MySql的Sql生成，只用于构建映射关系，不生成DDL
+     *
+     * @return Sql生成
+     */
+    static SqlGenerator makeSqlGenerator() {
+        return new SqlGeneratorMySqlImpl(makeNameStrategy(), null);
+    }
+
+    /**
+     * 构建映射关系加载，使用内存Mapper，不检查库表结构
+     *
+     * @param queryPlanCache 查询计划缓存
+     * @return 映射关系加载
+     */
+    static RdbLoader makeRdbLoader(final RdbQueryPlanCache queryPlanCache) {
+        RdbLoader rdbLoader = new RdbLoader();
+        ReflectionTestUtils.setField(rdbLoader, "uxdfMapper", makeStub(UXDFMapper.class));
+        ReflectionTestUtils.setField(rdbLoader, "rdbQueryPlanCache", queryPlanCache);
+        ReflectionTestUtils.setField(rdbLoader, "mysqlSqlGenerator", makeSqlGenerator());
+        ReflectionTestUtils.setField(rdbLoader, "datasourceDriveName", "com.mysql.cj.jdbc.Driver");
+        ReflectionTestUtils.setField(rdbLoader, "autoGenerateDDL", false);
+        rdbLoader.load(true);
+        return rdbLoader;
+    }
+
+    /**
+     * 构建查询计划缓存
+     *
+     * @param maximumSize 最大缓存数量，小于等于0时不缓存
+     * @return 查询计划缓存
+     */
+    static RdbQueryPlanCache makeQueryPlanCache(final long maximumSize) {
+        RdbQueryPlanCache queryPlanCache = new RdbQueryPlanCache();
+        ReflectionTestUtils.setField(queryPlanCache, "maximumSize", maximumSize);
+        queryPlanCache.init();
+        return queryPlanCache;
+    }
+
+    /**
+     * 构建数据转换，不注册Node监听
+     *
+     * @param rdbLoader 映射关系加载
+     * @return 数据转换
+     */
+    static UXDFRdbConvert makeConvert(final RdbLoader rdbLoader) {
+        return new UXDFRdbConvert(null, rdbLoader);
+    }
+
+    /**
+     * 截取Sd定义中前{@code nodeCount}个Node定义，以及两端都在其中的Event定义
+     *
+     * @param nodeCount Node定义数量，小于等于0时使用全部
+     * @return Sd定义
+     */
+    static Sd makeSd(final int nodeCount) {
+        final Sd source = UXDFLoader.getSd();
+        Map<String, SdNodeDefinition> nodeImpls = Maps.newLinkedHashMap();
+        source.getNode().getImpl().forEach((nodeName, nodeImpl) -> {
+            if (nodeCount <= 0 || nodeImpls.size() < nodeCount) {
+                nodeImpls.put(nodeName, nodeImpl);
+            }
+        });
+
+        Map<String, Map<String, Map<String, SdEventDefinition>>> eventImpls = Maps.newLinkedHashMap();
+        source.getEvent().getImpl().forEach((eventName, leftMap) -> leftMap.forEach((leftNodeName, rightMap) -> {
+            if (!nodeImpls.containsKey(leftNodeName)) {
+                return;
+            }
+            rightMap.forEach((rightNodeName, eventImpl) -> {
+                if (nodeImpls.containsKey(rightNodeName)) {
+                    eventImpls.computeIfAbsent(eventName, key -> Maps.newLinkedHashMap())
+                            .computeIfAbsent(leftNodeName, key -> Maps.newLinkedHashMap())
+                            .put(rightNodeName, eventImpl);
+                }
+            });
+        }));
+
+        Sd sd = new Sd();
+        SdNode node = new SdNode();
+        node.setAttr(source.getNode().getAttr());
+        node.setImpl(nodeImpls);
+        SdEvent event = new SdEvent();
+        event.setAttr(source.getEvent().getAttr());
+        event.setImpl(eventImpls);
+        sd.setNode(node);
+        sd.setEvent(event);
+        return sd;
+    }
+
+    /**
+     * 所有方法都返回默认值的Mapper
+     *
+     * @param mapperClass Mapper接口
+     * @param <T>         Mapper类型
+     * @return Mapper
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T makeStub(final Class<T> mapperClass) {
+        return (T) Proxy.newProxyInstance(
+                mapperClass.getClassLoader(),
+                new Class<?>[]{mapperClass},
+                (proxy, method, args) -> {
+                    final Class<?> returnType = method.getReturnType();
+                    if (!returnType.isPrimitive() || returnType == void.class) {
+                        return null;
+                    }
+                    if (returnType == boolean.class) {
+                        return false;
+                    }
+                    if (returnType == long.class) {
+                        return 0L;
+                    }
+                    return 0;
+                }
+        );
+    }
+}
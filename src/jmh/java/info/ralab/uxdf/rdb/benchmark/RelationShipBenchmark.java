@@ -0,0 +1,50 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import info.ralab.uxdf.Sd;
+import info.ralab.uxdf.rdb.SqlGenerator;
+import info.ralab.uxdf.rdb.model.RelationShipRdb;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sd定义和数据库映射关系构建的基准测试，按Node定义数量递增。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationShipBenchmark {
+
+    /**
+     * Node定义数量，0为全部
+     */
+    @Param({"4", "16", "0"})
+    private int nodeCount;
+
+    private SqlGenerator sqlGenerator;
+    private Sd sd;
+
+    @Setup
+    public void setup() {
+        this.sqlGenerator = RdbBenchmarkSupport.makeSqlGenerator();
+        this.sd = RdbBenchmarkSupport.makeSd(this.nodeCount);
+    }
+
+    @Benchmark
+    public RelationShipRdb generateRelationShip() {
+        return this.sqlGenerator.generateRelationShip(this.sd);
+    }
+}
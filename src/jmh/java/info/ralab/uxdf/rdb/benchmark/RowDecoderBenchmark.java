@@ -0,0 +1,89 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdBaseType;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.utils.RdbRowDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询结果行解码的基准测试。
+ * <p>
+ * 测试资源中的Node定义属性较少，这里重复使用已有的字符、整数、布尔属性定义构造更宽的合成定义。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowDecoderBenchmark {
+
+    /**
+     * 合成定义的扩展属性数量
+     */
+    @Param({"8", "64", "256"})
+    private int width;
+
+    private RdbRowDecoder rowDecoder;
+    private JSONObject row;
+
+    @Setup
+    public void setup() {
+        final Map<String, SdProperty> nodeAttr = UXDFLoader.getBaseUXDF().getSd().getNode().getAttr();
+        // 字符、整数、布尔属性定义，依次重复使用
+        final SdProperty[] templates = {
+                UXDFLoader.getNode("NodeStatus").getProp().get("hostname"),
+                UXDFLoader.getNode("NodeStatus").getProp().get("taskRunningNum"),
+                UXDFLoader.getNode("Signifier").getProp().values().stream()
+                        .filter(property -> property.getBase() == SdBaseType.Boolean)
+                        .findFirst()
+                        .orElseThrow(IllegalStateException::new)
+        };
+        final Object[] values = {"1", 1, Boolean.TRUE};
+
+        Map<String, SdProperty> nodeProp = Maps.newLinkedHashMap();
+        Map<String, String> columnMapping = Maps.newHashMap();
+        this.row = new JSONObject();
+        for (int i = 0; i < this.width; i++) {
+            final String property = "p" + i;
+            final String column = "P_P" + i;
+            nodeProp.put(property, templates[i % templates.length]);
+            columnMapping.put(property, column);
+            this.row.put(column, values[i % values.length]);
+        }
+        nodeAttr.forEach((property, definition) -> {
+            final String column = "A_" + property.replace("_", "").toUpperCase();
+            columnMapping.put(property, column);
+            this.row.put(column, "1");
+        });
+
+        final List<Map<String, SdProperty>> propertyDefinitions = Lists.newArrayList(nodeAttr, nodeProp);
+        this.rowDecoder = new RdbRowDecoder(0, propertyDefinitions, columnMapping);
+    }
+
+    @Benchmark
+    public NodeEntity decode() throws Exception {
+        NodeEntity nodeEntity = new NodeEntity();
+        this.rowDecoder.decode(this.row, nodeEntity);
+        return nodeEntity;
+    }
+}
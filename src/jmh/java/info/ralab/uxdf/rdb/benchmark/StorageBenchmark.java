@@ -0,0 +1,280 @@
+package info.ralab.uxdf.rdb.benchmark;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.SdData;
+import info.ralab.uxdf.definition.SdOperateType;
+import info.ralab.uxdf.instance.EventEntity;
+import info.ralab.uxdf.instance.IdMaker;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.instance.RdbIdAreaMaker;
+import info.ralab.uxdf.model.SdDataQueryParam;
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.model.SdDataQueryResult;
+import info.ralab.uxdf.model.SdDataSaveResult;
+import info.ralab.uxdf.rdb.Application;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 保存、查询、删除的端到端基准测试，启动Spring上下文并连接真实数据库。
+ * <p>
+ * 数据源使用rdb-datasource配置，可以通过TRUEDATA_DATASOURCE_URL等环境变量指向本地数据库，表结构自动生成。
+ * 每次操作的数据是一棵以UserGroup为根的图：根下有{@code chainDepth}层UserGroup，每层UserGroup拥有{@code fanOut}个叶子Node，
+ * 叶子Node依次使用前{@code uniqueTypes}种有唯一索引的Node定义。
+ * 删除使用的图以Tower为根，拥有{@code fanOut}个Line，Line到Tower的BELONG_TO对于Line是必须的，删除Tower时级联删除Line。
+ * 同时输出吞吐量和耗时分布，耗时分布中包含p50、p99。
+ * <p>
+ * 结束时清空使用到的表，每次运行的表大小相同，应当使用单独的数据库。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final String ROOT_NODE_NAME = "UserGroup";
+    private static final String EVENT_NAME = "HAVE";
+    private static final String NAME = "name";
+    private static final String DELETE_ROOT_NODE_NAME = "Tower";
+    private static final String DELETE_LEAF_NODE_NAME = "Line";
+    private static final String DELETE_EVENT_NAME = "BELONG_TO";
+    /**
+     * UserGroup可以拥有的、有唯一索引的叶子Node定义
+     */
+    private static final String[] LEAF_NODE_NAMES = {"Role", "User", "UserGroup"};
+    /**
+     * 查询使用的图数量
+     */
+    private static final int QUERY_GRAPH_SIZE = 32;
+
+    /**
+     * 每层UserGroup拥有的叶子Node数量
+     */
+    @Param({"1", "10", "50"})
+    private int fanOut;
+
+    /**
+     * 根下UserGroup的层数
+     */
+    @Param({"0", "2"})
+    private int chainDepth;
+
+    /**
+     * 叶子Node使用的有唯一索引的Node定义数量
+     */
+    @Param({"1", "3"})
+    private int uniqueTypes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private String runId;
+
+    private ConfigurableApplicationContext context;
+    private RdbStorageService storageService;
+    private TransactionTemplate transactionTemplate;
+
+    private List<String> queryRootNames = Lists.newArrayList();
+    private int queryIndex;
+
+    @Setup
+    public void setup() {
+        this.context = SpringApplication.run(Application.class);
+        this.storageService = this.context.getBean(RdbStorageService.class);
+        this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+        this.storageService.init();
+        IdMaker.init(this.context.getBean(RdbIdAreaMaker.class));
+        this.runId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+        // 预先保存查询使用的图
+        for (int i = 0; i < QUERY_GRAPH_SIZE; i++) {
+            this.queryRootNames.add(this.saveGraph().getString(NAME));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.context != null) {
+            try {
+                this.truncateTables();
+            } finally {
+                this.context.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public SdDataSaveResult saveData() {
+        final SdData sdData = this.makeGraph();
+        return this.transactionTemplate.execute(status -> this.storageService.saveData(sdData));
+    }
+
+    @Benchmark
+    public SdDataQueryResult queryData() {
+        final String rootName = this.queryRootNames.get(this.queryIndex++ % this.queryRootNames.size());
+
+        // 从根开始沿UserGroup链查询到最后一层的叶子Node
+        StringBuilder chain = new StringBuilder("G0:").append(ROOT_NODE_NAME);
+        for (int depth = 1; depth <= this.chainDepth; depth++) {
+            chain.append('-').append(EVENT_NAME).append(">G").append(depth).append(':').append(ROOT_NODE_NAME);
+        }
+        chain.append('-').append(EVENT_NAME).append(">L:").append(LEAF_NODE_NAMES[0]);
+
+        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+        queryRequest.getChains().add(chain.toString());
+        queryRequest.getParams().put("G0", Lists.newArrayList(SdDataQueryParam.equal(NAME, rootName)));
+        return this.transactionTemplate.execute(status -> this.storageService.queryData(queryRequest));
+    }
+
+    @Benchmark
+    public int deleteNode(final DeleteGraph deleteGraph) {
+        return this.transactionTemplate.execute(status -> this.storageService.deleteNode(
+                deleteGraph.root,
+                new SdData()
+        ));
+    }
+
+    /**
+     * 每次删除前保存一张新的图，只删除根，Line通过必须的BELONG_TO级联删除
+     */
+    @State(Scope.Thread)
+    public static class DeleteGraph {
+        private NodeEntity root;
+
+        @Setup(Level.Invocation)
+        public void setup(final StorageBenchmark benchmark) {
+            final SdData sdData = benchmark.makeDeleteGraph();
+            benchmark.transactionTemplate.execute(status -> benchmark.storageService.saveData(sdData));
+            this.root = sdData.getUnmodifiableNode().get(0);
+            this.root.setOperateDeleteEnforce(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 清空保存过数据的表
+     */
+    private void truncateTables() {
+        final RdbLoader rdbLoader = this.context.getBean(RdbLoader.class);
+        final JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        List<String> tables = Lists.newArrayList();
+        for (String nodeName : new String[]{ROOT_NODE_NAME, DELETE_ROOT_NODE_NAME, DELETE_LEAF_NODE_NAME}) {
+            tables.add(rdbLoader.getRdbNodeMapping(nodeName).getName());
+        }
+        for (String leafNodeName : LEAF_NODE_NAMES) {
+            tables.add(rdbLoader.getRdbNodeMapping(leafNodeName).getName());
+            tables.add(rdbLoader.getRdbEventMapping(EVENT_NAME, ROOT_NODE_NAME, leafNodeName).getName());
+        }
+        tables.add(rdbLoader.getRdbEventMapping(DELETE_EVENT_NAME, DELETE_LEAF_NODE_NAME, DELETE_ROOT_NODE_NAME).getName());
+        tables.stream().distinct().forEach(table -> jdbcTemplate.execute("truncate table " + table));
+    }
+
+    /**
+     * 保存一张图
+     *
+     * @return 保存后的根Node
+     */
+    private NodeEntity saveGraph() {
+        final SdData sdData = this.makeGraph();
+        this.transactionTemplate.execute(status -> this.storageService.saveData(sdData));
+        return sdData.getUnmodifiableNode().get(0);
+    }
+
+    /**
+     * 构建一张图，唯一索引属性使用不重复的取值
+     *
+     * @return 新增的数据
+     */
+    private SdData makeGraph() {
+        SdData sdData = new SdData();
+        NodeEntity parent = this.makeNode(ROOT_NODE_NAME);
+        sdData.addNodeIfAbsent(parent);
+        for (int depth = 0; depth <= this.chainDepth; depth++) {
+            if (depth > 0) {
+                NodeEntity child = this.makeNode(ROOT_NODE_NAME);
+                sdData.addNodeIfAbsent(child);
+                sdData.addEventIfAbsent(this.makeEvent(EVENT_NAME, parent, child));
+                parent = child;
+            }
+            for (int i = 0; i < this.fanOut; i++) {
+                NodeEntity leaf = this.makeNode(LEAF_NODE_NAMES[i % Math.min(this.uniqueTypes, LEAF_NODE_NAMES.length)]);
+                sdData.addNodeIfAbsent(leaf);
+                sdData.addEventIfAbsent(this.makeEvent(EVENT_NAME, parent, leaf));
+            }
+        }
+        return sdData;
+    }
+
+    /**
+     * 构建删除使用的图
+     *
+     * @return 新增的数据，第一个Node是根
+     */
+    private SdData makeDeleteGraph() {
+        SdData sdData = new SdData();
+        NodeEntity root = this.makeNode(DELETE_ROOT_NODE_NAME);
+        sdData.addNodeIfAbsent(root);
+        for (int i = 0; i < this.fanOut; i++) {
+            NodeEntity line = this.makeNode(DELETE_LEAF_NODE_NAME);
+            line.put("indent", 0);
+            line.put("lineIndex", Integer.toString(i));
+            sdData.addNodeIfAbsent(line);
+            sdData.addEventIfAbsent(this.makeEvent(DELETE_EVENT_NAME, line, root));
+        }
+        return sdData;
+    }
+
+    private NodeEntity makeNode(final String nodeName) {
+        // 唯一索引属性只允许字母和数字
+        final String value = this.runId + "x" + this.sequence.incrementAndGet();
+        NodeEntity node = new NodeEntity()
+                .id(IdMaker.next())
+                .sd(nodeName);
+        if ("User".equals(nodeName)) {
+            node.put("nickname", value);
+            node.put("username", value);
+        } else if (DELETE_ROOT_NODE_NAME.equals(nodeName)) {
+            node.put(NAME, value);
+            node.put("code", value);
+            node.put("icon", value);
+        } else if (DELETE_LEAF_NODE_NAME.equals(nodeName)) {
+            node.put("display", value);
+            node.put("mappingSd", DELETE_ROOT_NODE_NAME);
+        } else {
+            node.put(NAME, value);
+        }
+        node.setOperate(SdOperateType.create);
+        return node;
+    }
+
+    private EventEntity makeEvent(final String eventName, final NodeEntity left, final NodeEntity right) {
+        EventEntity event = new EventEntity()
+                .id(IdMaker.next())
+                .sd(eventName)
+                .leftNode(left)
+                .rightNode(right);
+        event.setOperate(SdOperateType.create);
+        return event;
+    }
+}
@@ -1,32 +1,252 @@
 package info.ralab.uxdf.instance;
 
+import info.ralab.uxdf.rdb.RdbMetrics;
 import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbIdArea;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于关系型数据库的ID分区生成。
+ * <p>
+ * 每次在数据库中预留一段分区，本机按原子计数依次分配，用到一半时在后台预留下一段。
+ * ID_AREA按分段保存多行记录，分段{@code k}只分配除以分段数余{@code k}的分区，不同分段之间互不加锁。
+ * 每条记录保存分配时的分段数，分段数变化后各分段从所有分段的最大分区之后重新开始。
+ * 集群中各节点的分段数需要一致。
+ * <p>
+ * 从单行的ID_AREA升级时需要添加STRIPE、STRIPES列，自动生成DDL时启动时添加，否则启动失败并给出需要执行的语句。
+ * 旧版本节点按单行读取ID分区，不能和新版本节点同时运行，集群中所有节点需要停止后同时升级。
+ */
 @Component("RdbIdAreaMaker")
+@Slf4j
 public class RdbIdAreaMaker implements IdAreaMaker {
 
     private UXDFMapper uxdfMapper;
+    private TransactionTemplate transactionTemplate;
+    private RdbMetrics metrics;
+
+    /**
+     * 每次预留的分区数量
+     */
+    @Value("${truedata.rdb.id.area.block.size:16}")
+    private int blockSize;
+
+    /**
+     * 分段数量
+     */
+    @Value("${truedata.rdb.id.area.stripes:4}")
+    private int stripes;
+
+    /**
+     * 后台预留分区的线程
+     */
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rdb-id-area-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * 正在使用的分区段
+     */
+    private final AtomicReference<IdAreaBlock> current = new AtomicReference<>(IdAreaBlock.EMPTY);
+    /**
+     * 后台预留的下一段分区
+     */
+    private final AtomicReference<CompletableFuture<IdAreaBlock>> prefetching = new AtomicReference<>();
 
     @Autowired
-    public RdbIdAreaMaker(UXDFMapper uxdfMapper) {
+    public RdbIdAreaMaker(
+            UXDFMapper uxdfMapper,
+            PlatformTransactionManager transactionManager,
+            RdbMetrics metrics
+    ) {
         this.uxdfMapper = uxdfMapper;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public String next() {
-        String area = this.uxdfMapper.getIdArea();
-        if (area == null) {
-            area = IdMaker.MIN_VALUE_STRING;
-            this.uxdfMapper.addIdArea(area);
-        }
-        area = Long.toString(Long.parseLong(area, IdMaker.RADIX) + 1, IdMaker.RADIX);
-        area = IdMaker.fillDigits(area);
-        this.uxdfMapper.setIdArea(area);
-        return area;
+        while (true) {
+            final IdAreaBlock block = this.current.get();
+            final int index = block.index.getAndIncrement();
+            // 用到一半时后台预留下一段
+            if (index == block.size / 2) {
+                this.prefetch();
+            }
+            if (index < block.size) {
+                return format(block.start + block.step * index);
+            }
+            // 当前段用完，只由一个线程切换，记录等待分区的耗时
+            final long startTime = this.metrics.start();
+            synchronized (this) {
+                if (this.current.get() == block) {
+                    this.current.set(this.takeBlock());
+                }
+            }
+            this.metrics.stop(RdbMetrics.ID_AREA_WAIT, RdbMetrics.ALL_SD, "next", startTime);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 在后台预留下一段分区，已在预留时不重复执行
+     */
+    private void prefetch() {
+        final CompletableFuture<IdAreaBlock> future = new CompletableFuture<>();
+        if (!this.prefetching.compareAndSet(null, future)) {
+            return;
+        }
+        try {
+            this.prefetchExecutor.execute(() -> {
+                try {
+                    future.complete(this.reserve());
+                } catch (Exception e) {
+                    log.error("prefetch id area error", e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            // 线程池已关闭时由使用线程同步预留
+            this.prefetching.compareAndSet(future, null);
+        }
+    }
+
+    /**
+     * 获取下一段分区，优先使用后台预留的结果，预留失败时同步预留
+     *
+     * @return 分区段
+     */
+    private IdAreaBlock takeBlock() {
+        final CompletableFuture<IdAreaBlock> future = this.prefetching.getAndSet(null);
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (Exception e) {
+                log.warn("prefetched id area unavailable, reserve again", e);
+            }
+        }
+        return this.reserve();
+    }
+
+    /**
+     * 在独立事务中随机选择一个分段预留分区
+     *
+     * @return 分区段
+     */
+    private IdAreaBlock reserve() {
+        final int stripes = Math.max(this.stripes, 1);
+        final int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        try {
+            return this.transactionTemplate.execute(status -> this.reserve(stripe, stripes));
+        } catch (DuplicateKeyException e) {
+            // 其他节点同时初始化了同一分段，重新读取
+            return this.transactionTemplate.execute(status -> this.reserve(stripe, stripes));
+        }
+    }
+
+    /**
+     * 锁定分段记录，预留一段分区
+     *
+     * @param stripe  分段
+     * @param stripes 分段数量
+     * @return 分区段
+     */
+    private IdAreaBlock reserve(final int stripe, final int stripes) {
+        final int size = Math.max(this.blockSize, 1);
+        final RdbIdArea idArea = this.uxdfMapper.getIdArea(stripe);
+
+        long last;
+        if (isContinuable(idArea, stripe, stripes)) {
+            last = parse(idArea.getArea());
+        } else {
+            // 新分段，或分段数变化，从所有分段的最大分区之后重新开始
+            final String maxArea = this.uxdfMapper.getMaxIdArea();
+            last = restartFrom(parse(maxArea == null ? IdMaker.MIN_VALUE_STRING : maxArea), stripe, stripes);
+            // 超出分段数的记录不再使用，删除后分段数再次增加时作为新分段重新开始，不会从旧位置继续
+            this.uxdfMapper.deleteIdAreaStripes(stripes);
+        }
+
+        final IdAreaBlock block = new IdAreaBlock(last + stripes, stripes, size);
+        final String reserved = format(last + (long) stripes * size);
+        if (idArea == null) {
+            this.uxdfMapper.addIdArea(reserved, stripe, stripes);
+        } else {
+            this.uxdfMapper.setIdArea(reserved, stripe, stripes);
+        }
+        log.debug("id area reserved: stripe {}, to {}", stripe, reserved);
+        return block;
+    }
+
+    /**
+     * 分段记录是否可以继续分配，分配时的分段数和当前一致，并且分区的余数和分段一致
+     *
+     * @param idArea  分段记录
+     * @param stripe  分段
+     * @param stripes 分段数量
+     * @return 是否可以继续分配
+     */
+    static boolean isContinuable(final RdbIdArea idArea, final int stripe, final int stripes) {
+        return idArea != null
+                && idArea.getArea() != null
+                && idArea.getStripes() == stripes
+                && parse(idArea.getArea()) % stripes == stripe;
+    }
+
+    /**
+     * 计算重新开始时的起点，不小于最大分区且除以分段数余分段，分配从起点之后开始
+     *
+     * @param maxArea 所有分段中最大的分区
+     * @param stripe  分段
+     * @param stripes 分段数量
+     * @return 起点
+     */
+    static long restartFrom(final long maxArea, final int stripe, final int stripes) {
+        return maxArea + ((stripe - maxArea % stripes) + stripes) % stripes;
+    }
+
+    private static long parse(final String area) {
+        return Long.parseLong(area, IdMaker.RADIX);
+    }
+
+    private static String format(final long area) {
+        return IdMaker.fillDigits(Long.toString(area, IdMaker.RADIX));
+    }
+
+    /**
+     * 预留的一段分区，按步长依次分配
+     */
+    private static class IdAreaBlock {
+        private static final IdAreaBlock EMPTY = new IdAreaBlock(0, 1, 0);
+
+        private final long start;
+        private final long step;
+        private final int size;
+        private final AtomicInteger index = new AtomicInteger();
+
+        private IdAreaBlock(final long start, final long step, final int size) {
+            this.start = start;
+            this.step = step;
+            this.size = size;
+        }
     }
 }
@@ -0,0 +1,122 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbByteRange;
+import info.ralab.uxdf.rdb.utils.RdbBinaryStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Blob;
+
+/**
+ * 二进制属性的分段读取。
+ * <p>
+ * 先查询内容长度，读取时每次只查询一段。MySQL驱动会读取整个BLOB，使用SUBSTRING只返回需要的一段；
+ * Oracle的BLOB是定位器，在SQL中截取最多只能返回2000字节，因此通过定位器按范围读取。
+ * <p>
+ * MySQL每次执行SUBSTRING时服务端都会读取整个BLOB，读取次数和分段数量成正比，服务端读取量随内容长度平方增长。
+ * 因此MySQL的分段数量不超过{@code truedata.rdb.binary.mysql.chunk.count}，内容较大时按长度放大分段，
+ * 服务端读取量最多为内容长度的该倍数，代价是客户端每段占用的内存更大。
+ */
+@Component
+public class RdbBinaryStorage {
+
+    @Autowired
+    private UXDFMapper uxdfMapper;
+    @Autowired
+    private RdbLoader rdbLoader;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 每次读取的字节数
+     */
+    @Value("${truedata.rdb.binary.chunk.size:1048576}")
+    private int chunkSize;
+
+    /**
+     * MySQL读取一个范围的最大分段数量，小于等于0时不限制
+     */
+    @Value("${truedata.rdb.binary.mysql.chunk.count:16}")
+    private int mysqlChunkCount;
+
+    /**
+     * 打开二进制内容
+     *
+     * @param table  表名
+     * @param column 列名
+     * @param uuid   实例UUID
+     * @param range  字节范围，格式与HTTP的Range请求头一致，为空时读取全部内容
+     * @return 二进制内容，记录不存在或内容为空时返回null
+     */
+    public RdbBinaryStream open(final String table, final String column, final String uuid, final String range) {
+        final Long length = this.uxdfMapper.getBinaryLength(table, column, uuid);
+        if (length == null) {
+            return null;
+        }
+        final RdbByteRange byteRange = RdbByteRange.parse(range, length);
+        return new RdbBinaryStream(
+                byteRange,
+                this.getChunkSize(byteRange),
+                (offset, chunkLength) -> this.readChunk(table, column, uuid, offset, chunkLength)
+        );
+    }
+
+    /**
+     * 获取分段大小，MySQL按范围长度放大分段，使分段数量不超过上限
+     *
+     * @param range 字节范围
+     * @return 分段大小
+     */
+    int getChunkSize(final RdbByteRange range) {
+        long size = Math.max(this.chunkSize, 1);
+        if (!this.rdbLoader.isOracle() && this.mysqlChunkCount > 0) {
+            final long rangeLength = range.getLength();
+            size = Math.max(size, (rangeLength + this.mysqlChunkCount - 1) / this.mysqlChunkCount);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 读取一段内容
+     *
+     * @param table  表名
+     * @param column 列名
+     * @param uuid   实例UUID
+     * @param offset 开始位置，从1开始
+     * @param length 读取长度
+     * @return 内容
+     */
+    private byte[] readChunk(
+            final String table,
+            final String column,
+            final String uuid,
+            final long offset,
+            final int length
+    ) {
+        if (!this.rdbLoader.isOracle()) {
+            return this.uxdfMapper.getBinaryChunk(table, column, uuid, offset, length);
+        }
+        return this.jdbcTemplate.query(
+                String.format("select %s from %s where A_UUID = ?", column, table),
+                (ResultSetExtractor<byte[]>) resultSet -> {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+                    final Blob blob = resultSet.getBlob(1);
+                    if (blob == null) {
+                        return null;
+                    }
+                    try {
+                        return blob.getBytes(offset, length);
+                    } finally {
+                        blob.free();
+                    }
+                },
+                uuid
+        );
+    }
+}
@@ -0,0 +1,63 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.instance.NodeEntity;
+
+import java.util.List;
+
+/**
+ * Node实例缓存。
+ * <p>
+ * 按(Node定义, ID)和(Node定义, 唯一属性值)缓存查询到的{@link NodeEntity}。
+ * Node新增、更新、删除时调用{@link #evict(String)}，事务中修改过的Node定义在事务结束前不使用缓存，事务结束后再次清除。
+ */
+public interface RdbEntityCache {
+
+    /**
+     * 使用ID获取缓存的Node实例
+     *
+     * @param nodeName Node定义名称
+     * @param nodeId   逻辑ID
+     * @return Node实例的副本，未缓存时返回null
+     */
+    NodeEntity getById(String nodeName, String nodeId);
+
+    /**
+     * 使用唯一属性值获取缓存的Node实例
+     *
+     * @param nodeName     Node定义名称
+     * @param uniqueValues 唯一属性值，顺序和唯一属性定义一致
+     * @return Node实例的副本，未缓存时返回null
+     */
+    NodeEntity getByUniqueKey(String nodeName, List<Object> uniqueValues);
+
+    /**
+     * 按ID缓存Node实例
+     *
+     * @param node Node实例
+     */
+    void putById(NodeEntity node);
+
+    /**
+     * 按唯一属性值缓存Node实例
+     *
+     * @param uniqueValues 唯一属性值
+     * @param node         Node实例
+     */
+    void putByUniqueKey(List<Object> uniqueValues, NodeEntity node);
+
+    /**
+     * 是否启用缓存，未启用时读取到的Node都来自数据库
+     *
+     * @return 是否启用
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Node定义的数据发生变化，清除该定义的所有缓存
+     *
+     * @param nodeName Node定义名称
+     */
+    void evict(String nodeName);
+}
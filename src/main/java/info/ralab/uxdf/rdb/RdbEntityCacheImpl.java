@@ -0,0 +1,198 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import info.ralab.uxdf.instance.NodeEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 默认的Node实例缓存，使用Guava Cache按数量和有效期淘汰。
+ * <p>
+ * 只在本机有效，集群中其它节点的修改在有效期结束后才能反映，有效期小于等于0时不缓存。
+ * 缓存Key包含Node定义的版本，清除时只递增版本，旧版本的缓存不再命中，由数量和有效期淘汰，清除的开销和缓存数量无关。
+ */
+@Component
+@Slf4j
+public class RdbEntityCacheImpl implements RdbEntityCache {
+
+    private static final char KEY_SPLIT = '|';
+
+    /**
+     * 有效期，秒。小于等于0时不缓存
+     */
+    @Value("${truedata.rdb.entity.cache.ttl:0}")
+    private long ttl;
+    /**
+     * 最大缓存数量
+     */
+    @Value("${truedata.rdb.entity.cache.size:10000}")
+    private long maximumSize;
+
+    private Cache<String, NodeEntity> cache;
+    /**
+     * 各Node定义的缓存版本
+     */
+    private final ConcurrentMap<String, AtomicLong> versions = Maps.newConcurrentMap();
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(Math.max(this.ttl, 0), TimeUnit.SECONDS)
+                .maximumSize(Math.max(this.maximumSize, 0))
+                .build();
+    }
+
+    @Override
+    public NodeEntity getById(final String nodeName, final String nodeId) {
+        if (!this.usable(nodeName) || nodeId == null) {
+            return null;
+        }
+        return copy(this.cache.getIfPresent(idKey(this.keyPrefix(nodeName), nodeId)));
+    }
+
+    @Override
+    public NodeEntity getByUniqueKey(final String nodeName, final List<Object> uniqueValues) {
+        if (!this.usable(nodeName)) {
+            return null;
+        }
+        return copy(this.cache.getIfPresent(uniqueKey(this.keyPrefix(nodeName), uniqueValues)));
+    }
+
+    @Override
+    public void putById(final NodeEntity node) {
+        if (node == null || !this.usable(node.get__Sd())) {
+            return;
+        }
+        this.cache.put(idKey(this.keyPrefix(node.get__Sd()), node.get__Id()), copy(node));
+    }
+
+    @Override
+    public void putByUniqueKey(final List<Object> uniqueValues, final NodeEntity node) {
+        if (node == null || !this.usable(node.get__Sd())) {
+            return;
+        }
+        NodeEntity cached = copy(node);
+        final String prefix = this.keyPrefix(node.get__Sd());
+        this.cache.put(uniqueKey(prefix, uniqueValues), cached);
+        this.cache.put(idKey(prefix, node.get__Id()), cached);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.ttl > 0;
+    }
+
+    @Override
+    public void evict(final String nodeName) {
+        if (this.ttl <= 0 || nodeName == null) {
+            return;
+        }
+        // 事务中记录修改过的Node定义，事务结束后再次清除，避免其它线程在提交前缓存了旧数据。
+        // 已经记录过的Node定义在事务结束前不使用缓存，不需要重复清除
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !this.getDirtyNodeNames(true).add(nodeName)) {
+            return;
+        }
+        this.invalidate(nodeName);
+    }
+
+    /**
+     * 当前是否可以使用Node定义的缓存，当前事务修改过的Node定义不使用缓存
+     *
+     * @param nodeName Node定义名称
+     * @return 是否可以使用
+     */
+    private boolean usable(final String nodeName) {
+        if (this.ttl <= 0 || nodeName == null) {
+            return false;
+        }
+        final Set<String> dirtyNodeNames = this.getDirtyNodeNames(false);
+        return dirtyNodeNames == null || !dirtyNodeNames.contains(nodeName);
+    }
+
+    /**
+     * 获取当前事务中修改过的Node定义
+     *
+     * @param create 不存在时是否创建
+     * @return Node定义名称集合，没有事务或未创建时为null
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> getDirtyNodeNames(final boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Set<String> dirtyNodeNames = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (dirtyNodeNames == null && create) {
+            final Set<String> nodeNames = Sets.newHashSet();
+            TransactionSynchronizationManager.bindResource(this, nodeNames);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RdbEntityCacheImpl.this);
+                    nodeNames.forEach(RdbEntityCacheImpl.this::invalidate);
+                }
+            });
+            dirtyNodeNames = nodeNames;
+        }
+        return dirtyNodeNames;
+    }
+
+    /**
+     * 清除Node定义的所有缓存，递增版本后旧版本的缓存不再命中
+     *
+     * @param nodeName Node定义名称
+     */
+    private void invalidate(final String nodeName) {
+        this.versions.computeIfAbsent(nodeName, key -> new AtomicLong()).incrementAndGet();
+        log.debug("entity cache evicted: {}", nodeName);
+    }
+
+    /**
+     * 缓存Key的前缀，包含Node定义名称和当前版本
+     *
+     * @param nodeName Node定义名称
+     * @return Key前缀
+     */
+    private String keyPrefix(final String nodeName) {
+        return nodeName + KEY_SPLIT + this.versions.computeIfAbsent(nodeName, key -> new AtomicLong()).get();
+    }
+
+    private static String idKey(final String prefix, final String nodeId) {
+        return prefix + KEY_SPLIT + "id" + KEY_SPLIT + nodeId;
+    }
+
+    private static String uniqueKey(final String prefix, final List<Object> uniqueValues) {
+        StringBuilder key = new StringBuilder(prefix).append(KEY_SPLIT).append("uk");
+        uniqueValues.forEach(uniqueValue -> {
+            // 属性值加上长度，避免不同属性值拼接后相同
+            final String value = String.valueOf(uniqueValue);
+            key.append(KEY_SPLIT).append(value.length()).append(':').append(value);
+        });
+        return key.toString();
+    }
+
+    /**
+     * 缓存中保存和返回的都是副本，调用方修改不影响缓存
+     */
+    private static NodeEntity copy(final NodeEntity node) {
+        if (node == null) {
+            return null;
+        }
+        NodeEntity copy = new NodeEntity();
+        copy.putAll(node);
+        return copy;
+    }
+}
@@ -2,6 +2,7 @@ package info.ralab.uxdf.rdb;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import info.ralab.uxdf.Sd;
 import info.ralab.uxdf.UXDFException;
 import info.ralab.uxdf.UXDFLoader;
 import info.ralab.uxdf.chain.UXDFChain;
@@ -10,31 +11,48 @@ import info.ralab.uxdf.definition.SdNodeDefinition;
 import info.ralab.uxdf.definition.SdProperty;
 import info.ralab.uxdf.instance.EventEntity;
 import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.instance.SdEntity;
+import info.ralab.uxdf.rdb.convert.OracleTimestampConvert;
 import info.ralab.uxdf.rdb.mapper.UXDFMapper;
 import info.ralab.uxdf.rdb.model.RelationShipRdb;
+import info.ralab.uxdf.rdb.model.RelationShipRdbSnapshot;
 import info.ralab.uxdf.rdb.model.RelationShipRdbTable;
+import info.ralab.uxdf.utils.AssociateUniquePropertyUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 @Slf4j
-public class RdbLoader {
+public class RdbLoader implements ApplicationListener<ContextRefreshedEvent> {
 
     private static final String DDL_SQL_SPLIT = "##";
 
     /**
-     * 关系型数据库和SD之间的映射关系
+     * 关系型数据库和SD之间的映射关系，整体替换发布
      */
-    private static RelationShipRdb CACHE_RDB_RELATION_SHIP = null;
+    private static final AtomicReference<RelationShipRdbSnapshot> CACHE_RDB_RELATION_SHIP = new AtomicReference<>();
+    /**
+     * 映射关系版本序列
+     */
+    private static final AtomicLong RELATION_SHIP_VERSION = new AtomicLong();
     /**
      * Oracle数据库驱动名称
      */
@@ -43,11 +61,48 @@ public class RdbLoader {
      * Mysql数据库驱动名称
      */
     private static final String MYSQL_DATABASE_DRIVER = "com.mysql";
+    /**
+     * ID分区表
+     */
+    private static final String ID_AREA_TABLE = "ID_AREA";
+    /**
+     * ID分区表的分段列和MySQL中添加该列的语句
+     */
+    private static final String[][] MYSQL_ID_AREA_COLUMNS = {
+            {"STRIPE", "ALTER TABLE ID_AREA ADD COLUMN `STRIPE` INT NOT NULL DEFAULT 0 COMMENT '分段', "
+                    + "ADD UNIQUE KEY I_U_ID_AREA_STRIPE (STRIPE)"},
+            {"STRIPES", "ALTER TABLE ID_AREA ADD COLUMN `STRIPES` INT NOT NULL DEFAULT 0 COMMENT '分段数量'"}
+    };
+    /**
+     * ID分区表的分段列和Oracle中添加该列的语句
+     */
+    private static final String[][] ORACLE_ID_AREA_COLUMNS = {
+            {"STRIPE", "alter table ID_AREA add (STRIPE NUMBER(4) default 0 NOT NULL, "
+                    + "constraint I_U_ID_AREA_STRIPE unique(STRIPE))"},
+            {"STRIPES", "alter table ID_AREA add (STRIPES NUMBER(4) default 0 NOT NULL)"}
+    };
+
+    private OracleTimestampConvert oracleTimestampConvert = new OracleTimestampConvert();
+
+    /**
+     * 后台重新构建映射关系的线程
+     */
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rdb-relation-ship-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * 正在进行的后台构建，用于合并重复的重新构建请求
+     */
+    private final AtomicReference<CompletableFuture<RelationShipRdbSnapshot>> reloading = new AtomicReference<>();
 
     @Autowired
     private UXDFMapper uxdfMapper;
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RdbQueryPlanCache rdbQueryPlanCache;
 
     /**
      * Oracle Sql生成
@@ -75,21 +130,53 @@ public class RdbLoader {
     @Value("${truedata.auto.generate.ddl}")
     private boolean autoGenerateDDL;
 
+    /**
+     * 大数量IN条件使用的ID临时表是否存在，加载映射关系时检查
+     */
+    private volatile boolean tempIdTableExists;
+
     /**
      * 根据application中数据库的驱动类型判断注入那个SQLGenerator
      *
      * @return
      */
     public SqlGenerator getSqlGenerator() {
-        if (datasourceDriveName.startsWith(ORACLE_DATABASE_DRIVER)) {
+        if (this.isOracle()) {
             return oracleSqlGenerator;
-        } else if (datasourceDriveName.startsWith(MYSQL_DATABASE_DRIVER)) {
+        } else if (this.isMysql()) {
             return mysqlSqlGenerator;
         } else {
             throw new UXDFException("无法根据数据库驱动注入SqlGenerator对象");
         }
     }
 
+    /**
+     * 当前数据源是否Oracle
+     *
+     * @return 是否Oracle
+     */
+    public boolean isOracle() {
+        return datasourceDriveName.startsWith(ORACLE_DATABASE_DRIVER);
+    }
+
+    /**
+     * 大数量IN条件是否可以使用ID临时表
+     *
+     * @return 是否可以使用ID临时表
+     */
+    public boolean hasTempIdTable() {
+        return this.tempIdTableExists;
+    }
+
+    /**
+     * 当前数据源是否Mysql
+     *
+     * @return 是否Mysql
+     */
+    public boolean isMysql() {
+        return datasourceDriveName.startsWith(MYSQL_DATABASE_DRIVER);
+    }
+
     /**
      * 获取Node和关系型数据库的对应关系
      *
@@ -97,8 +184,7 @@ public class RdbLoader {
      * @return
      */
     public RelationShipRdbTable getRdbNodeMapping(final String nodeName) {
-        this.load(false);
-        return CACHE_RDB_RELATION_SHIP.getNode().get(nodeName);
+        return this.getSnapshot().getRelationShip().getNode().get(nodeName);
     }
 
     /**
@@ -108,8 +194,7 @@ public class RdbLoader {
      * @return
      */
     public Map<String, Map<String, RelationShipRdbTable>> getRdbEventMapping(String eventName) {
-        this.load(false);
-        return CACHE_RDB_RELATION_SHIP.getEvent().get(eventName);
+        return this.getSnapshot().getRelationShip().getEvent().get(eventName);
     }
 
     public RelationShipRdbTable getRdbEventMapping(
@@ -117,49 +202,197 @@ public class RdbLoader {
             String leftNodeName,
             String rightNodeName
     ) {
-        this.load(false);
-        if (CACHE_RDB_RELATION_SHIP.getEvent().containsKey(eventName) &&
-                CACHE_RDB_RELATION_SHIP.getEvent().get(eventName).containsKey(leftNodeName) &&
-                CACHE_RDB_RELATION_SHIP.getEvent().get(eventName).get(leftNodeName).containsKey(rightNodeName)) {
-            return CACHE_RDB_RELATION_SHIP.getEvent().get(eventName).get(leftNodeName).get(rightNodeName);
-        } else {
+        Map<String, Map<String, RelationShipRdbTable>> leftMap = this.getRdbEventMapping(eventName);
+        if (leftMap == null) {
             return null;
         }
+        Map<String, RelationShipRdbTable> rightMap = leftMap.get(leftNodeName);
+        return rightMap == null ? null : rightMap.get(rightNodeName);
     }
 
     /**
      * 获取所有缓存的关系
      *
-     * @return
+     * @return 只读的映射关系
      */
     public RelationShipRdb getCacheRdbRelationShip() {
-        this.load(false);
-        return CACHE_RDB_RELATION_SHIP;
+        return this.getSnapshot().getRelationShip();
+    }
+
+    /**
+     * 获取当前映射关系版本
+     *
+     * @return 版本号
+     */
+    public long getRelationShipVersion() {
+        return this.getSnapshot().getVersion();
+    }
+
+    /**
+     * 获取当前映射关系快照，只有首次加载前需要等待构建
+     *
+     * @return 映射关系快照
+     */
+    private RelationShipRdbSnapshot getSnapshot() {
+        RelationShipRdbSnapshot snapshot = CACHE_RDB_RELATION_SHIP.get();
+        if (snapshot == null) {
+            this.load(false);
+            snapshot = CACHE_RDB_RELATION_SHIP.get();
+        }
+        return snapshot;
+    }
+
+    /**
+     * 上下文刷新时检查Sd定义，和当前映射关系构建时使用的Sd定义不同时在后台重新构建。
+     * 首次加载由{@link RdbStorageService#init()}完成，加载前不处理。
+     *
+     * @param event 上下文刷新事件
+     */
+    @Override
+    public void onApplicationEvent(final ContextRefreshedEvent event) {
+        final RelationShipRdbSnapshot snapshot = CACHE_RDB_RELATION_SHIP.get();
+        if (snapshot != null && snapshot.getSd() != UXDFLoader.getSd()) {
+            log.info("sd definition changed, reload rdb relation ship");
+            this.reloadAsync();
+        }
+    }
+
+    /**
+     * Sd定义变化后，在后台线程重新构建映射关系。
+     * 构建期间继续使用原有映射关系，构建完成后整体替换。正在构建时重复调用返回同一个结果。
+     *
+     * @return 新的映射关系快照
+     */
+    public CompletableFuture<RelationShipRdbSnapshot> reloadAsync() {
+        final CompletableFuture<RelationShipRdbSnapshot> future = new CompletableFuture<>();
+        final CompletableFuture<RelationShipRdbSnapshot> running = this.reloading.getAndUpdate(
+                current -> current == null ? future : current
+        );
+        if (running != null) {
+            return running;
+        }
+        this.reloadExecutor.execute(() -> {
+            try {
+                this.load(true);
+                future.complete(CACHE_RDB_RELATION_SHIP.get());
+            } catch (Exception e) {
+                log.error("reload rdb relation ship error", e);
+                future.completeExceptionally(e);
+            } finally {
+                this.reloading.compareAndSet(future, null);
+            }
+        });
+        return future;
     }
 
-    public void load(boolean force) {
-        if (!force && CACHE_RDB_RELATION_SHIP != null) {
+    @PreDestroy
+    public void destroy() {
+        this.reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * 构建映射关系，并检查生成库表结构。全部完成后发布新的映射关系。
+     *
+     * @param force 已经加载过时是否重新构建
+     */
+    public synchronized void load(boolean force) {
+        if (!force && CACHE_RDB_RELATION_SHIP.get() != null) {
             return;
         }
         // 获取数据库映射关系
-        CACHE_RDB_RELATION_SHIP = this.getSqlGenerator().generateRelationShip(UXDFLoader.getSd());
+        final Sd sd = UXDFLoader.getSd();
+        final RelationShipRdb relationShipRdb = this.getSqlGenerator().generateRelationShip(sd);
+
+        // 检查库表结构
+        this.prepareTables(relationShipRdb);
+
+        // 发布新的映射关系
+        CACHE_RDB_RELATION_SHIP.set(new RelationShipRdbSnapshot(
+                RELATION_SHIP_VERSION.incrementAndGet(),
+                sd,
+                relationShipRdb
+        ));
+        // 映射关系变化，已缓存的查询计划失效
+        this.rdbQueryPlanCache.invalidateAll();
+    }
+
+    /**
+     * 检查ID分区表。自动生成DDL时创建表或添加缺少的分段列；
+     * 不自动生成DDL时缺少分段列则无法分配ID，启动失败并给出需要执行的语句。
+     * 分段列添加后旧版本节点按单行读取ID分区会失败，集群中所有节点需要停止后同时升级。
+     */
+    private void prepareIdArea() {
+        if (uxdfMapper.checkTableExists(ID_AREA_TABLE) == null) {
+            if (autoGenerateDDL) {
+                uxdfMapper.createIdArea();
+            }
+            return;
+        }
+        List<String> statements = Lists.newArrayList();
+        for (String[] column : this.isOracle() ? ORACLE_ID_AREA_COLUMNS : MYSQL_ID_AREA_COLUMNS) {
+            if (uxdfMapper.checkIdAreaColumn(column[0]) != null) {
+                continue;
+            }
+            if (!autoGenerateDDL) {
+                statements.add(column[1]);
+            } else if ("STRIPE".equals(column[0])) {
+                uxdfMapper.addIdAreaStripe();
+            } else {
+                uxdfMapper.addIdAreaStripes();
+            }
+        }
+        if (!statements.isEmpty()) {
+            throw new UXDFException(String.format(
+                    "ID分区表[%s]缺少分段列，请停止集群中所有节点，执行以下语句后同时升级所有节点：%s;",
+                    ID_AREA_TABLE,
+                    String.join("; ", statements)
+            ));
+        }
+    }
+
+    /**
+     * 检查大数量IN条件使用的ID临时表。只在Oracle中使用事务级全局临时表，自动生成DDL时创建；
+     * 不存在时大数量IN条件拆分为多个IN条件。
+     */
+    private void prepareTempIdTable() {
+        if (!this.isOracle()) {
+            this.tempIdTableExists = false;
+            return;
+        }
+        if (uxdfMapper.checkTableExists(RdbTempIdTable.TABLE_NAME) == null) {
+            if (!autoGenerateDDL) {
+                log.warn("not exists temp id table: {}, large in split into chunks", RdbTempIdTable.TABLE_NAME);
+                this.tempIdTableExists = false;
+                return;
+            }
+            uxdfMapper.createTempIdTable(RdbTempIdTable.TABLE_NAME);
+        }
+        this.tempIdTableExists = true;
+    }
 
+    /**
+     * 设置数据环境，按照配置自动生成不存在的库表
+     *
+     * @param relationShipRdb 映射关系
+     */
+    private void prepareTables(final RelationShipRdb relationShipRdb) {
         // 设置数据环境变量
         this.uxdfMapper.setEnv();
 
+        // ID分区表的分段列和是否自动生成DDL无关，始终检查
+        this.prepareIdArea();
+
+        // 大数量IN条件使用的ID临时表，记录是否存在
+        this.prepareTempIdTable();
+
         // 不自动生成DDL
         if (!autoGenerateDDL) {
             return;
         }
 
-        // 检查ID分区表是否存在
-        if (uxdfMapper.checkTableExists("ID_AREA") == null) {
-            uxdfMapper.createIdArea();
-        }
-
         // 基于SQL关系检查数据，并构建库表结构
         List<String> notExistsSd = Lists.newArrayList();
-        CACHE_RDB_RELATION_SHIP.getNode().forEach((nodeName, relationShipRdbTable) -> {
+        relationShipRdb.getNode().forEach((nodeName, relationShipRdbTable) -> {
             if (nodeName.startsWith("$")) {
                 // 元数据定义不检查
                 return;
@@ -169,7 +402,7 @@ public class RdbLoader {
                 notExistsSd.add(nodeName);
             }
         });
-        CACHE_RDB_RELATION_SHIP.getEvent().forEach((eventName, leftMap) -> {
+        relationShipRdb.getEvent().forEach((eventName, leftMap) -> {
             if (eventName.startsWith("$")) {
                 // 元数据定义不检查
                 return;
@@ -208,38 +441,87 @@ public class RdbLoader {
         }
     }
 
+    /**
+     * 获取Node批量insert语句的列，只包含实例中存在的属性，按列名排序。
+     * <p>
+     * 和单条insert一致，实例中不存在的属性不写入，由数据库默认值填充。
+     *
+     * @param sdNode     Node定义
+     * @param nodeEntity Node实例
+     * @return 列名集合
+     */
+    public List<String> getInsertColumns(final SdNodeDefinition sdNode, final NodeEntity nodeEntity) {
+        return getInsertColumns(this.getRdbNodeMapping(sdNode.getNodeName()), nodeEntity);
+    }
+
+    /**
+     * 获取Event批量insert语句的列，只包含实例中存在的属性，按列名排序。
+     *
+     * @param sdEvent     Event定义
+     * @param eventEntity Event实例
+     * @return 列名集合
+     */
+    public List<String> getInsertColumns(final SdEventDefinition sdEvent, final EventEntity eventEntity) {
+        RelationShipRdbTable relation = this.getRdbEventMapping(
+                sdEvent.getEventName(), sdEvent.getLeftNodeName(), sdEvent.getRightNodeName()
+        );
+        return getInsertColumns(relation, eventEntity);
+    }
+
+    /**
+     * 获取实例中存在的属性对应的列，按列名排序
+     *
+     * @param relation 映射关系
+     * @param sdEntity Sd实例
+     * @return 列名集合
+     */
+    static List<String> getInsertColumns(final RelationShipRdbTable relation, final SdEntity sdEntity) {
+        List<String> columnNames = Lists.newArrayList();
+        relation.getColumn().forEach((propName, columnName) -> {
+            if (sdEntity.containsKey(propName)) {
+                columnNames.add(columnName);
+            }
+        });
+        Collections.sort(columnNames);
+        return columnNames;
+    }
+
     /**
      * 生成node insert语句
      *
-     * @param sdNode
-     * @return
+     * @param sdNode      Node定义
+     * @param columnNames 列名集合
+     * @return insert语句
      */
-    public String generateInsertSql(final SdNodeDefinition sdNode) {
+    public String generateInsertSql(final SdNodeDefinition sdNode, final List<String> columnNames) {
         RelationShipRdbTable relation = this.getRdbNodeMapping(sdNode.getNodeName());
-        return generateInsertSql(relation);
+        return generateInsertSql(relation, columnNames);
     }
 
     /**
      * 生成event insert语句
      *
-     * @param sdEvent
-     * @return
+     * @param sdEvent     Event定义
+     * @param columnNames 列名集合
+     * @return insert语句
      */
-    public String generateInsertSql(final SdEventDefinition sdEvent) {
+    public String generateInsertSql(final SdEventDefinition sdEvent, final List<String> columnNames) {
         RelationShipRdbTable relation = this.getRdbEventMapping(
                 sdEvent.getEventName(), sdEvent.getLeftNodeName(), sdEvent.getRightNodeName()
         );
-        return generateInsertSql(relation);
-
+        String insertSql = generateInsertSql(relation, columnNames);
+        // 和UXDFMapper.insertEvent保持一致，重复Event不报错
+        if (this.isMysql()) {
+            final String sdColumn = relation.getColumn().get(SdEntity.ATTR_SD);
+            insertSql += String.format(" on duplicate key update %s = values(%s)", sdColumn, sdColumn);
+        }
+        return insertSql;
     }
 
-    private String generateInsertSql(RelationShipRdbTable relation) {
+    static String generateInsertSql(final RelationShipRdbTable relation, final List<String> columnNames) {
 
         // 获取表名
         final String tableName = relation.getName();
-        // 字段名称
-        List<String> columnNames = Lists.newArrayList(relation.getColumn().values());
-        Collections.sort(columnNames);
 
         // 占位符
         String[] placeholders = new String[columnNames.size()];
@@ -253,89 +535,132 @@ public class RdbLoader {
         );
     }
 
-    public void fillStatement(SdNodeDefinition sdNode, NodeEntity nodeEntity, PreparedStatement statement) throws SQLException {
+    /**
+     * 按照{@link #generateInsertSql(SdNodeDefinition, List)}生成的列顺序填充Node insert语句参数
+     *
+     * @param sdNode      Node定义
+     * @param nodeEntity  Node实例
+     * @param columnNames 列名集合
+     * @param statement   insert语句
+     * @throws SQLException SQL异常
+     */
+    public void fillStatement(
+            final SdNodeDefinition sdNode,
+            final NodeEntity nodeEntity,
+            final List<String> columnNames,
+            final PreparedStatement statement
+    ) throws SQLException {
         RelationShipRdbTable relation = this.getRdbNodeMapping(sdNode.getNodeName());
-        // 字段名称
-        List<String> columnNames = Lists.newArrayList(relation.getColumn().values());
-        Collections.sort(columnNames);
-
-        for (Map.Entry<String, String> propColumn : relation.getColumn().entrySet()) {
-            String propName = propColumn.getKey();
-            String columnName = propColumn.getValue();
-
-            int index = columnNames.indexOf(columnName) + 1;
-            SdProperty prop = sdNode.getProp().get(propName);
-            if (prop == null) {
-                prop = UXDFLoader.getSd().getNode().getAttr().get(propName);
-            }
-            if (!nodeEntity.containsKey(propName) || nodeEntity.get(propName) == null) {
-                statement.setNull(index, Types.NULL);
-                continue;
-            }
-            switch (prop.getBase()) {
-                case Binary:
-                    break;
-                case String:
-                    statement.setString(index, nodeEntity.getString(propName));
-                    break;
-                case Float:
-                    statement.setFloat(index, nodeEntity.getFloat(propName));
-                    break;
-                case Boolean:
-                    statement.setBoolean(index, nodeEntity.getBoolean(propName));
-                    break;
-                case Integer:
-                    statement.setInt(index, nodeEntity.getIntValue(propName));
-                    break;
-                case Datetime:
-                    statement.setDate(index, nodeEntity.getSqlDate(propName));
-                    break;
-            }
-        }
+        Map<String, SdProperty> nodeAttr = UXDFLoader.getSd().getNode().getAttr();
+        fillStatement(relation, sdNode.getProp(), nodeAttr, nodeEntity, columnNames, statement);
     }
 
-    public void fillStatement(SdEventDefinition sdEvent, EventEntity eventEntity, PreparedStatement statement) throws SQLException {
+    /**
+     * 按照{@link #generateInsertSql(SdEventDefinition, List)}生成的列顺序填充Event insert语句参数
+     *
+     * @param sdEvent     Event定义
+     * @param eventEntity Event实例
+     * @param columnNames 列名集合
+     * @param statement   insert语句
+     * @throws SQLException SQL异常
+     */
+    public void fillStatement(
+            final SdEventDefinition sdEvent,
+            final EventEntity eventEntity,
+            final List<String> columnNames,
+            final PreparedStatement statement
+    ) throws SQLException {
         RelationShipRdbTable relation = this.getRdbEventMapping(
                 sdEvent.getEventName(),
                 sdEvent.getLeftNodeName(),
                 sdEvent.getRightNodeName()
         );
-        // 字段名称
-        List<String> columnNames = Lists.newArrayList(relation.getColumn().values());
-        Collections.sort(columnNames);
+        Map<String, SdProperty> eventAttr = UXDFLoader.getSd().getEvent().getAttr();
+        fillStatement(relation, sdEvent.getProp(), eventAttr, eventEntity, columnNames, statement);
+    }
 
+    private void fillStatement(
+            final RelationShipRdbTable relation,
+            final Map<String, SdProperty> sdProp,
+            final Map<String, SdProperty> sdAttr,
+            final SdEntity sdEntity,
+            final List<String> columnNames,
+            final PreparedStatement statement
+    ) throws SQLException {
         for (Map.Entry<String, String> propColumn : relation.getColumn().entrySet()) {
             String propName = propColumn.getKey();
             String columnName = propColumn.getValue();
 
             int index = columnNames.indexOf(columnName) + 1;
-            SdProperty prop = sdEvent.getProp().get(propName);
+            // 不在语句中的列不填充
+            if (index == 0) {
+                continue;
+            }
+            SdProperty prop = sdProp.get(propName);
+            if (prop == null) {
+                prop = sdAttr.get(propName);
+            }
+            // 不在默认和扩展属性中，尝试通过关联唯一获取
             if (prop == null) {
-                prop = UXDFLoader.getSd().getEvent().getAttr().get(propName);
+                prop = AssociateUniquePropertyUtil.getProperty(propName);
             }
-            if (!eventEntity.containsKey(propName) || eventEntity.get(propName) == null) {
+            if (prop == null) {
+                throw new UXDFException(String.format("未找到属性[%s]定义。", propName));
+            }
+            // 属性值为空时，尝试使用默认值填充
+            Object value = sdEntity.get(propName);
+            if (value == null) {
+                value = prop.getDefaultValue();
+            }
+            if (value == null) {
                 statement.setNull(index, Types.NULL);
                 continue;
             }
             switch (prop.getBase()) {
-                case Binary:
-                    break;
                 case String:
-                    statement.setString(index, eventEntity.getString(propName));
+                    setOrNull(statement, index, SdEntity.getBaseString(value), statement::setString);
                     break;
                 case Float:
-                    statement.setFloat(index, eventEntity.getFloat(propName));
+                    setOrNull(statement, index, SdEntity.getBaseFloat(value), statement::setDouble);
                     break;
                 case Boolean:
-                    statement.setBoolean(index, eventEntity.getBoolean(propName));
+                    setOrNull(statement, index, SdEntity.getBaseBoolean(value), statement::setBoolean);
                     break;
                 case Integer:
-                    statement.setInt(index, eventEntity.getIntValue(propName));
+                    setOrNull(statement, index, SdEntity.getBaseInteger(value), statement::setLong);
                     break;
                 case Datetime:
-                    statement.setDate(index, eventEntity.getSqlDate(propName));
+                    Date date = SdEntity.getBaseDate(value, oracleTimestampConvert);
+                    setOrNull(statement, index, date == null ? null : new Timestamp(date.getTime()), statement::setTimestamp);
                     break;
+                case Binary:
+                default:
+                    // 二进制文件不走批量写入，由单条insert处理
+                    statement.setNull(index, Types.NULL);
             }
         }
     }
+
+    private <T> void setOrNull(
+            final PreparedStatement statement,
+            final int index,
+            final T value,
+            final StatementSetter<T> setter
+    ) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.NULL);
+        } else {
+            setter.set(index, value);
+        }
+    }
+
+    /**
+     * PreparedStatement参数设置
+     *
+     * @param <T> 参数类型
+     */
+    @FunctionalInterface
+    private interface StatementSetter<T> {
+        void set(int index, T value) throws SQLException;
+    }
 }
@@ -0,0 +1,148 @@
+package info.ralab.uxdf.rdb;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储操作的耗时和数量指标。
+ * <p>
+ * 指标按Sd名称和操作类型打标签，注册到上下文中的{@link MeterRegistry}，没有时注册到全局注册表。
+ * 注册后的指标按(名称, Sd名称, 操作类型)缓存，记录时不再重复构建和查找。
+ */
+@Component
+public class RdbMetrics {
+
+    /**
+     * 保存各阶段耗时
+     */
+    public static final String SAVE = "uxdf.rdb.save";
+    /**
+     * 查询各阶段耗时
+     */
+    public static final String QUERY = "uxdf.rdb.query";
+    /**
+     * 查询返回的行数
+     */
+    public static final String QUERY_ROWS = "uxdf.rdb.query.rows";
+    /**
+     * 级联删除的层数
+     */
+    public static final String CASCADE_DEPTH = "uxdf.rdb.delete.cascade.depth";
+    /**
+     * 级联删除的Node数量
+     */
+    public static final String CASCADE_NODES = "uxdf.rdb.delete.cascade.nodes";
+    /**
+     * 等待ID分区的耗时
+     */
+    public static final String ID_AREA_WAIT = "uxdf.rdb.id.area.wait";
+
+    /**
+     * Sd名称标签
+     */
+    public static final String TAG_SD = "sd";
+    /**
+     * 操作类型标签
+     */
+    public static final String TAG_OPERATION = "operation";
+    /**
+     * 不区分Sd时的标签值
+     */
+    public static final String ALL_SD = "*";
+
+    private final MeterRegistry registry;
+    /**
+     * 已注册的耗时指标
+     */
+    private final ConcurrentMap<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    /**
+     * 已注册的数量分布指标
+     */
+    private final ConcurrentMap<MeterKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * 是否记录指标
+     */
+    @Value("${truedata.rdb.metrics.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    public RdbMetrics(final ObjectProvider<MeterRegistry> registryProvider) {
+        this.registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    /**
+     * 开始计时
+     *
+     * @return 开始时间，纳秒
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 结束计时并记录耗时
+     *
+     * @param name      指标名称
+     * @param sd        Sd名称
+     * @param operation 操作类型
+     * @param start     {@link #start()}返回的开始时间
+     */
+    public void stop(final String name, final String sd, final String operation, final long start) {
+        if (!this.enabled) {
+            return;
+        }
+        this.timers.computeIfAbsent(new MeterKey(name, sd == null ? ALL_SD : sd, operation), key ->
+                Timer.builder(key.name)
+                        .tag(TAG_SD, key.sd)
+                        .tag(TAG_OPERATION, key.operation)
+                        .register(this.registry)
+        ).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录数量分布
+     *
+     * @param name      指标名称
+     * @param sd        Sd名称
+     * @param operation 操作类型
+     * @param amount    数量
+     */
+    public void record(final String name, final String sd, final String operation, final double amount) {
+        if (!this.enabled) {
+            return;
+        }
+        this.summaries.computeIfAbsent(new MeterKey(name, sd == null ? ALL_SD : sd, operation), key ->
+                DistributionSummary.builder(key.name)
+                        .tag(TAG_SD, key.sd)
+                        .tag(TAG_OPERATION, key.operation)
+                        .register(this.registry)
+        ).record(amount);
+    }
+
+    /**
+     * 指标的缓存Key
+     */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class MeterKey {
+        // 指标名称
+        private final String name;
+        // Sd名称
+        private final String sd;
+        // 操作类型
+        private final String operation;
+    }
+}
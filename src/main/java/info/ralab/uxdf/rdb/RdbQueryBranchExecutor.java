@@ -0,0 +1,91 @@
+package info.ralab.uxdf.rdb;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 查询分支执行。
+ * <p>
+ * 主Node下相互独立的分支分别查询，避免分支之间的笛卡尔积。线程数大于1时在固定大小的线程池中并行查询，
+ * 当前线程有事务时，其它线程无法使用同一连接，仍在当前线程依次查询。线程数小于等于0时不拆分分支。
+ */
+@Component
+@Slf4j
+public class RdbQueryBranchExecutor {
+
+    /**
+     * 并行查询的线程数
+     */
+    @Value("${truedata.rdb.query.branch.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (this.threads > 1) {
+            final AtomicInteger threadSeq = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+                Thread thread = new Thread(runnable, "rdb-query-branch-" + threadSeq.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 是否拆分独立分支查询
+     *
+     * @return 是否拆分
+     */
+    public boolean isEnabled() {
+        return this.threads > 0;
+    }
+
+    /**
+     * 执行全部查询，按查询的顺序返回结果
+     *
+     * @param queries 查询
+     * @param <T>     查询结果类型
+     * @return 查询结果
+     */
+    public <T> List<T> invokeAll(final List<Supplier<T>> queries) {
+        if (this.executor == null
+                || queries.size() < 2
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return queries.stream().map(Supplier::get).collect(Collectors.toList());
+        }
+        final List<CompletableFuture<T>> futures = queries.stream()
+                .map(query -> CompletableFuture.supplyAsync(query, this.executor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import info.ralab.uxdf.rdb.model.RdbExistsInfo;
+import info.ralab.uxdf.rdb.model.RdbQueryInfo;
+import info.ralab.uxdf.rdb.model.RdbQueryParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询总数缓存。
+ * <p>
+ * 按主查询信息的表、查询条件和Exists条件缓存总数，在有效期内相同条件的分页请求不再重复统计。
+ * 有效期内的数据变化不会反映到总数上，默认不缓存。
+ * 事务中统计的总数可能包含未提交的数据，也需要反映事务自身的修改，因此事务中不使用缓存。
+ */
+@Component
+public class RdbQueryCountCache {
+
+    /**
+     * 有效期，秒。小于等于0时不缓存
+     */
+    @Value("${truedata.rdb.query.count.cache.ttl:0}")
+    private long ttl;
+    /**
+     * 最大缓存数量
+     */
+    @Value("${truedata.rdb.query.count.cache.size:1024}")
+    private long maximumSize;
+
+    private Cache<String, Long> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(Math.max(this.ttl, 0), TimeUnit.SECONDS)
+                .maximumSize(Math.max(this.maximumSize, 0))
+                .build();
+    }
+
+    /**
+     * 获取总数，不存在时统计并缓存
+     *
+     * @param queryInfo 主查询信息，已绑定查询参数
+     * @param counter   总数统计
+     * @return 总数
+     */
+    public long get(final RdbQueryInfo queryInfo, final Supplier<Long> counter) {
+        if (this.ttl <= 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return counter.get();
+        }
+        final String key = makeKey(queryInfo);
+        Long count = this.cache.getIfPresent(key);
+        if (count == null) {
+            count = counter.get();
+            this.cache.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * 生成总数缓存Key
+     *
+     * @param queryInfo 主查询信息
+     * @return 缓存Key
+     */
+    static String makeKey(final RdbQueryInfo queryInfo) {
+        StringBuilder key = new StringBuilder(queryInfo.getTable());
+        appendParams(key, queryInfo.getParams());
+        if (queryInfo.getExists() != null && queryInfo.isUseExists()) {
+            queryInfo.getExists().getExistsList().forEach(existsInfo -> appendExists(key, existsInfo));
+        }
+        return key.toString();
+    }
+
+    private static void appendExists(final StringBuilder key, final RdbExistsInfo existsInfo) {
+        if (existsInfo.isClose()) {
+            key.append(')');
+            return;
+        }
+        key.append("|exists(")
+                .append(existsInfo.getSelfTable())
+                .append(existsInfo.getExistsColumns())
+                .append(existsInfo.getExistsTable());
+        appendParams(key, existsInfo.getParams());
+    }
+
+    private static void appendParams(final StringBuilder key, final List<RdbQueryParam> params) {
+        params.forEach(param -> {
+            // 参数值加上长度，避免不同参数拼接后相同
+            final String value = String.valueOf(param.getValue());
+            key.append('|')
+                    .append(param.getColumn())
+                    .append(' ')
+                    .append(param.getLogic())
+                    .append(' ')
+                    .append(value.length())
+                    .append(':')
+                    .append(value);
+        });
+    }
+}
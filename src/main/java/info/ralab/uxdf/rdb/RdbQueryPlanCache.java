@@ -0,0 +1,103 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.rdb.model.RdbQueryPlan;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Supplier;
+
+/**
+ * 查询计划缓存。
+ * <p>
+ * 按查询请求的结构（关系串、主标签、排序、是否分页、是否游标分页、是否只查询主Node）缓存{@link RdbQueryPlan}，
+ * 查询参数在每次执行时绑定，不参与缓存。
+ */
+@Component
+@Slf4j
+public class RdbQueryPlanCache {
+
+    /**
+     * 最大缓存数量，小于等于0时不缓存
+     */
+    @Value("${truedata.rdb.query.plan.cache.size:256}")
+    private long maximumSize;
+
+    private Cache<String, RdbQueryPlan> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(this.maximumSize, 0))
+                .build();
+    }
+
+    /**
+     * 获取查询计划，不存在时构建并缓存
+     *
+     * @param relationShipVersion 映射关系版本
+     * @param queryRequest        查询请求
+     * @param seek                是否使用游标分页
+     * @param builder             查询计划构建
+     * @return 查询计划
+     */
+    public RdbQueryPlan get(
+            final long relationShipVersion,
+            final SdDataQueryRequest queryRequest,
+            final boolean seek,
+            final Supplier<RdbQueryPlan> builder
+    ) {
+        if (this.maximumSize <= 0) {
+            return builder.get();
+        }
+        // 映射关系版本作为Key的一部分，避免使用旧映射关系构建的计划
+        final String key = relationShipVersion + "|" + makeKey(queryRequest, seek);
+        RdbQueryPlan queryPlan = this.cache.getIfPresent(key);
+        if (queryPlan == null) {
+            // 并发构建时以后放入的为准，计划内容一致
+            queryPlan = builder.get();
+            this.cache.put(key, queryPlan);
+            log.debug("query plan cached: {}", key);
+        }
+        return queryPlan;
+    }
+
+    /**
+     * 清空缓存，数据库映射关系变化时调用
+     */
+    public void invalidateAll() {
+        if (this.cache != null) {
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 生成查询请求结构的缓存Key
+     *
+     * @param queryRequest 查询请求
+     * @param seek         是否使用游标分页
+     * @return 缓存Key
+     */
+    static String makeKey(final SdDataQueryRequest queryRequest, final boolean seek) {
+        StringBuilder key = new StringBuilder();
+        Joiner.on(',').appendTo(key, queryRequest.getChains());
+        key.append('|').append(queryRequest.isOnlyMain());
+        key.append('|').append(queryRequest.hasPage());
+        key.append('|').append(seek);
+        if (queryRequest.hasOrder() || queryRequest.hasPage()) {
+            key.append('|').append(queryRequest.getMain().getAlias());
+        }
+        if (queryRequest.hasOrder()) {
+            queryRequest.getMain().getOrders().forEach(order -> key.append('|')
+                    .append(order.getProperty())
+                    .append(' ')
+                    .append(order.getType()));
+        }
+        return key.toString();
+    }
+}
@@ -1,7 +1,10 @@
 package info.ralab.uxdf.rdb;
 
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import info.ralab.uxdf.SdData;
 import info.ralab.uxdf.UXDF;
 import info.ralab.uxdf.UXDFLoader;
@@ -10,26 +13,35 @@ import info.ralab.uxdf.definition.*;
 import info.ralab.uxdf.instance.EventEntity;
 import info.ralab.uxdf.instance.IdMaker;
 import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.instance.SdEntity;
 import info.ralab.uxdf.model.SdDataQueryParam;
 import info.ralab.uxdf.model.SdDataQueryRequest;
 import info.ralab.uxdf.model.SdDataQueryResult;
 import info.ralab.uxdf.model.SdDataSaveResult;
+import info.ralab.uxdf.rdb.convert.BinaryConvert;
 import info.ralab.uxdf.rdb.exception.UXDFSaveErrorType;
 import info.ralab.uxdf.rdb.exception.UXDFSaveException;
+import info.ralab.uxdf.rdb.executor.BatchInsertExecutor;
+import info.ralab.uxdf.rdb.executor.CascadeDeleteExecutor;
 import info.ralab.uxdf.rdb.executor.SaveExecutor;
 import info.ralab.uxdf.rdb.mapper.UXDFMapper;
 import info.ralab.uxdf.rdb.mapper.UXDFQueryMapper;
 import info.ralab.uxdf.rdb.executor.QueryRequestExecutor;
 import info.ralab.uxdf.rdb.model.InsertParam;
+import info.ralab.uxdf.rdb.model.RdbCountPolicy;
+import info.ralab.uxdf.rdb.model.RdbIdentityMap;
 import info.ralab.uxdf.rdb.model.RelationShipRdbTable;
 import info.ralab.uxdf.rdb.model.UpdateParam;
+import info.ralab.uxdf.rdb.utils.RdbBinaryStream;
 import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
 import info.ralab.uxdf.rdb.utils.UXDFRdbValidator;
 import info.ralab.uxdf.service.StorageService;
 import info.ralab.uxdf.utils.AssociateUniquePropertyUtil;
 import info.ralab.uxdf.utils.UXDFBinaryFileInfo;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.MessageSource;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -38,6 +50,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.springframework.transaction.annotation.Propagation.MANDATORY;
 
@@ -50,6 +64,21 @@ public class RdbStorageService implements StorageService {
 
     private ApplicationContext applicationContext;
     private RdbLoader rdbLoader;
+    private RdbQueryPlanCache rdbQueryPlanCache;
+    private RdbQueryCountCache rdbQueryCountCache;
+    private RdbTempIdTable rdbTempIdTable;
+    private RdbQueryBranchExecutor rdbQueryBranchExecutor;
+    /**
+     * 操作指标
+     */
+    @Getter
+    private RdbMetrics rdbMetrics;
+    /**
+     * Node实例缓存
+     */
+    @Getter
+    private RdbEntityCache rdbEntityCache;
+    private RdbBinaryStorage rdbBinaryStorage;
     private UXDFRdbConvert uxdfRdbConvert;
     private UXDFQueryMapper uxdfQueryMapper;
     private UXDFMapper uxdfMapper;
@@ -57,12 +86,51 @@ public class RdbStorageService implements StorageService {
     private JdbcTemplate jdbcTemplate;
 
 
+    /**
+     * 数据校验
+     */
+    @Getter
     private UXDFRdbValidator rdbValidator;
 
+    /**
+     * 批量获取时IN条件的最大数量
+     */
+    private static final int MULTI_GET_PARTITION_SIZE = 500;
+
+    /**
+     * 当前线程保存过程中的Node实例标识映射
+     */
+    private final ThreadLocal<RdbIdentityMap> identityMaps = new ThreadLocal<>();
+
+    /**
+     * 批量新增每次提交的行数，小于等于0时不使用批量新增
+     */
+    @Value("${truedata.rdb.batch.size:500}")
+    private int batchSize;
+
+    /**
+     * 分页查询的总数统计方式
+     */
+    @Value("${truedata.rdb.query.count.policy:EXACT}")
+    private RdbCountPolicy countPolicy;
+
+    /**
+     * 更新Node时是否只更新和原有记录不同的列
+     */
+    @Value("${truedata.rdb.update.changed.only:true}")
+    private boolean updateChangedOnly;
+
     @Autowired
     public RdbStorageService(
             final ApplicationContext applicationContext,
             final RdbLoader rdbLoader,
+            final RdbQueryPlanCache rdbQueryPlanCache,
+            final RdbQueryCountCache rdbQueryCountCache,
+            final RdbTempIdTable rdbTempIdTable,
+            final RdbQueryBranchExecutor rdbQueryBranchExecutor,
+            final RdbMetrics rdbMetrics,
+            final RdbEntityCache rdbEntityCache,
+            final RdbBinaryStorage rdbBinaryStorage,
             final UXDFRdbConvert uxdfRdbConvert,
             final UXDFQueryMapper uxdfQueryMapper,
             final UXDFMapper uxdfMapper,
@@ -71,6 +139,13 @@ public class RdbStorageService implements StorageService {
     ) {
         this.applicationContext = applicationContext;
         this.rdbLoader = rdbLoader;
+        this.rdbQueryPlanCache = rdbQueryPlanCache;
+        this.rdbQueryCountCache = rdbQueryCountCache;
+        this.rdbTempIdTable = rdbTempIdTable;
+        this.rdbQueryBranchExecutor = rdbQueryBranchExecutor;
+        this.rdbMetrics = rdbMetrics;
+        this.rdbEntityCache = rdbEntityCache;
+        this.rdbBinaryStorage = rdbBinaryStorage;
         this.uxdfRdbConvert = uxdfRdbConvert;
         this.uxdfQueryMapper = uxdfQueryMapper;
         this.uxdfMapper = uxdfMapper;
@@ -171,6 +246,22 @@ public class RdbStorageService implements StorageService {
         return makeQueryRequestExecutor(queryRequest).execute();
     }
 
+    /**
+     * 使用{@link SdDataQueryRequest}流式查询，逐行转换为{@link NodeEntity}或{@link EventEntity}后交给处理者，
+     * 查询结果不在内存中汇总，适合导出等大数据量场景。
+     * 处理者在读取结果集期间被调用，MySQL下不能在处理者中使用同一个连接执行其它查询。
+     *
+     * @param queryRequest  查询请求
+     * @param entityHandler 实例处理者
+     * @return 查询结果，只包含Sd定义和分页信息
+     */
+    public SdDataQueryResult queryData(
+            final SdDataQueryRequest queryRequest,
+            final Consumer<SdEntity> entityHandler
+    ) {
+        return makeQueryRequestExecutor(queryRequest).stream(entityHandler);
+    }
+
     /**
      * 使用Node定义、逻辑ID、版本库、版本库分支、版本库版本获取唯一的{@link info.ralab.uxdf.instance.NodeEntity}。
      *
@@ -200,15 +291,7 @@ public class RdbStorageService implements StorageService {
 
     @Override
     public NodeEntity getNodeEntityById(String nodeName, String nodeId) {
-        List<NodeEntity> list = getDataById(nodeName, nodeId)
-                .getUxdf()
-                .getData()
-                .getUnmodifiableNode();
-
-        if (list.isEmpty()) {
-            return null;
-        }
-        return list.get(0);
+        return this.getNodeEntitiesByIds(nodeName, Collections.singleton(nodeId)).get(nodeId);
     }
 
     @Override
@@ -216,20 +299,30 @@ public class RdbStorageService implements StorageService {
         return null;
     }
 
+    /**
+     * 在当前线程开启Node实例标识映射，之后的按ID获取和{@link #loadNodeByEntity(NodeEntity, boolean)}
+     * 优先使用已经读取过的Node。已经开启时沿用外层的映射。
+     *
+     * @return 是否新开启，新开启时必须调用{@link #closeIdentityMap()}
+     */
+    public boolean openIdentityMap() {
+        if (this.identityMaps.get() != null) {
+            return false;
+        }
+        this.identityMaps.set(new RdbIdentityMap());
+        return true;
+    }
+
+    /**
+     * 关闭当前线程的Node实例标识映射
+     */
+    public void closeIdentityMap() {
+        this.identityMaps.remove();
+    }
+
     @Override
     public NodeEntity getNodeEntityByUUID(String nodeName, String uuid) {
-        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
-        queryRequest.getChains().add(nodeName);
-        queryRequest.getParams().put(nodeName, Lists.newArrayList(
-                SdDataQueryParam.equal(NodeEntity.ATTR_UUID, uuid)
-        ));
-        SdDataQueryResult queryResult = makeQueryRequestExecutor(queryRequest).execute();
-        List<NodeEntity> list = queryResult.getUxdf().getData().getUnmodifiableNode();
-
-        if (list.isEmpty()) {
-            return null;
-        }
-        return list.get(0);
+        return this.getNodeEntitiesByUuids(nodeName, Collections.singleton(uuid)).get(uuid);
     }
 
     @Override
@@ -289,7 +382,7 @@ public class RdbStorageService implements StorageService {
 
     @Override
     public EventEntity getEventEntity(String eventName, String uuid) {
-        return null;
+        return this.getEventEntitiesByUuids(eventName, Collections.singleton(uuid)).get(uuid);
     }
 
     @Override
@@ -298,7 +391,166 @@ public class RdbStorageService implements StorageService {
     }
 
     /**
-     * 获取二进制文件流{@link InputStream}
+     * 使用ID集合批量获取{@link NodeEntity}，每个表按IN条件分批查询
+     *
+     * @param nodeName Node定义
+     * @param nodeIds  逻辑ID集合
+     * @return 逻辑ID和Node实例，不存在的ID不包含在结果中
+     */
+    public Map<String, NodeEntity> getNodeEntitiesByIds(final String nodeName, final Collection<String> nodeIds) {
+        return this.getNodeEntities(nodeName, NodeEntity.ATTR_ID, nodeIds);
+    }
+
+    /**
+     * 使用UUID集合批量获取{@link NodeEntity}，每个表按IN条件分批查询
+     *
+     * @param nodeName Node定义
+     * @param uuids    UUID集合
+     * @return UUID和Node实例，不存在的UUID不包含在结果中
+     */
+    public Map<String, NodeEntity> getNodeEntitiesByUuids(final String nodeName, final Collection<String> uuids) {
+        return this.getNodeEntities(nodeName, NodeEntity.ATTR_UUID, uuids);
+    }
+
+    /**
+     * 使用UUID集合批量获取{@link EventEntity}，查询Event定义对应的所有表
+     *
+     * @param eventName Event定义
+     * @param uuids     UUID集合
+     * @return UUID和Event实例，不存在的UUID不包含在结果中
+     */
+    public Map<String, EventEntity> getEventEntitiesByUuids(final String eventName, final Collection<String> uuids) {
+        final Map<String, EventEntity> eventEntities = Maps.newHashMap();
+        final Map<String, Map<String, RelationShipRdbTable>> eventMapping = rdbLoader.getRdbEventMapping(eventName);
+        if (eventMapping == null || uuids == null || uuids.isEmpty()) {
+            return eventEntities;
+        }
+        final Set<String> remainUuids = Sets.newLinkedHashSet(uuids);
+        for (Map<String, RelationShipRdbTable> rightMap : eventMapping.values()) {
+            for (RelationShipRdbTable eventTable : rightMap.values()) {
+                this.getByColumn(eventTable, EventEntity.ATTR_UUID, remainUuids).forEach(rdbResult -> {
+                    EventEntity eventEntity = this.uxdfRdbConvert.rdbToEvent(rdbResult);
+                    if (eventEntity != null) {
+                        eventEntities.put(eventEntity.get__Uuid(), eventEntity);
+                    }
+                });
+                // 全部找到后不再查询其它表
+                remainUuids.removeAll(eventEntities.keySet());
+                if (remainUuids.isEmpty()) {
+                    return eventEntities;
+                }
+            }
+        }
+        return eventEntities;
+    }
+
+    /**
+     * 使用属性值集合批量获取{@link NodeEntity}
+     *
+     * @param nodeName Node定义
+     * @param property 属性
+     * @param values   属性值集合
+     * @return 属性值和Node实例
+     */
+    private Map<String, NodeEntity> getNodeEntities(
+            final String nodeName,
+            final String property,
+            final Collection<String> values
+    ) {
+        final Map<String, NodeEntity> nodeEntities = Maps.newHashMap();
+        if (values == null || values.isEmpty()) {
+            return nodeEntities;
+        }
+        final RelationShipRdbTable nodeMapping = rdbLoader.getRdbNodeMapping(nodeName);
+        if (nodeMapping == null) {
+            return nodeEntities;
+        }
+        final boolean byId = NodeEntity.ATTR_ID.equals(property);
+        final Set<String> missValues = Sets.newLinkedHashSet();
+        final RdbIdentityMap identityMap = this.identityMaps.get();
+        values.forEach(value -> {
+            // 按ID获取时优先使用保存过程中已读取的Node，其次使用缓存
+            NodeEntity nodeEntity = null;
+            if (byId && identityMap != null) {
+                nodeEntity = identityMap.getById(nodeName, value);
+            }
+            if (byId && nodeEntity == null) {
+                nodeEntity = this.rdbEntityCache.getById(nodeName, value);
+            }
+            if (nodeEntity == null) {
+                missValues.add(value);
+            } else {
+                nodeEntities.put(value, nodeEntity);
+            }
+        });
+        if (missValues.isEmpty()) {
+            return nodeEntities;
+        }
+        this.getByColumn(nodeMapping, property, missValues).forEach(rdbResult -> {
+            NodeEntity nodeEntity = this.uxdfRdbConvert.rdbToNode(rdbResult);
+            if (nodeEntity != null) {
+                nodeEntities.put(String.valueOf(nodeEntity.get(property)), nodeEntity);
+                this.rdbEntityCache.putById(nodeEntity);
+                if (identityMap != null) {
+                    identityMap.put(nodeEntity);
+                }
+            }
+        });
+        return nodeEntities;
+    }
+
+    /**
+     * 从数据库读取Node的原有记录，用于判断哪些列有变化。
+     * 不使用标识映射和缓存，缓存中过期的记录会使改回原值的列被判断为没有变化而不更新。
+     *
+     * @param nodeName Node名称
+     * @param nodeId   Node ID
+     * @return 原有记录，不存在时返回null
+     */
+    private NodeEntity getOriginalNode(final String nodeName, final String nodeId) {
+        final RelationShipRdbTable nodeMapping = rdbLoader.getRdbNodeMapping(nodeName);
+        if (nodeMapping == null) {
+            return null;
+        }
+        for (JSONObject rdbResult : this.getByColumn(nodeMapping, NodeEntity.ATTR_ID, Collections.singleton(nodeId))) {
+            NodeEntity nodeEntity = this.uxdfRdbConvert.rdbToNode(rdbResult);
+            if (nodeEntity != null) {
+                return nodeEntity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按属性对应的列，使用IN条件分批查询表。二进制列不查询，需要时按UUID分段读取
+     *
+     * @param table    表映射关系
+     * @param property 属性
+     * @param values   属性值集合
+     * @return 查询结果
+     */
+    private List<JSONObject> getByColumn(
+            final RelationShipRdbTable table,
+            final String property,
+            final Set<String> values
+    ) {
+        final List<JSONObject> rdbResults = Lists.newArrayList();
+        final String column = table.getColumn().get(property);
+        for (List<String> partition : Iterables.partition(values, MULTI_GET_PARTITION_SIZE)) {
+            // todo 判断权限
+            rdbResults.addAll(this.uxdfMapper.getByColumn(
+                    table.getName(),
+                    table.getSelectColumns(),
+                    column,
+                    partition,
+                    null
+            ));
+        }
+        return rdbResults;
+    }
+
+    /**
+     * 获取二进制文件流{@link InputStream}，读取时分段查询
      *
      * @param nodeName Node名称
      * @param uuid     唯一标识
@@ -306,6 +558,24 @@ public class RdbStorageService implements StorageService {
      */
     @Override
     public InputStream getUXDFBinaryFile(final String nodeName, final String property, final String uuid) {
+        return this.getUXDFBinaryFile(nodeName, property, uuid, null);
+    }
+
+    /**
+     * 获取二进制文件指定字节范围的流，读取时分段查询
+     *
+     * @param nodeName Node名称
+     * @param property 属性名称
+     * @param uuid     唯一标识
+     * @param range    字节范围，格式与HTTP的Range请求头一致，为空时读取全部内容
+     * @return 二进制文件，不存在时返回null
+     */
+    public RdbBinaryStream getUXDFBinaryFile(
+            final String nodeName,
+            final String property,
+            final String uuid,
+            final String range
+    ) {
         RelationShipRdbTable rdbTable = this.rdbLoader.getRdbNodeMapping(nodeName);
         // 表或字段不存在
         if (rdbTable == null || !rdbTable.getColumn().containsKey(property)) {
@@ -314,7 +584,7 @@ public class RdbStorageService implements StorageService {
         String table = rdbTable.getName();
         String column = rdbTable.getColumn().get(property);
 
-        return this.uxdfMapper.getBinary(table, column, uuid);
+        return this.rdbBinaryStorage.open(table, column, uuid, range);
     }
 
     /**
@@ -358,6 +628,7 @@ public class RdbStorageService implements StorageService {
     @Override
     public int clearNode(final String nodeName) {
         RelationShipRdbTable rdbTable = this.rdbLoader.getRdbNodeMapping(nodeName);
+        this.rdbEntityCache.evict(nodeName);
         return this.uxdfMapper.deleteNodeAll(rdbTable.getName());
     }
 
@@ -382,6 +653,8 @@ public class RdbStorageService implements StorageService {
         }
 
         List<SdDataQueryParam> queryParams = Lists.newArrayList();
+        // 唯一属性值，只使用唯一属性查询时作为缓存Key
+        List<Object> uniqueValues = null;
 
         if (useUniqueKey) { // 只使用唯一属性作为查询条件
             String[] uniqueIndex = sdNode.getUniqueIndex();
@@ -432,6 +705,26 @@ public class RdbStorageService implements StorageService {
             });
         }
 
+        // 保存过程中使用相同条件读取过
+        final RdbIdentityMap identityMap = this.identityMaps.get();
+        if (identityMap != null) {
+            NodeEntity loadedNode = identityMap.getByParams(sdNode.getNodeName(), queryParams);
+            if (loadedNode != null) {
+                return loadedNode;
+            }
+        }
+
+        if (useUniqueKey) {
+            uniqueValues = queryParams.stream().map(SdDataQueryParam::getValue).collect(Collectors.toList());
+            NodeEntity cachedNode = this.rdbEntityCache.getByUniqueKey(sdNode.getNodeName(), uniqueValues);
+            if (cachedNode != null) {
+                if (identityMap != null) {
+                    identityMap.put(queryParams, cachedNode);
+                }
+                return cachedNode;
+            }
+        }
+
         // 构建查询请求
         SdDataQueryRequest queryRequest = new SdDataQueryRequest();
         queryRequest.getChains().add(sdNode.getNodeName());
@@ -444,7 +737,14 @@ public class RdbStorageService implements StorageService {
         }
 
         // 返回首条数据
-        return queryResult.getUxdf().getData().getUnmodifiableNode().get(0);
+        NodeEntity node = queryResult.getUxdf().getData().getUnmodifiableNode().get(0);
+        if (uniqueValues != null) {
+            this.rdbEntityCache.putByUniqueKey(uniqueValues, node);
+        }
+        if (identityMap != null) {
+            identityMap.put(queryParams, node);
+        }
+        return node;
     }
 
     /**
@@ -456,9 +756,31 @@ public class RdbStorageService implements StorageService {
     public QueryRequestExecutor makeQueryRequestExecutor(final SdDataQueryRequest queryRequest) {
         return new QueryRequestExecutor(
                 this.rdbLoader,
+                this.rdbQueryPlanCache,
                 this.uxdfRdbConvert,
                 this.uxdfQueryMapper,
                 queryRequest
+        )
+                .countPolicy(this.countPolicy)
+                .countCache(this.rdbQueryCountCache)
+                .tempIdTable(this.rdbTempIdTable)
+                .branchExecutor(this.rdbQueryBranchExecutor)
+                .metrics(this.rdbMetrics);
+    }
+
+    /**
+     * 创建批量新增执行者
+     *
+     * @return 批量新增执行者，未开启批量新增时返回null
+     */
+    public BatchInsertExecutor makeBatchInsertExecutor() {
+        if (this.batchSize <= 0) {
+            return null;
+        }
+        return new BatchInsertExecutor(
+                this.rdbLoader,
+                this.jdbcTemplate,
+                this.batchSize
         );
     }
 
@@ -472,6 +794,58 @@ public class RdbStorageService implements StorageService {
     public int createNode(
             final NodeEntity node,
             final SdData data
+    ) {
+        this.prepareCreateNode(node, data);
+
+        // 获取Insert参数
+        InsertParam insertParam = this.uxdfRdbConvert.makeNodeInsertParam(node);
+        log.debug("insertParam:{}", insertParam);
+        final int insertNum = this.uxdfMapper.insert(insertParam);
+        node.set__Id(insertParam.getId());
+
+        // TODO 保存后数据处理
+
+        // 移除动态属性
+        node.removeDynamicAttr();
+
+        return insertNum;
+    }
+
+    /**
+     * 新增Node，使用批量新增执行者时只加入待新增集合，由调用方统一提交
+     *
+     * @param node          Node实例
+     * @param data          数据集合
+     * @param batchExecutor 批量新增执行者，为null时直接新增
+     * @return 直接新增的实例数量，加入批量时返回0
+     */
+    public int createNode(
+            final NodeEntity node,
+            final SdData data,
+            final BatchInsertExecutor batchExecutor
+    ) {
+        // 包含二进制文件的Node需要流式写入，不进行批量
+        if (batchExecutor == null || node.containsKey(BinaryConvert.SD_PROP_FILES)) {
+            return this.createNode(node, data);
+        }
+        this.prepareCreateNode(node, data);
+        batchExecutor.addNode(node);
+
+        // 移除动态属性
+        node.removeDynamicAttr();
+
+        return 0;
+    }
+
+    /**
+     * 新增Node前，生成ID、UUID、创建时间并检查数据
+     *
+     * @param node Node实例
+     * @param data 数据集合
+     */
+    private void prepareCreateNode(
+            final NodeEntity node,
+            final SdData data
     ) {
         // 获取ID
         String nodeId = node.isCreateOriginalId() ? node.get__Id() : IdMaker.next();
@@ -490,24 +864,15 @@ public class RdbStorageService implements StorageService {
         // 检查数据
         rdbValidator.check(node);
 
-        // 获取Insert参数
-        InsertParam insertParam = this.uxdfRdbConvert.makeNodeInsertParam(node);
-        log.debug("insertParam:{}", insertParam);
-        final int insertNum = this.uxdfMapper.insert(insertParam);
-        node.set__Id(insertParam.getId());
-
-        // TODO 保存后数据处理
-
-        // 移除动态属性
-        node.removeDynamicAttr();
-
-        return insertNum;
+        // 新增的数据在事务提交前不进入缓存
+        this.rdbEntityCache.evict(node.get__Sd());
     }
 
     /**
-     * 更新Node实例{@link NodeEntity}
+     * 更新Node实例{@link NodeEntity}，只更新和原有记录不同的列，除更新时间外没有变化时不更新
      *
      * @param node 被更新的Node实例
+     * @return 更新数量
      */
     public int updateNode(
             final NodeEntity node,
@@ -523,10 +888,30 @@ public class RdbStorageService implements StorageService {
         // 检查数据
         rdbValidator.check(node);
 
-        // 获取update参数
-        UpdateParam updateParam = this.uxdfRdbConvert.makeNodeUpdateParam(node);
+        // 检查时读取的原有记录，预查询的记录和缓存未启用时读取的记录都来自数据库
+        final NodeEntity checkedNode = rdbValidator.takeCheckedNode(
+                node.get__Sd(),
+                node.get__Id(),
+                !this.rdbEntityCache.isEnabled()
+        );
+        // 获取update参数，只更新和原有记录不同的列，检查时的记录可能来自缓存时重新从数据库读取
+        NodeEntity originalNode = null;
+        if (this.updateChangedOnly) {
+            originalNode = checkedNode != null ? checkedNode : this.getOriginalNode(node.get__Sd(), node.get__Id());
+        }
+        UpdateParam updateParam = this.uxdfRdbConvert.makeNodeUpdateParam(node, originalNode);
+        // 没有变化，不需要更新
+        if (updateParam == null) {
+            node.removeDynamicAttr();
+            return 0;
+        }
 
         final int updateNum = this.uxdfMapper.update(updateParam);
+        this.rdbEntityCache.evict(node.get__Sd());
+        final RdbIdentityMap identityMap = this.identityMaps.get();
+        if (identityMap != null) {
+            identityMap.remove(node.get__Sd(), node.get__Id());
+        }
 
         // TODO 更新后数据处理
 
@@ -536,7 +921,7 @@ public class RdbStorageService implements StorageService {
     }
 
     /**
-     * 删除Node实例{@link NodeEntity}
+     * 删除Node实例{@link NodeEntity}，强制删除时批量级联删除依赖它的Node
      *
      * @param node Node实例{
      */
@@ -544,167 +929,19 @@ public class RdbStorageService implements StorageService {
             final NodeEntity node,
             final SdData sdData
     ) {
-        // 重新生成UUID
-        node.generateUUID();
-        final String nodeName = node.get__Sd();
-        final String nodeId = node.get__Id();
-        final boolean enforce = node.isDeleteEnforce();
-
-        // 检查数据
-        rdbValidator.check(node);
-
-        int deletedNum = 0;
-
-        final RelationShipRdbTable nodeMapping = rdbLoader.getRdbNodeMapping(nodeName);
-        final String nodeTable = nodeMapping.getName();
-
-        Set<SdEventDefinition> eventDefinitions = UXDFLoader.getEventsByNodeName(nodeName);
-        if (eventDefinitions != null) {
-            for (SdEventDefinition eventDefinition : eventDefinitions) {
-                final String eventName = eventDefinition.getEventName();
-                final String leftNodeName = eventDefinition.getLeftNodeName();
-                final String rightNodeName = eventDefinition.getRightNodeName();
-
-                final RelationShipRdbTable eventMapping = rdbLoader.getRdbEventMapping(eventName)
-                        .get(leftNodeName)
-                        .get(rightNodeName);
-                final String eventTable = eventMapping.getName();
-
-                final RelationShipRdbTable leftNodeMapping = rdbLoader.getRdbNodeMapping(leftNodeName);
-                final String leftNodeTable = leftNodeMapping.getName();
-
-                final RelationShipRdbTable rightNodeMapping = rdbLoader.getRdbNodeMapping(rightNodeName);
-                final String rightNodeTable = rightNodeMapping.getName();
-
-                // 当前Node是左节点
-                if (leftNodeName.equals(nodeName)) {
-                    // 该Event对于右节点不是必须
-                    if (eventDefinition.getRequired() == null
-                            || eventDefinition.getRequired() == SdEventRequiredType.none
-                            ||
-                            (eventDefinition.getRequired() != SdEventRequiredType.right
-                                    && eventDefinition.getRequired() != SdEventRequiredType.both)
-                    ) {
-                        deletedNum += this.uxdfMapper.deleteEventByLeftNode(
-                                eventTable,
-                                nodeId,
-                                nodeName
-                        );
-                    } else if (enforce) {
-                        // 该Event对于右节点是必须，并且可以强制删除
-                        // 获取相关Node，并进行逐一删除
-                        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
-                        String targetLabel = "TN";
-                        queryRequest.getChains().add(String.format(
-                                "%s-%s>%s:%s",
-                                leftNodeName,
-                                eventName,
-                                targetLabel,
-                                rightNodeName
-                        ));
-                        queryRequest.getReturns().add(targetLabel);
-                        // 通过左Node查找
-                        queryRequest.getParams().put(leftNodeName, Lists.newArrayList(
-                                SdDataQueryParam.equal(NodeEntity.ATTR_SD, nodeName),
-                                SdDataQueryParam.equal(NodeEntity.ATTR_ID, nodeId)
-                        ));
-                        SdDataQueryResult queryResult = this.makeQueryRequestExecutor(queryRequest)
-                                .execute();
-                        for (NodeEntity rightNode : queryResult.getUxdf().getData().getUnmodifiableNode()) {
-                            rightNode.setOperateDeleteEnforce(Boolean.TRUE);
-                            deletedNum += this.deleteNode(rightNode, sdData);
-                        }
-                        // 后删除Event
-                        deletedNum += this.uxdfMapper.deleteEventByLeftNode(
-                                eventTable,
-                                nodeId,
-                                nodeName
-                        );
-                    } else { // 该Event对于右节点是必须，并且不可以强制删除
-                        throw new UXDFSaveException(
-                                messageSource.getMessage(
-                                        "error.save.cascade.node",
-                                        new Object[]{leftNodeName, nodeId, eventName, rightNodeName},
-                                        Locale.getDefault()
-                                ),
-                                SdOperateType.delete,
-                                UXDFSaveErrorType.cascade
-                        );
-                    }
-                }
-
-                // 当前Node是右节点
-                if (rightNodeName.equals(nodeName)) {
-                    // 该Event对于左节点不是必须
-                    if (eventDefinition.getRequired() == null
-                            || eventDefinition.getRequired() == SdEventRequiredType.none
-                            ||
-                            (eventDefinition.getRequired() != SdEventRequiredType.left
-                                    && eventDefinition.getRequired() != SdEventRequiredType.both)
-                    ) {
-                        deletedNum += this.uxdfMapper.deleteEventByRightNode(
-                                eventTable,
-                                nodeId,
-                                nodeName
-                        );
-                    } else if (enforce) {
-                        // 该Event对于左节点是必须，并且可以强制删除
-                        // 获取相关Node，并进行逐一删除
-                        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
-                        String targetLabel = "TN";
-                        queryRequest.getChains().add(String.format(
-                                "%s<%s-%s:%s",
-                                rightNodeName,
-                                eventName,
-                                targetLabel,
-                                leftNodeName
-                        ));
-                        queryRequest.getReturns().add(targetLabel);
-                        // 通过右Node查找
-                        queryRequest.getParams().put(rightNodeName, Lists.newArrayList(
-                                SdDataQueryParam.equal(NodeEntity.ATTR_SD, nodeName),
-                                SdDataQueryParam.equal(NodeEntity.ATTR_ID, nodeId)
-                        ));
-                        SdDataQueryResult queryResult = this.makeQueryRequestExecutor(queryRequest)
-                                .execute();
-                        for (NodeEntity leftNode : queryResult.getUxdf().getData().getUnmodifiableNode()) {
-                            leftNode.setOperateDeleteEnforce(Boolean.TRUE);
-                            deletedNum += this.deleteNode(leftNode, sdData);
-                        }
-                        // 后删除Event
-                        deletedNum += this.uxdfMapper.deleteEventByRightNode(
-                                eventTable,
-                                nodeId,
-                                nodeName
-                        );
-                    } else { // 该Event对于右节点是必须，并且不可以强制删除
-                        throw new UXDFSaveException(
-                                messageSource.getMessage(
-                                        "error.save.cascade.node",
-                                        new Object[]{rightNodeName, nodeId, eventName, leftNodeName},
-                                        Locale.getDefault()
-                                ),
-                                SdOperateType.delete,
-                                UXDFSaveErrorType.cascade
-                        );
-                    }
-                }
-            }
+        // 级联删除的Node无法逐个确定，清除保存过程中读取的所有Node
+        final RdbIdentityMap identityMap = this.identityMaps.get();
+        if (identityMap != null) {
+            identityMap.clear();
         }
-
-        // 最后删除当前Node
-        deletedNum += this.uxdfMapper.deleteNode(
-                nodeTable,
-                nodeId,
-                null
-        );
-        // 重新返回，供前端同步数据
-        node.setOperate(SdOperateType.delete);
-        sdData.addNodeIfAbsent(node);
-
-        // TODO 处理需要包装的数据 删除后数据处理
-
-        return deletedNum;
+        return new CascadeDeleteExecutor(
+                this,
+                this.rdbLoader,
+                this.uxdfMapper,
+                this.messageSource,
+                node,
+                sdData
+        ).execute();
     }
 
     /**
@@ -717,15 +954,7 @@ public class RdbStorageService implements StorageService {
             final EventEntity event,
             final SdData sdData
     ) {
-        // 重新生成UUID
-        event.generateUUID();
-        // 获取ID
-        event.set__Id(IdMaker.next());
-        // 统一设置创建时间
-        event.set__CreateTime(new Date());
-        event.set__UpdateTime(event.get__CreateTime());
-
-        this.rdbValidator.check(event);
+        this.prepareCreateEvent(event);
 
         // 获取Insert参数
         InsertParam insertParam = this.uxdfRdbConvert.makeEventInsertParam(event);
@@ -740,6 +969,49 @@ public class RdbStorageService implements StorageService {
         return insertNum;
     }
 
+    /**
+     * 新增Event，使用批量新增执行者时只加入待新增集合，由调用方统一提交
+     *
+     * @param event         Event实例
+     * @param sdData        数据集合
+     * @param batchExecutor 批量新增执行者，为null时直接新增
+     * @return 直接新增的实例数量，加入批量时返回0
+     */
+    public int createEvent(
+            final EventEntity event,
+            final SdData sdData,
+            final BatchInsertExecutor batchExecutor
+    ) {
+        // Oracle的Event新增使用merge语句，不进行批量
+        if (batchExecutor == null || this.rdbLoader.isOracle()) {
+            return this.createEvent(event, sdData);
+        }
+        this.prepareCreateEvent(event);
+        batchExecutor.addEvent(event);
+
+        // 移除动态数据
+        event.removeDynamicAttr();
+
+        return 0;
+    }
+
+    /**
+     * 新增Event前，生成ID、UUID、创建时间并检查数据
+     *
+     * @param event Event实例
+     */
+    private void prepareCreateEvent(final EventEntity event) {
+        // 重新生成UUID
+        event.generateUUID();
+        // 获取ID
+        event.set__Id(IdMaker.next());
+        // 统一设置创建时间
+        event.set__CreateTime(new Date());
+        event.set__UpdateTime(event.get__CreateTime());
+
+        this.rdbValidator.check(event);
+    }
+
     /**
      * 更新Event实例{@link EventEntity}
      *
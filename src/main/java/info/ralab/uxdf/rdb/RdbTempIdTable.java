@@ -0,0 +1,120 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbLargeIn;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 大数量IN条件使用的临时表。
+ * <p>
+ * IN条件数量超过阈值时，Oracle在事务中将字符类型的参数值按本次的Key批量写入事务级全局临时表，
+ * 查询通过子查询关联，避免单个IN条件最多1000个值的限制，全局临时表的写入只产生少量重做日志。
+ * MySQL同一语句中不能多次打开同一个临时表，只能使用各节点共用的普通表，读取也会产生重做日志和binlog，
+ * 因此不使用ID表。ID表不存在、没有事务或使用MySQL时拆分为多个IN条件。
+ */
+@Component
+@Slf4j
+public class RdbTempIdTable {
+
+    /**
+     * 临时表名
+     */
+    public static final String TABLE_NAME = "T_UXDF_TEMP_ID";
+    /**
+     * Oracle单个IN条件的最大数量
+     */
+    private static final int MAX_IN_SIZE = 1000;
+    /**
+     * 每次写入临时表的最大行数
+     */
+    private static final int INSERT_PARTITION_SIZE = 500;
+    @Autowired
+    private UXDFMapper uxdfMapper;
+    @Autowired
+    private RdbLoader rdbLoader;
+
+    /**
+     * IN条件使用临时表的阈值，小于等于0时不使用
+     */
+    @Value("${truedata.rdb.query.in.threshold:1000}")
+    private int threshold;
+
+    /**
+     * 是否将IN条件的参数数量补齐到2的幂
+     */
+    @Value("${truedata.rdb.query.in.padding:true}")
+    private boolean padding;
+
+    /**
+     * 绑定IN条件的参数值
+     *
+     * @param values 参数值
+     * @return 未超过阈值时返回null
+     */
+    public RdbLargeIn bind(final List<?> values) {
+        if (this.threshold <= 0 || values.size() <= this.threshold) {
+            return null;
+        }
+        if (this.rdbLoader.hasTempIdTable()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && values.stream().allMatch(value -> value instanceof String)) {
+            // ID表中保存的是字符，Key随机生成，同一事务中多个IN条件互不影响
+            final long tempKey = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            for (List<?> partition : Iterables.partition(values, INSERT_PARTITION_SIZE)) {
+                this.uxdfMapper.insertTempId(TABLE_NAME, tempKey, partition);
+            }
+            log.debug("large in bind to temp table: {} values, key {}", values.size(), tempKey);
+            return RdbLargeIn.ofTempTable(values, TABLE_NAME, tempKey);
+        }
+        return RdbLargeIn.ofChunks(values, Lists.partition(values, Math.min(this.threshold, MAX_IN_SIZE)));
+    }
+
+    /**
+     * 将IN条件的参数数量补齐到2的幂，不超过阈值，补齐的值重复最后一个参数值。
+     * 参数数量不同时语句文本不同，补齐后同一查询结构只有少数几种语句，可以命中驱动和数据库的语句缓存。
+     *
+     * @param values 参数值
+     * @return 补齐后的参数值，不需要补齐时返回原参数值
+     */
+    public List<?> pad(final List<?> values) {
+        final int size = values.size();
+        if (!this.padding || size < 3) {
+            return values;
+        }
+        int paddedSize = Integer.highestOneBit(size - 1) << 1;
+        if (this.threshold > 0) {
+            paddedSize = Math.min(paddedSize, this.threshold);
+        }
+        paddedSize = Math.min(paddedSize, MAX_IN_SIZE);
+        if (paddedSize <= size) {
+            return values;
+        }
+        List<Object> paddedValues = Lists.newArrayListWithCapacity(paddedSize);
+        paddedValues.addAll(values);
+        final Object lastValue = values.get(size - 1);
+        while (paddedValues.size() < paddedSize) {
+            paddedValues.add(lastValue);
+        }
+        return paddedValues;
+    }
+
+    /**
+     * 查询结束后清除临时表中的参数值
+     *
+     * @param largeIn IN条件
+     */
+    public void release(final RdbLargeIn largeIn) {
+        if (largeIn.getTempTable() != null) {
+            this.uxdfMapper.deleteTempId(largeIn.getTempTable(), largeIn.getTempKey());
+        }
+    }
+}
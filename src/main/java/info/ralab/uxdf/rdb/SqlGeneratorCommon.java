@@ -360,7 +360,13 @@ public abstract class SqlGeneratorCommon implements SqlGenerator {
             RelationShipRdbTable rdbTable = new RelationShipRdbTable();
             rdbTable.setName(table.getName());
             rdbTable.setSeqId(table.getSeqName());
-            table.getColumns().forEach(column -> rdbTable.getColumn().put(column.getFieldName(), column.getName()));
+            table.getColumns().forEach(column -> {
+                rdbTable.getColumn().put(column.getFieldName(), column.getName());
+                // 二进制列按需分段读取，批量读取时不查询
+                if (!"Blob".equals(column.getType())) {
+                    rdbTable.getSelectColumns().add(column.getName());
+                }
+            });
 
             if (sdImpl instanceof SdNodeDefinition) {
                 SdNodeDefinition sdNodeImpl = (SdNodeDefinition) sdImpl;
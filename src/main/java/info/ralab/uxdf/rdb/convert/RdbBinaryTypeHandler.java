@@ -0,0 +1,54 @@
+package info.ralab.uxdf.rdb.convert;
+
+import info.ralab.uxdf.rdb.model.RdbBinaryValue;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RdbBinaryValue}的MyBatis类型处理，长度已知时使用带长度的{@link PreparedStatement#setBinaryStream}写入
+ */
+@MappedTypes(RdbBinaryValue.class)
+public class RdbBinaryTypeHandler extends BaseTypeHandler<RdbBinaryValue> {
+
+    @Override
+    public void setNonNullParameter(
+            final PreparedStatement ps,
+            final int i,
+            final RdbBinaryValue parameter,
+            final JdbcType jdbcType
+    ) throws SQLException {
+        if (parameter.getLength() < 0) {
+            ps.setBinaryStream(i, parameter.getInputStream());
+        } else {
+            ps.setBinaryStream(i, parameter.getInputStream(), parameter.getLength());
+        }
+    }
+
+    @Override
+    public RdbBinaryValue getNullableResult(final ResultSet rs, final String columnName) throws SQLException {
+        return toValue(rs.getBinaryStream(columnName));
+    }
+
+    @Override
+    public RdbBinaryValue getNullableResult(final ResultSet rs, final int columnIndex) throws SQLException {
+        return toValue(rs.getBinaryStream(columnIndex));
+    }
+
+    @Override
+    public RdbBinaryValue getNullableResult(final CallableStatement cs, final int columnIndex) throws SQLException {
+        final Blob blob = cs.getBlob(columnIndex);
+        return blob == null ? null : toValue(blob.getBinaryStream());
+    }
+
+    private static RdbBinaryValue toValue(final InputStream inputStream) {
+        return inputStream == null ? null : new RdbBinaryValue(inputStream, -1);
+    }
+}
@@ -0,0 +1,142 @@
+package info.ralab.uxdf.rdb.executor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdEventDefinition;
+import info.ralab.uxdf.definition.SdNodeDefinition;
+import info.ralab.uxdf.executor.Executor;
+import info.ralab.uxdf.instance.EventEntity;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.RdbLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量新增执行者。
+ * <p>
+ * 按照Sd对应的表和实例中存在的列汇总待新增的Node和Event，通过JDBC batch一次提交。
+ * 实例中不存在的属性和单条新增一样不写入，由数据库默认值填充，因此列不同的实例使用不同的语句。
+ * 执行后清空待新增集合，可重复使用。
+ */
+@Slf4j
+public class BatchInsertExecutor implements Executor<Integer> {
+
+    private RdbLoader rdbLoader;
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * 每次提交的最大行数
+     */
+    private int batchSize;
+
+    // 待新增的Node，按Node定义和列分组
+    private Map<SdNodeDefinition, Map<List<String>, List<NodeEntity>>> pendingNodes = Maps.newLinkedHashMap();
+    // 待新增的Event，按Event定义和列分组
+    private Map<SdEventDefinition, Map<List<String>, List<EventEntity>>> pendingEvents = Maps.newLinkedHashMap();
+
+    public BatchInsertExecutor(
+            final RdbLoader rdbLoader,
+            final JdbcTemplate jdbcTemplate,
+            final int batchSize
+    ) {
+        this.rdbLoader = rdbLoader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 加入待新增Node
+     *
+     * @param node Node实例，ID、UUID等属性已经生成
+     */
+    public void addNode(final NodeEntity node) {
+        SdNodeDefinition sdNode = UXDFLoader.getNode(node.get__Sd());
+        List<String> columnNames = this.rdbLoader.getInsertColumns(sdNode, node);
+        this.pendingNodes.computeIfAbsent(sdNode, key -> Maps.newLinkedHashMap())
+                .computeIfAbsent(columnNames, key -> Lists.newArrayList())
+                .add(node);
+    }
+
+    /**
+     * 加入待新增Event
+     *
+     * @param event Event实例，ID、UUID等属性已经生成
+     */
+    public void addEvent(final EventEntity event) {
+        SdEventDefinition sdEvent = UXDFLoader.getEvent(event.get__Sd(), event.get__LeftSd(), event.get__RightSd());
+        List<String> columnNames = this.rdbLoader.getInsertColumns(sdEvent, event);
+        this.pendingEvents.computeIfAbsent(sdEvent, key -> Maps.newLinkedHashMap())
+                .computeIfAbsent(columnNames, key -> Lists.newArrayList())
+                .add(event);
+    }
+
+    /**
+     * 是否没有待新增数据
+     *
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return this.pendingNodes.isEmpty() && this.pendingEvents.isEmpty();
+    }
+
+    /**
+     * 提交所有待新增数据，先Node后Event
+     *
+     * @return 新增数量
+     */
+    @Override
+    public Integer execute() {
+        int insertNum = 0;
+        for (Map.Entry<SdNodeDefinition, Map<List<String>, List<NodeEntity>>> entry : this.pendingNodes.entrySet()) {
+            final SdNodeDefinition sdNode = entry.getKey();
+            for (Map.Entry<List<String>, List<NodeEntity>> group : entry.getValue().entrySet()) {
+                final List<String> columnNames = group.getKey();
+                final String insertSql = this.rdbLoader.generateInsertSql(sdNode, columnNames);
+                log.debug("batch insert node {} size: {}", sdNode.getNodeName(), group.getValue().size());
+                insertNum += count(this.jdbcTemplate.batchUpdate(
+                        insertSql,
+                        group.getValue(),
+                        this.batchSize,
+                        (statement, node) -> this.rdbLoader.fillStatement(sdNode, node, columnNames, statement)
+                ));
+            }
+        }
+        for (Map.Entry<SdEventDefinition, Map<List<String>, List<EventEntity>>> entry : this.pendingEvents.entrySet()) {
+            final SdEventDefinition sdEvent = entry.getKey();
+            for (Map.Entry<List<String>, List<EventEntity>> group : entry.getValue().entrySet()) {
+                final List<String> columnNames = group.getKey();
+                final String insertSql = this.rdbLoader.generateInsertSql(sdEvent, columnNames);
+                log.debug("batch insert event {} size: {}", sdEvent.getEventName(), group.getValue().size());
+                insertNum += count(this.jdbcTemplate.batchUpdate(
+                        insertSql,
+                        group.getValue(),
+                        this.batchSize,
+                        (statement, event) -> this.rdbLoader.fillStatement(sdEvent, event, columnNames, statement)
+                ));
+            }
+        }
+        this.pendingNodes.clear();
+        this.pendingEvents.clear();
+        return insertNum;
+    }
+
+    /**
+     * 汇总批量执行结果，驱动无法返回行数时按一行计算
+     *
+     * @param results 批量执行结果
+     * @return 影响行数
+     */
+    private int count(final int[][] results) {
+        int num = 0;
+        for (int[] batchResult : results) {
+            for (int result : batchResult) {
+                num += result == Statement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+            }
+        }
+        return num;
+    }
+}
@@ -0,0 +1,279 @@
+package info.ralab.uxdf.rdb.executor;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import info.ralab.uxdf.SdData;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdEventDefinition;
+import info.ralab.uxdf.definition.SdEventRequiredType;
+import info.ralab.uxdf.definition.SdOperateType;
+import info.ralab.uxdf.executor.Executor;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.model.SdDataQueryLogic;
+import info.ralab.uxdf.model.SdDataQueryParam;
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbMetrics;
+import info.ralab.uxdf.rdb.RdbStorageService;
+import info.ralab.uxdf.rdb.exception.UXDFSaveErrorType;
+import info.ralab.uxdf.rdb.exception.UXDFSaveException;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.utils.UXDFRdbValidator;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Node级联删除执行者。
+ * <p>
+ * 按Node定义汇总Event定义得到级联步骤，从被删除Node开始逐层使用IN条件批量查询依赖的Node，
+ * 全部收集后按表批量删除Event和Node，查询和删除次数只和层数、表数量有关，和Node数量无关。
+ */
+@Slf4j
+public class CascadeDeleteExecutor implements Executor<Integer> {
+
+    /**
+     * IN条件的最大数量
+     */
+    private static final int PARTITION_SIZE = 500;
+    /**
+     * 查询依赖Node时目标Node的标签
+     */
+    private static final String TARGET_LABEL = "TN";
+
+    private RdbStorageService storageService;
+    private RdbLoader rdbLoader;
+    private UXDFMapper uxdfMapper;
+    private MessageSource messageSource;
+    private UXDFRdbValidator rdbValidator;
+
+    // 被删除的Node
+    private NodeEntity node;
+    // 数据集合
+    private SdData sdData;
+
+    // 各Node定义的级联步骤
+    private Map<String, List<CascadeStep>> plans = Maps.newHashMap();
+    // 待删除的Node ID，按Node定义分组
+    private Map<String, Set<String>> deleteIds = Maps.newLinkedHashMap();
+
+    public CascadeDeleteExecutor(
+            final RdbStorageService storageService,
+            final RdbLoader rdbLoader,
+            final UXDFMapper uxdfMapper,
+            final MessageSource messageSource,
+            final NodeEntity node,
+            final SdData sdData
+    ) {
+        this.storageService = storageService;
+        this.rdbLoader = rdbLoader;
+        this.uxdfMapper = uxdfMapper;
+        this.messageSource = messageSource;
+        this.rdbValidator = storageService.getRdbValidator();
+        this.node = node;
+        this.sdData = sdData;
+    }
+
+    @Override
+    public Integer execute() {
+        // 重新生成UUID
+        this.node.generateUUID();
+        final String nodeName = this.node.get__Sd();
+        final String nodeId = this.node.get__Id();
+
+        // 检查数据
+        this.rdbValidator.check(this.node);
+
+        // 不可以强制删除时，存在必须的Event则不能删除
+        if (!this.node.isDeleteEnforce()) {
+            for (CascadeStep step : this.getPlan(nodeName)) {
+                if (step.required) {
+                    throw new UXDFSaveException(
+                            this.messageSource.getMessage(
+                                    "error.save.cascade.node",
+                                    new Object[]{nodeName, nodeId, step.eventName, step.targetNodeName},
+                                    Locale.getDefault()
+                            ),
+                            SdOperateType.delete,
+                            UXDFSaveErrorType.cascade
+                    );
+                }
+            }
+        }
+
+        // 逐层收集需要级联删除的Node
+        final List<NodeEntity> cascadeNodes = Lists.newArrayList();
+        this.deleteIds.computeIfAbsent(nodeName, key -> Sets.newLinkedHashSet()).add(nodeId);
+        Map<String, Set<String>> level = Maps.newLinkedHashMap();
+        level.put(nodeName, Sets.newHashSet(nodeId));
+        int depth = 0;
+        while (!level.isEmpty()) {
+            depth++;
+            final Map<String, Set<String>> nextLevel = Maps.newLinkedHashMap();
+            level.forEach((levelNodeName, ids) -> {
+                for (CascadeStep step : this.getPlan(levelNodeName)) {
+                    if (step.required) {
+                        this.collectTargetNodes(step, ids, cascadeNodes, nextLevel);
+                    }
+                }
+            });
+            level = nextLevel;
+        }
+        log.debug("cascade delete nodes: {}", this.deleteIds);
+        final RdbMetrics metrics = this.storageService.getRdbMetrics();
+        metrics.record(RdbMetrics.CASCADE_DEPTH, nodeName, SdOperateType.delete.name(), depth);
+        metrics.record(RdbMetrics.CASCADE_NODES, nodeName, SdOperateType.delete.name(), cascadeNodes.size() + 1);
+
+        int deletedNum = 0;
+        // 先按表批量删除Event
+        for (Map.Entry<String, Set<String>> entry : this.deleteIds.entrySet()) {
+            for (CascadeStep step : this.getPlan(entry.getKey())) {
+                for (List<String> partition : Iterables.partition(entry.getValue(), PARTITION_SIZE)) {
+                    deletedNum += step.left
+                            ? this.uxdfMapper.deleteEventByLeftNodes(step.eventTable, partition)
+                            : this.uxdfMapper.deleteEventByRightNodes(step.eventTable, partition);
+                }
+            }
+        }
+        // 再按表批量删除Node
+        for (Map.Entry<String, Set<String>> entry : this.deleteIds.entrySet()) {
+            final String nodeTable = this.rdbLoader.getRdbNodeMapping(entry.getKey()).getName();
+            for (List<String> partition : Iterables.partition(entry.getValue(), PARTITION_SIZE)) {
+                deletedNum += this.uxdfMapper.deleteNodes(nodeTable, partition, null);
+            }
+            this.storageService.getRdbEntityCache().evict(entry.getKey());
+        }
+
+        // 重新返回，供前端同步数据
+        this.node.setOperate(SdOperateType.delete);
+        this.sdData.addNodeIfAbsent(this.node);
+        cascadeNodes.forEach(cascadeNode -> {
+            cascadeNode.setOperate(SdOperateType.delete);
+            this.sdData.addNodeIfAbsent(cascadeNode);
+        });
+
+        return deletedNum;
+    }
+
+    /**
+     * 批量查询依赖当前层Node的目标Node，未收集过的加入下一层
+     *
+     * @param step         级联步骤
+     * @param ids          当前层Node ID
+     * @param cascadeNodes 级联删除的Node
+     * @param nextLevel    下一层Node ID
+     */
+    private void collectTargetNodes(
+            final CascadeStep step,
+            final Set<String> ids,
+            final List<NodeEntity> cascadeNodes,
+            final Map<String, Set<String>> nextLevel
+    ) {
+        for (List<String> partition : Iterables.partition(ids, PARTITION_SIZE)) {
+            SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+            queryRequest.getChains().add(String.format(
+                    step.left ? "%s-%s>%s:%s" : "%s<%s-%s:%s",
+                    step.nodeName,
+                    step.eventName,
+                    TARGET_LABEL,
+                    step.targetNodeName
+            ));
+            queryRequest.getReturns().add(TARGET_LABEL);
+            queryRequest.getParams().put(step.nodeName, Lists.newArrayList(
+                    new SdDataQueryParam(NodeEntity.ATTR_ID, Lists.newArrayList(partition), SdDataQueryLogic.EQ)
+            ));
+            for (NodeEntity targetNode : this.storageService.queryData(queryRequest)
+                    .getUxdf()
+                    .getData()
+                    .getUnmodifiableNode()) {
+                final String targetNodeName = targetNode.get__Sd();
+                final String targetNodeId = targetNode.get__Id();
+                if (!this.deleteIds.computeIfAbsent(targetNodeName, key -> Sets.newLinkedHashSet())
+                        .add(targetNodeId)) {
+                    continue;
+                }
+                targetNode.setOperateDeleteEnforce(Boolean.TRUE);
+                targetNode.generateUUID();
+                this.rdbValidator.check(targetNode);
+                cascadeNodes.add(targetNode);
+                nextLevel.computeIfAbsent(targetNodeName, key -> Sets.newHashSet()).add(targetNodeId);
+            }
+        }
+    }
+
+    /**
+     * 获取Node定义的级联步骤，每个Node定义只构建一次
+     *
+     * @param nodeName Node定义名称
+     * @return 级联步骤
+     */
+    List<CascadeStep> getPlan(final String nodeName) {
+        return this.plans.computeIfAbsent(nodeName, key -> {
+            List<CascadeStep> steps = Lists.newArrayList();
+            Set<SdEventDefinition> eventDefinitions = UXDFLoader.getEventsByNodeName(nodeName);
+            if (eventDefinitions == null) {
+                return steps;
+            }
+            for (SdEventDefinition eventDefinition : eventDefinitions) {
+                final String eventName = eventDefinition.getEventName();
+                final String leftNodeName = eventDefinition.getLeftNodeName();
+                final String rightNodeName = eventDefinition.getRightNodeName();
+                final SdEventRequiredType required = eventDefinition.getRequired();
+                final String eventTable = this.rdbLoader.getRdbEventMapping(eventName)
+                        .get(leftNodeName)
+                        .get(rightNodeName)
+                        .getName();
+
+                // 当前Node是左节点，Event对于右节点是否必须
+                if (leftNodeName.equals(nodeName)) {
+                    steps.add(new CascadeStep(
+                            nodeName,
+                            eventName,
+                            eventTable,
+                            rightNodeName,
+                            true,
+                            required == SdEventRequiredType.right || required == SdEventRequiredType.both
+                    ));
+                }
+                // 当前Node是右节点，Event对于左节点是否必须
+                if (rightNodeName.equals(nodeName)) {
+                    steps.add(new CascadeStep(
+                            nodeName,
+                            eventName,
+                            eventTable,
+                            leftNodeName,
+                            false,
+                            required == SdEventRequiredType.left || required == SdEventRequiredType.both
+                    ));
+                }
+            }
+            return steps;
+        });
+    }
+
+    /**
+     * 级联步骤，一个Event定义中当前Node所在的一侧
+     */
+    @AllArgsConstructor
+    static class CascadeStep {
+        // 当前Node定义名称
+        private final String nodeName;
+        // Event定义名称
+        private final String eventName;
+        // Event对应的表
+        private final String eventTable;
+        // 另一侧Node定义名称
+        private final String targetNodeName;
+        // 当前Node是否为左节点
+        private final boolean left;
+        // Event对于另一侧Node是否必须
+        private final boolean required;
+    }
+}
@@ -1,8 +1,10 @@
 package info.ralab.uxdf.rdb.executor;
 
 import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import info.ralab.uxdf.SdData;
 import info.ralab.uxdf.UXDFException;
 import info.ralab.uxdf.UXDFLoader;
@@ -18,14 +20,28 @@ import info.ralab.uxdf.instance.*;
 import info.ralab.uxdf.model.*;
 import info.ralab.uxdf.rdb.DataAuth;
 import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbMetrics;
+import info.ralab.uxdf.rdb.RdbQueryBranchExecutor;
+import info.ralab.uxdf.rdb.RdbQueryCountCache;
+import info.ralab.uxdf.rdb.RdbQueryPlanCache;
+import info.ralab.uxdf.rdb.RdbTempIdTable;
 import info.ralab.uxdf.rdb.mapper.UXDFQueryMapper;
 import info.ralab.uxdf.rdb.model.*;
 import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import lombok.Getter;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 查询请求执行者
@@ -49,8 +65,60 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
     private List<RdbQueryInfo> queryInfoList = Lists.newArrayList();
 
     private SdDataQueryResult queryResult;
+    /**
+     * 不统计总数时返回的总数
+     */
+    public static final long UNKNOWN_COUNT = -1;
+    /**
+     * 保存时总是填充的默认属性，可以作为游标分页的排序属性
+     */
+    private static final Set<String> SEEK_FILLED_ATTRS = ImmutableSet.of(
+            SdEntity.ATTR_ID,
+            SdEntity.ATTR_UUID,
+            SdEntity.ATTR_SD,
+            "__createTime",
+            "__updateTime"
+    );
+    /**
+     * 分页查询的总数统计方式
+     */
+    private RdbCountPolicy countPolicy = RdbCountPolicy.EXACT;
+    /**
+     * 总数缓存，为null时不缓存
+     */
+    private RdbQueryCountCache countCache;
+    /**
+     * 大数量IN条件使用的临时表，为null时直接展开IN条件
+     */
+    private RdbTempIdTable tempIdTable;
+    /**
+     * 本次查询写入临时表的IN条件，查询结束后清除
+     */
+    private List<RdbLargeIn> largeIns = Lists.newArrayList();
+    /**
+     * 独立分支查询执行，为null时不拆分分支
+     */
+    private RdbQueryBranchExecutor branchExecutor;
+    /**
+     * 查询指标，为null时不记录
+     */
+    private RdbMetrics metrics;
+    /**
+     * 是否使用游标分页
+     */
+    private boolean seek;
+    /**
+     * 上一页返回的游标
+     */
+    private String seekToken;
+    /**
+     * 下一页的游标，没有下一页时为null
+     */
+    @Getter
+    private String continuationToken;
 
     private RdbLoader rdbLoader;
+    private RdbQueryPlanCache queryPlanCache;
     private UXDFRdbConvert uxdfRdbConvert;
     private UXDFQueryMapper uxdfQueryMapper;
     private SdDataQueryRequest queryRequest;
@@ -60,15 +128,208 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             final UXDFRdbConvert uxdfRdbConvert,
             final UXDFQueryMapper uxdfQueryMapper,
             final SdDataQueryRequest queryRequest
+    ) {
+        this(rdbLoader, null, uxdfRdbConvert, uxdfQueryMapper, queryRequest);
+    }
+
+    /**
+     * @param rdbLoader       映射关系加载
+     * @param queryPlanCache  查询计划缓存，为null时每次重新构建查询计划
+     * @param uxdfRdbConvert  数据转换
+     * @param uxdfQueryMapper 查询Mapper
+     * @param queryRequest    查询请求
+     */
+    public QueryRequestExecutor(
+            final RdbLoader rdbLoader,
+            final RdbQueryPlanCache queryPlanCache,
+            final UXDFRdbConvert uxdfRdbConvert,
+            final UXDFQueryMapper uxdfQueryMapper,
+            final SdDataQueryRequest queryRequest
     ) {
         this.rdbLoader = rdbLoader;
+        this.queryPlanCache = queryPlanCache;
         this.uxdfRdbConvert = uxdfRdbConvert;
         this.uxdfQueryMapper = uxdfQueryMapper;
         this.queryRequest = queryRequest;
     }
 
+    /**
+     * 设置分页查询的总数统计方式
+     *
+     * @param countPolicy 总数统计方式，为null时精确统计
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor countPolicy(final RdbCountPolicy countPolicy) {
+        this.countPolicy = countPolicy == null ? RdbCountPolicy.EXACT : countPolicy;
+        return this;
+    }
+
+    /**
+     * 设置总数缓存
+     *
+     * @param countCache 总数缓存
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor countCache(final RdbQueryCountCache countCache) {
+        this.countCache = countCache;
+        return this;
+    }
+
+    /**
+     * 设置大数量IN条件使用的临时表
+     *
+     * @param tempIdTable 临时表，为null时直接展开IN条件
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor tempIdTable(final RdbTempIdTable tempIdTable) {
+        this.tempIdTable = tempIdTable;
+        return this;
+    }
+
+    /**
+     * 设置独立分支查询执行
+     *
+     * @param branchExecutor 分支查询执行，为null时所有标签在一个查询中关联
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor branchExecutor(final RdbQueryBranchExecutor branchExecutor) {
+        this.branchExecutor = branchExecutor;
+        return this;
+    }
+
+    /**
+     * 设置查询指标
+     *
+     * @param metrics 查询指标，为null时不记录
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor metrics(final RdbMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * 使用游标分页。主标签按排序属性和ID定位，不再跳过起始行，需要同时设置排序和分页，排序属性必须是必填属性。
+     * 执行后通过{@link #getContinuationToken()}获取下一页的游标。
+     *
+     * @param continuationToken 上一页返回的游标，查询首页时为null
+     * @return 查询请求执行者
+     */
+    public QueryRequestExecutor seek(final String continuationToken) {
+        this.seek = true;
+        this.seekToken = continuationToken;
+        return this;
+    }
+
     @Override
     public SdDataQueryResult execute() {
+        try {
+            return this.executeQuery();
+        } finally {
+            this.releaseTempIds();
+        }
+    }
+
+    /**
+     * 流式执行查询，逐行转换后交给处理者，不在内存中保留查询结果。
+     * 同一个实例在多行中出现时只处理一次。
+     *
+     * @param entityHandler 实例处理者，接收转换后的{@link NodeEntity}或{@link EventEntity}
+     * @return 查询结果，只包含Sd定义和分页信息，不包含数据
+     */
+    public SdDataQueryResult stream(final Consumer<SdEntity> entityHandler) {
+        try {
+            return this.streamQuery(entityHandler);
+        } finally {
+            this.releaseTempIds();
+        }
+    }
+
+    private SdDataQueryResult executeQuery() {
+        // 构建基本返回结果
+        queryResult = new SdDataQueryResult(UXDFLoader.getBaseUXDF());
+
+        // 如果查询请求为空，返回空
+        if (this.queryRequest == null) {
+            return queryResult;
+        }
+
+        // 准备查询信息
+        final RdbQueryPlan queryPlan = this.prepare();
+        final String mainLabel = queryPlan.getMainLabel();
+
+        // 查询数据
+        boolean queryCountIsZero = (
+                this.queryRequest.hasPage() && this.queryResult.getMainSize().getCount() == 0
+        );
+
+        // todo 判断权限
+        DataAuth dataAuth = null;
+        // 主Node下相互独立的分支分别查询
+        final List<List<RdbQueryInfo>> branches = queryCountIsZero ?
+                Collections.emptyList() : this.splitBranches();
+        final long sqlStartTime = this.startMetric();
+        final List<List<JSONObject>> branchData = this.queryBranches(branches, queryPlan, dataAuth);
+        this.stopMetric("sql", sqlStartTime);
+        // 主Node不在返回结果中时同样需要游标，使用查询结果中的主Node列生成
+        final SeekCursor seekCursor = this.seek ? this.makeSeekCursor() : null;
+        if (seekCursor != null) {
+            branchData.forEach(rows -> rows.forEach(seekCursor::accept));
+        }
+        this.recordMetric(RdbMetrics.QUERY_ROWS, "sql", branchData.stream().mapToInt(List::size).sum());
+        final long convertStartTime = this.startMetric();
+
+        // 非主Node结果集合
+        List<NodeEntity> notMainSdNode = Lists.newArrayList();
+        // 已处理的实例，只记录标签和ID
+        final Set<String> handled = Sets.newHashSet();
+
+        for (int i = 0; i < branches.size(); i++) {
+            final List<RdbQueryInfo> branch = branches.get(i);
+            branchData.get(i).forEach(queryDataResult -> {
+                // 这里重新用一个JSON接收是为了防止污染缓存数据
+                JSONObject rdbResult = new JSONObject();
+                rdbResult.putAll(queryDataResult);
+                // 遍历分支的查询信息，重新组装数据
+                this.convertRow(branch, rdbResult, handled, (label, sdEntity) -> {
+                    if (sdEntity instanceof NodeEntity) {
+                        if (mainLabel.equals(label)) {
+                            // 是主Node
+                            queryResult.getUxdf().getData().addNodeIfAbsent((NodeEntity) sdEntity);
+                        } else {
+                            // 不是主Node
+                            notMainSdNode.add((NodeEntity) sdEntity);
+                        }
+                    } else {
+                        queryResult.getUxdf().getData().addEventIfAbsent((EventEntity) sdEntity);
+                    }
+                });
+            });
+        }
+
+        // 需要分页结果
+        if (this.queryRequest.hasPage()) {
+            // 设置当前分页Node返回数量
+            queryResult.getMainSize().setCurrent(
+                    queryResult.getUxdf().getData().isNodeEmpty() ?
+                            0 : queryResult.getUxdf().getData().getUnmodifiableNode().size()
+            );
+        }
+
+        // 当前页已满时，使用最后一条主Node生成下一页游标
+        if (seekCursor != null) {
+            this.continuationToken = seekCursor.encode(this.queryRequest.getMain().getPage().getLimit());
+        }
+
+        notMainSdNode.forEach(nodeEntity -> queryResult.getUxdf().getData().addNodeIfAbsent(nodeEntity));
+        this.stopMetric("convert", convertStartTime);
+
+
+        return queryResult;
+
+    }
+
+    private SdDataQueryResult streamQuery(final Consumer<SdEntity> entityHandler) {
         // 构建基本返回结果
         queryResult = new SdDataQueryResult(UXDFLoader.getBaseUXDF());
 
@@ -77,6 +338,306 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             return queryResult;
         }
 
+        // 准备查询信息
+        final RdbQueryPlan queryPlan = this.prepare();
+        final String mainLabel = queryPlan.getMainLabel();
+
+        if (this.queryRequest.hasPage() && this.queryResult.getMainSize().getCount() == 0) {
+            this.queryResult.getMainSize().setCurrent(0);
+            return queryResult;
+        }
+
+        // 已处理的实例，只记录标签和ID
+        final Set<String> handled = Sets.newHashSet();
+        final AtomicLong mainNum = new AtomicLong();
+        final SeekCursor seekCursor = this.seek ? this.makeSeekCursor() : null;
+
+        // todo 判断权限
+        DataAuth dataAuth = null;
+        final long streamStartTime = this.startMetric();
+        final AtomicLong rowNum = new AtomicLong();
+        this.uxdfQueryMapper.queryStream(
+                this.queryInfoList,
+                queryPlan.getOrders(),
+                this.queryRequest.hasPage() ? this.queryRequest.getMain().getPage() : null,
+                dataAuth,
+                resultContext -> {
+                    rowNum.incrementAndGet();
+                    // 转换时会替换列别名，先记录游标
+                    if (seekCursor != null) {
+                        seekCursor.accept(resultContext.getResultObject());
+                    }
+                    this.convertRow(this.queryInfoList, resultContext.getResultObject(), handled, (label, sdEntity) -> {
+                        if (mainLabel.equals(label)) {
+                            mainNum.incrementAndGet();
+                        }
+                        entityHandler.accept(sdEntity);
+                    });
+                }
+        );
+        this.stopMetric("stream", streamStartTime);
+        this.recordMetric(RdbMetrics.QUERY_ROWS, "stream", rowNum.get());
+
+        // 需要分页结果
+        if (this.queryRequest.hasPage()) {
+            // 设置当前分页Node返回数量
+            queryResult.getMainSize().setCurrent(mainNum.intValue());
+        }
+
+        // 当前页已满时，使用最后一条主Node生成下一页游标
+        if (seekCursor != null) {
+            this.continuationToken = seekCursor.encode(this.queryRequest.getMain().getPage().getLimit());
+        }
+
+        return queryResult;
+    }
+
+    /**
+     * 获取查询计划，绑定本次查询的参数，并统计分页总数
+     *
+     * @return 查询计划
+     */
+    private RdbQueryPlan prepare() {
+        // 游标分页需要排序和分页
+        if (this.seek && !(this.queryRequest.hasOrder() && this.queryRequest.hasPage())) {
+            throw new UXDFException("游标分页需要同时设置排序和分页。");
+        }
+
+        // 获取查询计划，只和查询请求的结构有关
+        final long planStartTime = this.startMetric();
+        final RdbQueryPlan queryPlan = this.queryPlanCache == null ?
+                this.makeQueryPlan() : this.queryPlanCache.get(
+                this.rdbLoader.getRelationShipVersion(),
+                this.queryRequest,
+                this.seek,
+                this::makeQueryPlan
+        );
+
+        // 绑定本次查询的参数
+        this.queryInfoList = queryPlan.copyQueryInfoList();
+        this.stopMetric("plan", planStartTime);
+        this.queryInfoList.forEach(rdbQueryInfo -> {
+            if (rdbQueryInfo.isNodeEntity()) {
+                // 将Node定义加入返回结果
+                queryResult.getUxdf()
+                        .getSd()
+                        .getNode()
+                        .getImpl()
+                        .put(rdbQueryInfo.getNodeDefinition().getNodeName(), rdbQueryInfo.getNodeDefinition());
+            } else {
+                // 将Event定义加入返回结果
+                queryResult.getUxdf()
+                        .getSd()
+                        .getEvent()
+                        .put(rdbQueryInfo.getEventDefinition(), true);
+            }
+            // 填充查询信息查询参数
+            this.fillQueryParam(rdbQueryInfo, rdbQueryInfo.getLabel());
+            // 不返回的标签只查询关联需要的列，主Node用于排序和分页，始终查询全部列
+            rdbQueryInfo.setReturned(rdbQueryInfo == this.queryInfoList.get(0) || this.isReturned(rdbQueryInfo.getLabel()));
+        });
+
+        if (queryRequest.hasOrder() || queryRequest.hasPage()) {
+            // 创建分页返回信息
+            queryResult.setMainSize(new SdDataQuerySize());
+        }
+
+        // 游标分页，从上一页最后一条之后开始
+        if (this.seek) {
+            final RdbQueryInfo mainQueryInfo = this.queryInfoList.get(0);
+            mainQueryInfo.setSeek(true);
+            if (this.seekToken != null) {
+                mainQueryInfo.setSeekParams(this.makeSeekParams(
+                        mainQueryInfo.getNodeDefinition().getNodeName(),
+                        RdbSeekToken.decode(this.seekToken)
+                ));
+            }
+        }
+
+        // 需要分页结果
+        if (this.queryRequest.hasPage()) {
+            // 设置分页总数
+            final long countStartTime = this.startMetric();
+            queryResult.getMainSize().setCount(this.countMain(this.queryInfoList.get(0)));
+            this.stopMetric("count", countStartTime);
+        }
+
+        return queryPlan;
+    }
+
+    /**
+     * 按主Node的直接关联将查询信息拆分为相互独立的分支，每个分支包含主Node查询信息。
+     * 多个分支在一个查询中关联时结果行数是各分支行数的乘积，分别查询后只是各分支行数之和。
+     *
+     * @return 分支查询信息，不能拆分时只有一个包含全部查询信息的分支
+     */
+    private List<List<RdbQueryInfo>> splitBranches() {
+        if (this.branchExecutor == null
+                || !this.branchExecutor.isEnabled()
+                || this.queryRequest.isOnlyMain()
+                || this.queryInfoList.size() < 2) {
+            return Collections.singletonList(this.queryInfoList);
+        }
+        final RdbQueryInfo mainQueryInfo = this.queryInfoList.get(0);
+        final List<List<RdbQueryInfo>> branches = Lists.newArrayList();
+        List<RdbQueryInfo> branch = null;
+        for (RdbQueryInfo queryInfo : this.queryInfoList.subList(1, this.queryInfoList.size())) {
+            // 关联主Node的Event开始一个新的分支，查询信息按深度优先顺序排列
+            if (branch == null || (queryInfo.getJoin() != null
+                    && mainQueryInfo.getAlias().equals(queryInfo.getJoin().getJoinAlias()))) {
+                branch = Lists.newArrayList(mainQueryInfo);
+                branches.add(branch);
+            }
+            branch.add(queryInfo);
+        }
+        return branches.size() < 2 ? Collections.singletonList(this.queryInfoList) : branches;
+    }
+
+    /**
+     * 查询各分支数据。分页时先查询第一个分支确定当前页的主Node，其它分支按这些主Node的ID查询，
+     * 不再分页，保证各分支的主Node一致。
+     *
+     * @param branches  分支查询信息
+     * @param queryPlan 查询计划
+     * @param dataAuth  数据权限
+     * @return 各分支查询结果，和分支顺序一致
+     */
+    private List<List<JSONObject>> queryBranches(
+            final List<List<RdbQueryInfo>> branches,
+            final RdbQueryPlan queryPlan,
+            final DataAuth dataAuth
+    ) {
+        final SdDataQueryPage page = this.queryRequest.hasPage() ? this.queryRequest.getMain().getPage() : null;
+        if (branches.size() < 2) {
+            return branches.stream()
+                    .map(branch -> this.uxdfQueryMapper.query(branch, queryPlan.getOrders(), page, dataAuth))
+                    .collect(Collectors.toList());
+        }
+
+        final List<List<JSONObject>> branchData = Lists.newArrayList();
+        List<List<RdbQueryInfo>> restBranches = branches;
+        if (page != null) {
+            final List<RdbQueryInfo> firstBranch = branches.get(0);
+            final List<JSONObject> firstData = this.uxdfQueryMapper.query(
+                    firstBranch,
+                    queryPlan.getOrders(),
+                    page,
+                    dataAuth
+            );
+            branchData.add(firstData);
+
+            final RdbQueryInfo mainQueryInfo = firstBranch.get(0);
+            final List<Object> mainIds = firstData.stream()
+                    .map(row -> row.get(mainQueryInfo.getIdAlias()))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (mainIds.isEmpty()) {
+                branches.subList(1, branches.size()).forEach(branch -> branchData.add(Collections.emptyList()));
+                return branchData;
+            }
+            final RdbQueryInfo pageQueryInfo = this.copyWithIds(mainQueryInfo, mainIds);
+            restBranches = branches.subList(1, branches.size()).stream().map(branch -> {
+                List<RdbQueryInfo> pageBranch = Lists.newArrayList(branch);
+                pageBranch.set(0, pageQueryInfo);
+                return pageBranch;
+            }).collect(Collectors.toList());
+        }
+
+        final List<Supplier<List<JSONObject>>> queries = restBranches.stream()
+                .map(branch -> (Supplier<List<JSONObject>>) () -> this.uxdfQueryMapper.query(
+                        branch,
+                        queryPlan.getOrders(),
+                        null,
+                        dataAuth
+                ))
+                .collect(Collectors.toList());
+        branchData.addAll(this.branchExecutor.invokeAll(queries));
+        return branchData;
+    }
+
+    /**
+     * 复制主Node查询信息，只查询指定ID的主Node，不使用游标定位
+     *
+     * @param mainQueryInfo 主Node查询信息
+     * @param mainIds       主Node ID
+     * @return 查询信息
+     */
+    private RdbQueryInfo copyWithIds(final RdbQueryInfo mainQueryInfo, final List<Object> mainIds) {
+        RdbQueryInfo queryInfo = new RdbQueryInfo();
+        queryInfo.setNodeEntity(true);
+        queryInfo.setNodeDefinition(mainQueryInfo.getNodeDefinition());
+        queryInfo.setIdAlias(mainQueryInfo.getIdAlias());
+        queryInfo.setAlias(mainQueryInfo.getAlias());
+        queryInfo.setTable(mainQueryInfo.getTable());
+        queryInfo.setLabel(mainQueryInfo.getLabel());
+        queryInfo.setColumns(mainQueryInfo.getColumns());
+        queryInfo.setOrders(mainQueryInfo.getOrders());
+        queryInfo.setExists(mainQueryInfo.getExists());
+        queryInfo.setUseExists(mainQueryInfo.isUseExists());
+        queryInfo.setParams(Lists.newArrayList(mainQueryInfo.getParams()));
+        queryInfo.getParams().add(new RdbQueryParam(
+                mainQueryInfo.getColumns().get(mainQueryInfo.getIdAlias()),
+                this.bindLargeIn(mainIds),
+                SdDataQueryLogic.EQ
+        ));
+        return queryInfo;
+    }
+
+    /**
+     * 标签是否在返回结果中，没有指定返回标签时全部返回
+     *
+     * @param label 标签
+     * @return 是否返回
+     */
+    private boolean isReturned(final String label) {
+        return this.queryRequest.getReturns().isEmpty() || this.queryRequest.getReturns().contains(label);
+    }
+
+    /**
+     * 将一行查询结果按照查询信息转换为实例。不在返回结果中的标签和已经处理过的实例不转换。
+     *
+     * @param queryInfoList 查询信息集合
+     * @param rdbResult     查询结果行，别名会被替换为列名
+     * @param handled       已处理的实例，记录标签和ID
+     * @param entityHandler 实例处理者，参数为标签和实例
+     */
+    private void convertRow(
+            final List<RdbQueryInfo> queryInfoList,
+            final JSONObject rdbResult,
+            final Set<String> handled,
+            final BiConsumer<String, SdEntity> entityHandler
+    ) {
+        queryInfoList.forEach(rdbQueryInfo -> {
+            String label = rdbQueryInfo.getLabel();
+            // 不在返回结果中，不处理
+            if (!rdbQueryInfo.isReturned() || !this.isReturned(label)) {
+                return;
+            }
+            // 使用ID列判断是否处理过，一对多关联时同一实例出现在多行中
+            final Object id = rdbResult.get(rdbQueryInfo.getIdAlias());
+            if (id != null && !handled.add(label + ":" + id)) {
+                return;
+            }
+            // 从数据库结果中，将别名替换为列名
+            rdbQueryInfo.getColumns().forEach((alias, column) -> rdbResult.put(column, rdbResult.remove(alias)));
+
+            if (rdbQueryInfo.isNodeEntity()) {
+                // 如果是Node
+                entityHandler.accept(label, this.uxdfRdbConvert.rdbToNode(rdbResult));
+            } else {
+                // 如果是Event
+                entityHandler.accept(label, this.uxdfRdbConvert.rdbToEvent(rdbResult));
+            }
+        });
+    }
+
+    /**
+     * 解析查询请求的关系串，构建查询计划{@link RdbQueryPlan}
+     *
+     * @return 查询计划
+     */
+    private RdbQueryPlan makeQueryPlan() {
         /*
          * 解析查询关系串，形成树形结构
          */
@@ -162,9 +723,6 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
                         queryRequest.getMain().getAlias()
                 ));
             }
-
-            // 创建分页返回信息
-            queryResult.setMainSize(new SdDataQuerySize());
         } else {
             // 没有分页排序，使用默认第一个
             mainNode = chainData.getUnmodifiableNode().get(0);
@@ -182,96 +740,219 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             queryInfo.setJoin(null);
         }
 
-        // 需要分页结果
-        if (this.queryRequest.hasPage()) {
-            // 设置分页总数
-            queryResult.getMainSize().setCount(
-                    this.uxdfQueryMapper.count(this.queryInfoList.get(0))
-            );
-        }
+        RdbQueryPlan queryPlan = new RdbQueryPlan();
+        queryPlan.setMainLabel(mainNode.get__Sd());
+        queryPlan.setQueryInfoList(this.queryInfoList);
 
         // 需要排序
         if (this.queryRequest.hasOrder()) {
             // 更新排序列别名
             final String nodeName = queryInfo.getNodeDefinition().getNodeName();
+            if (this.seek) {
+                this.checkSeekOrders(nodeName);
+            }
             RelationShipRdbTable rdbTable = this.rdbLoader.getRdbNodeMapping(nodeName);
+            List<SdDataQueryOrder> orders = Lists.newArrayList();
             this.queryRequest.getMain().getOrders().forEach(sdDataQueryOrder -> {
                 final String orderColumn = rdbTable.getColumn().get(sdDataQueryOrder.getProperty());
                 // 为主查询信息添加排序
                 queryInfo.getOrders().add(
                         new SdDataQueryOrder(orderColumn, sdDataQueryOrder.getType())
                 );
-                // 替换外层排序字段
+                // 外层排序使用列别名，不修改查询请求
                 final String orderColumnLabel = queryInfo.getColumns().inverse().get(orderColumn);
-                sdDataQueryOrder.setProperty(orderColumnLabel);
+                orders.add(new SdDataQueryOrder(orderColumnLabel, sdDataQueryOrder.getType()));
             });
+
+            // 游标分页使用ID保证排序唯一，方向和最后一个排序一致
+            if (this.seek && !this.isOrderById()) {
+                final List<SdDataQueryOrder> requestOrders = this.queryRequest.getMain().getOrders();
+                final SdDataQueryOrder lastOrder = requestOrders.get(requestOrders.size() - 1);
+                queryInfo.getOrders().add(new SdDataQueryOrder(
+                        rdbTable.getColumn().get(SdEntity.ATTR_ID),
+                        lastOrder.getType()
+                ));
+                orders.add(new SdDataQueryOrder(queryInfo.getIdAlias(), lastOrder.getType()));
+            }
+            queryPlan.setOrders(orders);
         }
+        return queryPlan;
+    }
 
-        // 查询数据
-        boolean queryCountIsZero = (
-                this.queryRequest.hasPage() && this.queryResult.getMainSize().getCount() == 0
-        );
+    private long startMetric() {
+        return this.metrics == null ? 0 : this.metrics.start();
+    }
 
-        // todo 判断权限
-        DataAuth dataAuth = null;
-        List<JSONObject> queryData = queryCountIsZero ?
-                Lists.newArrayList() : this.uxdfQueryMapper.query(
-                this.queryInfoList,
-                this.queryRequest.hasOrder() ? this.queryRequest.getMain().getOrders() : null,
-                this.queryRequest.hasPage() ? this.queryRequest.getMain().getPage() : null,
-                dataAuth
-        );
+    /**
+     * 记录查询阶段耗时，使用主Node名称作为Sd标签
+     *
+     * @param phase     查询阶段
+     * @param startTime 开始时间
+     */
+    private void stopMetric(final String phase, final long startTime) {
+        if (this.metrics != null) {
+            this.metrics.stop(RdbMetrics.QUERY, this.getMainNodeName(), phase, startTime);
+        }
+    }
 
-        // 非主Node结果集合
-        List<NodeEntity> notMainSdNode = Lists.newArrayList();
+    private void recordMetric(final String name, final String phase, final double amount) {
+        if (this.metrics != null) {
+            this.metrics.record(name, this.getMainNodeName(), phase, amount);
+        }
+    }
 
-        queryData.forEach(queryDataResult -> {
-            // 这里重新用一个JSON接收是为了防止污染缓存数据
-            JSONObject rdbResult = new JSONObject();
-            rdbResult.putAll(queryDataResult);
-            // 遍历所有查询信息，重新组装数据
-            this.queryInfoList.forEach(rdbQueryInfo -> {
-                String label = rdbQueryInfo.getLabel();
-                // 不在返回结果中，不处理
-                if (!this.queryRequest.getReturns().isEmpty()
-                        && !this.queryRequest.getReturns().contains(label)) {
-                    return;
-                }
-                // 从数据库结果中，将别名替换为列名
-                rdbQueryInfo.getColumns().forEach((alias, column) -> rdbResult.put(column, rdbResult.remove(alias)));
-
-                if (rdbQueryInfo.isNodeEntity()) {
-                    // 如果是Node
-                    NodeEntity nodeEntity = this.uxdfRdbConvert.rdbToNode(rdbResult);
-                    if (mainNode.get__Sd().equals(label)) {
-                        // 是主Node
-                        queryResult.getUxdf().getData().addNodeIfAbsent(nodeEntity);
-                    } else {
-                        // 不是主Node
-                        notMainSdNode.add(nodeEntity);
+    private String getMainNodeName() {
+        return this.queryInfoList.isEmpty() ? null : this.queryInfoList.get(0).getNodeDefinition().getNodeName();
+    }
+
+    /**
+     * 按照总数统计方式统计主Node总数
+     *
+     * @param mainQueryInfo 主查询信息，已绑定查询参数
+     * @return 总数，不统计时返回{@link #UNKNOWN_COUNT}
+     */
+    private long countMain(final RdbQueryInfo mainQueryInfo) {
+        switch (this.countPolicy) {
+            case SKIP:
+                return UNKNOWN_COUNT;
+            case ESTIMATE:
+                // 没有过滤条件时总数就是表行数
+                if (mainQueryInfo.getParams().isEmpty() && !mainQueryInfo.hasExists()) {
+                    Long estimate = this.uxdfQueryMapper.estimateCount(mainQueryInfo.getTable());
+                    if (estimate != null) {
+                        return estimate;
                     }
-                } else {
-                    // 如果是Node
-                    EventEntity eventEntity = this.uxdfRdbConvert.rdbToEvent(rdbResult);
-                    queryResult.getUxdf().getData().addEventIfAbsent(eventEntity);
                 }
-            });
+                // 无法估算，精确统计
+            default:
+                return this.countCache == null ?
+                        this.uxdfQueryMapper.count(mainQueryInfo) :
+                        this.countCache.get(mainQueryInfo, () -> this.uxdfQueryMapper.count(mainQueryInfo));
+        }
+    }
+
+    /**
+     * 查询请求的排序中是否包含ID
+     *
+     * @return 是否包含ID
+     */
+    private boolean isOrderById() {
+        return this.queryRequest.getMain()
+                .getOrders()
+                .stream()
+                .anyMatch(order -> SdEntity.ATTR_ID.equals(order.getProperty()));
+    }
+
+    /**
+     * 排序是否倒序
+     *
+     * @param order 排序
+     * @return 是否倒序
+     */
+    private static boolean isDesc(final SdDataQueryOrder order) {
+        return "DESC".equalsIgnoreCase(String.valueOf(order.getType()));
+    }
+
+    /**
+     * 检查游标分页的排序属性。排序属性值为空时无法比较大小，定位条件会跳过这些行，
+     * 因此只允许必填属性和保存时总是填充的默认属性。
+     *
+     * @param nodeName 主Node名称
+     */
+    void checkSeekOrders(final String nodeName) {
+        final Map<String, SdProperty> nodeProp = UXDFLoader.getNode(nodeName).getProp();
+        final Map<String, SdProperty> nodeAttr = UXDFLoader.getBaseUXDF().getSd().getNode().getAttr();
+        this.queryRequest.getMain().getOrders().forEach(order -> {
+            final String property = order.getProperty();
+            if (SEEK_FILLED_ATTRS.contains(property)) {
+                return;
+            }
+            final SdProperty definition = nodeProp.containsKey(property) ? nodeProp.get(property) : nodeAttr.get(property);
+            if (definition == null || !definition.isRequired()) {
+                throw new UXDFException(String.format("游标分页的排序属性[%s]必须是必填属性。", property));
+            }
         });
+    }
 
-        // 需要分页结果
-        if (this.queryRequest.hasPage()) {
-            // 设置当前分页Node返回数量
-            queryResult.getMainSize().setCurrent(
-                    queryResult.getUxdf().getData().isNodeEmpty() ?
-                            0 : queryResult.getUxdf().getData().getUnmodifiableNode().size()
-            );
-        }
+    /**
+     * 按主查询信息的列别名生成游标记录
+     *
+     * @return 游标记录
+     */
+    private SeekCursor makeSeekCursor() {
+        final RdbQueryInfo mainQueryInfo = this.queryInfoList.get(0);
+        final Map<String, String> columnMapping = this.rdbLoader
+                .getRdbNodeMapping(mainQueryInfo.getNodeDefinition().getNodeName())
+                .getColumn();
+        final List<String> properties = Lists.newArrayList();
+        final List<String> valueAliases = Lists.newArrayList();
+        this.queryRequest.getMain().getOrders().forEach(order -> {
+            properties.add(order.getProperty());
+            valueAliases.add(mainQueryInfo.getColumns().inverse().get(columnMapping.get(order.getProperty())));
+        });
+        return new SeekCursor(mainQueryInfo.getIdAlias(), properties, valueAliases);
+    }
 
-        notMainSdNode.forEach(nodeEntity -> queryResult.getUxdf().getData().addNodeIfAbsent(nodeEntity));
+    /**
+     * 生成游标定位条件。
+     * 排序属性依次为(p1, p2, id)时，生成 p1 > v1 or (p1 = v1 and p2 > v2) or (p1 = v1 and p2 = v2 and id > vid)，
+     * 倒序时使用小于。
+     *
+     * @param nodeName  主Node名称
+     * @param seekToken 游标
+     * @return 定位条件
+     */
+    List<List<RdbQueryParam>> makeSeekParams(
+            final String nodeName,
+            final RdbSeekToken seekToken
+    ) {
+        final List<SdDataQueryOrder> orders = Lists.newArrayList(this.queryRequest.getMain().getOrders());
+        final List<Object> values = Lists.newArrayList(seekToken.getValues());
+        if (values.size() != orders.size()) {
+            throw new UXDFException("分页游标和查询请求的排序不一致。");
+        }
+        // ID作为最后的排序
+        if (!this.isOrderById()) {
+            orders.add(new SdDataQueryOrder(SdEntity.ATTR_ID, orders.get(orders.size() - 1).getType()));
+            values.add(seekToken.getId());
+        }
 
+        // 转换为列名和数据库类型
+        List<SdDataQueryParam> equalParams = Lists.newArrayList();
+        List<SdDataQueryParam> compareParams = Lists.newArrayList();
+        for (int i = 0; i < orders.size(); i++) {
+            final SdDataQueryOrder order = orders.get(i);
+            equalParams.add(new SdDataQueryParam(order.getProperty(), values.get(i), SdDataQueryLogic.EQ));
+            compareParams.add(new SdDataQueryParam(
+                    order.getProperty(),
+                    values.get(i),
+                    isDesc(order) ? SdDataQueryLogic.LT : SdDataQueryLogic.GT
+            ));
+        }
+        equalParams = this.uxdfRdbConvert.convertNodeQueryParam(nodeName, equalParams);
+        compareParams = this.uxdfRdbConvert.convertNodeQueryParam(nodeName, compareParams);
+        if (compareParams.size() != orders.size()) {
+            throw new UXDFException("游标分页的排序属性不能作为查询条件。");
+        }
 
-        return queryResult;
+        List<List<RdbQueryParam>> seekParams = Lists.newArrayList();
+        for (int i = 0; i < compareParams.size(); i++) {
+            List<RdbQueryParam> seekGroup = Lists.newArrayList();
+            for (int j = 0; j < i; j++) {
+                seekGroup.add(toRdbQueryParam(equalParams.get(j)));
+            }
+            seekGroup.add(toRdbQueryParam(compareParams.get(i)));
+            seekParams.add(seekGroup);
+        }
+        return seekParams;
+    }
 
+    private static RdbQueryParam toRdbQueryParam(final SdDataQueryParam queryParam) {
+        return new RdbQueryParam(
+                queryParam.getProperty(),
+                queryParam.getValue(),
+                queryParam.getLogic()
+        );
     }
 
     /**
@@ -422,13 +1103,6 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             final RelationShipRdbTable nodeRdbTable,
             final String nodeLabel
     ) {
-        // 将Node定义加入返回结果
-        queryResult.getUxdf()
-                .getSd()
-                .getNode()
-                .getImpl()
-                .put(nodeDefinition.getNodeName(), nodeDefinition);
-
         String startTableName = nodeRdbTable.getName();
         RdbQueryInfo queryInfo = new RdbQueryInfo();
         // Node定义
@@ -447,11 +1121,6 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
                 nodeDefinition.getProp(),
                 nodeRdbTable
         );
-        // 填充查询信息查询参数
-        this.fillQueryParam(
-                queryInfo,
-                nodeLabel
-        );
         return queryInfo;
     }
 
@@ -472,11 +1141,6 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             final ChainPath chainPath,
             final RdbQueryInfo joinQueryInfo
     ) {
-        // 将Event定义加入返回结果
-        queryResult.getUxdf()
-                .getSd()
-                .getEvent()
-                .put(eventDefinition, true);
         RdbQueryInfo queryInfo = new RdbQueryInfo();
         queryInfo.setEventDefinition(eventDefinition);
         queryInfo.setEventEntity(true);
@@ -492,11 +1156,6 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
                 eventDefinition.getProp(),
                 eventRdbTable
         );
-        // 填充查询信息查询参数
-        this.fillQueryParam(
-                queryInfo,
-                eventLabel
-        );
         // 设置关联
         RdbJoinInfo joinInfo = new RdbJoinInfo();
         joinInfo.setJoinAlias(joinQueryInfo.getAlias());
@@ -575,8 +1234,8 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             final Map<String, SdProperty> propertyDefinitions,
             final RelationShipRdbTable rdbTable
     ) {
-        // 遍历所有列信息
-        rdbTable.getColumn().forEach((propName, columnName) -> {
+        // 按属性名称顺序遍历所有列信息，同一查询结构每次生成相同的列别名和语句
+        new TreeMap<>(rdbTable.getColumn()).forEach((propName, columnName) -> {
             // 二进制列不返回
             SdProperty property = propertyDefinitions.get(propName);
             if (property != null && property.getBase().equals(SdBaseType.Binary)) {
@@ -642,7 +1301,7 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
                 // 转换参数
                 queryInfo.getParams().add(new RdbQueryParam(
                         queryParam.getProperty(),
-                        queryParam.getValue(),
+                        this.bindLargeIn(queryParam.getValue()),
                         queryParam.getLogic()
                 ));
             });
@@ -650,6 +1309,34 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
 
     }
 
+    /**
+     * 数量超过阈值的IN条件改为临时表或分段IN条件，未超过时补齐参数数量
+     *
+     * @param value 参数值
+     * @return 绑定的参数值
+     */
+    private Object bindLargeIn(final Object value) {
+        if (this.tempIdTable == null || !(value instanceof List)) {
+            return value;
+        }
+        final RdbLargeIn largeIn = this.tempIdTable.bind((List<?>) value);
+        if (largeIn == null) {
+            return this.tempIdTable.pad((List<?>) value);
+        }
+        this.largeIns.add(largeIn);
+        return largeIn;
+    }
+
+    /**
+     * 清除本次查询写入临时表的数据
+     */
+    private void releaseTempIds() {
+        if (this.tempIdTable != null && !this.largeIns.isEmpty()) {
+            this.largeIns.forEach(this.tempIdTable::release);
+            this.largeIns.clear();
+        }
+    }
+
     /**
      * 生成表别名
      *
@@ -716,4 +1403,58 @@ public class QueryRequestExecutor implements Executor<SdDataQueryResult> {
             });
         });
     }
+
+    /**
+     * 游标分页时记录查询结果中的主Node，直接使用主Node的ID列和排序列，和主Node是否返回无关
+     */
+    private static class SeekCursor {
+        // 主Node ID列别名
+        private final String idAlias;
+        // 排序属性
+        private final List<String> properties;
+        // 排序属性对应的列别名
+        private final List<String> valueAliases;
+        // 已记录的主Node ID
+        private final Set<Object> mainIds = Sets.newHashSet();
+        // 最后一条主Node的定位信息
+        private RdbSeekToken last;
+
+        private SeekCursor(final String idAlias, final List<String> properties, final List<String> valueAliases) {
+            this.idAlias = idAlias;
+            this.properties = properties;
+            this.valueAliases = valueAliases;
+        }
+
+        /**
+         * 记录一行查询结果，一对多关联时同一主Node只记录第一次出现
+         *
+         * @param row 查询结果行，列名为别名
+         */
+        private void accept(final JSONObject row) {
+            final Object id = row.get(this.idAlias);
+            if (id == null || !this.mainIds.add(id)) {
+                return;
+            }
+            RdbSeekToken seekToken = new RdbSeekToken();
+            for (int i = 0; i < this.valueAliases.size(); i++) {
+                final Object value = row.get(this.valueAliases.get(i));
+                if (value == null) {
+                    throw new UXDFException(String.format("游标分页的排序属性[%s]值为空。", this.properties.get(i)));
+                }
+                seekToken.getValues().add(value);
+            }
+            seekToken.setId(String.valueOf(id));
+            this.last = seekToken;
+        }
+
+        /**
+         * 当前页已满时生成下一页的游标
+         *
+         * @param limit 每页数量
+         * @return 游标，没有下一页时返回null
+         */
+        private String encode(final long limit) {
+            return this.last != null && this.mainIds.size() >= limit ? this.last.encode() : null;
+        }
+    }
 }
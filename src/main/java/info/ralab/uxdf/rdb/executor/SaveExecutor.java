@@ -1,6 +1,7 @@
 package info.ralab.uxdf.rdb.executor;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -20,12 +21,14 @@ import info.ralab.uxdf.model.SdDataQueryParam;
 import info.ralab.uxdf.model.SdDataQueryRequest;
 import info.ralab.uxdf.model.SdDataQueryResult;
 import info.ralab.uxdf.model.SdDataSaveResult;
+import info.ralab.uxdf.rdb.RdbMetrics;
 import info.ralab.uxdf.rdb.RdbStorageService;
 import info.ralab.uxdf.rdb.convert.BinaryConvert;
 import info.ralab.uxdf.rdb.exception.UXDFSaveErrorType;
 import info.ralab.uxdf.rdb.exception.UXDFSaveException;
 import info.ralab.uxdf.rdb.utils.FillDefaultValue;
 import info.ralab.uxdf.rdb.utils.UXDFChangeListenerHelper;
+import info.ralab.uxdf.rdb.utils.UXDFRdbValidator;
 import info.ralab.uxdf.utils.AssociateUniquePropertyUtil;
 import info.ralab.uxdf.utils.UXDFBinaryFileInfo;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +48,7 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
     private ApplicationContext applicationContext;
     private RdbStorageService storageService;
     private MessageSource messageSource;
+    private RdbMetrics metrics;
 
     // 传入ID和保存后ID的映射MAP
     private Map<String, String> idMapping = Maps.newHashMap();
@@ -88,6 +92,7 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
         this.applicationContext = applicationContext;
         this.storageService = storageService;
         this.messageSource = messageSource;
+        this.metrics = storageService.getRdbMetrics();
         this.data = data;
         this.saveResult = new SdDataSaveResult();
     }
@@ -116,12 +121,30 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
 
     @Override
     public SdDataSaveResult execute() {
+        // 保存过程中读取过的Node只从数据库读取一次
+        final boolean identityMapOpened = this.storageService.openIdentityMap();
+        try {
+            return this.save();
+        } finally {
+            if (identityMapOpened) {
+                this.storageService.closeIdentityMap();
+            }
+        }
+    }
+
+    /**
+     * 保存Node和Event
+     *
+     * @return 保存结果
+     */
+    private SdDataSaveResult save() {
         // 替换Node集合
         List<NodeEntity> nodes = data.getDetachedNode();
 
 
         // 遍历需要保存的Node数据
         log.debug("each node start:{}", System.currentTimeMillis());
+        final long classifyStartTime = this.metrics.start();
         AtomicLong bySaveTime = new AtomicLong();
         nodes.forEach(nodeEntity -> {
             // 跳过空数据
@@ -132,9 +155,9 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
             // TODO 数据权限过滤
 
             // 数据保存事件
-            UXDFNodeChangeListener nodeChangeListener = UXDFChangeListenerHelper
-                    .getNodeChangeListener(this.applicationContext, nodeEntity.get__Sd());
-            if (nodeChangeListener != null) {
+            final List<UXDFNodeChangeListener> nodeChangeListeners = UXDFChangeListenerHelper
+                    .getNodeChangeListeners(this.applicationContext, nodeEntity.get__Sd());
+            for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                 nodeChangeListener.save(nodeEntity, data);
             }
 
@@ -197,6 +220,7 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
         });
         log.debug("by save time:{}", bySaveTime.get());
         log.debug("each node end:{}", System.currentTimeMillis());
+        this.metrics.stop(RdbMetrics.SAVE, RdbMetrics.ALL_SD, "classify", classifyStartTime);
         // 拼接提示信息
         if (!cascadeDeleteTitle.isEmpty()) {
             log.debug("delete title start:{}", System.currentTimeMillis());
@@ -218,6 +242,109 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
             throw new UXDFSaveException(message.toString(), SdOperateType.delete, UXDFSaveErrorType.cascade);
         }
 
+        // 批量新增执行者，未开启时为null
+        final BatchInsertExecutor batchInsertExecutor = this.storageService.makeBatchInsertExecutor();
+
+        // 按依赖关系排序，被依赖的Node先处理
+        this.sortByDependency();
+
+        // 批量预查询唯一性，避免逐个实体查询
+        final UXDFRdbValidator rdbValidator = this.storageService.getRdbValidator();
+        rdbValidator.prefetch(
+                Lists.newArrayList(Iterables.concat(createNodes, createOrUpdateNodes)),
+                updateNodes
+        );
+        try {
+            this.saveNodes(batchInsertExecutor);
+        } finally {
+            rdbValidator.clearPrefetch();
+        }
+
+        // 处理Event集合
+        final long eventStartTime = this.metrics.start();
+        Map<String, List<EventEntity>> eventMap = data.getDetachedEvent();
+
+        // 遍历需要保存的Event数据
+        eventMap.forEach((eventName, eventEntities) -> {
+            // 遍历每一类Event集合
+            eventEntities.forEach(eventEntity -> {
+                // 跳过空数据
+                if (eventEntity == null || eventEntity.isEmpty()) {
+                    return;
+                }
+                // 获取操作类型
+                SdOperateType operate = eventEntity.getOperate();
+                if (operate == null) {
+                    if (this.operate == null) {
+                        // 没有操作类型，不做操作。跳过
+                        return;
+                    } else {
+                        // 设置统一操作
+                        operate = this.operate;
+                        eventEntity.setOperate(operate);
+                    }
+                }
+
+                // 根据不同操作类型进行数据过滤，Event目前暂时不支持query、match、createOrUpdate操作
+                switch (operate) {
+                    case create: // 新增
+                        createEvents.add(eventEntity);
+                        break;
+                    case update: // 更新
+                        updateEvents.add(eventEntity);
+                        break;
+                    case delete: // 删除
+                        deleteEvents.add(eventEntity);
+                        break;
+                    case query: // 查询
+                    case match: // 匹配
+                    case createOrUpdate: // 新增或更新
+                    default: // 未知，理论不会出现
+                }
+            });
+        });
+
+        // 新增Event
+        createEvents.forEach(eventEntity -> {
+            final String logicId = eventEntity.getLogicId();
+            final String eventId = eventEntity.get__Id();
+
+            // 保存Event
+            this.storageService.createEvent(eventEntity, this.data, batchInsertExecutor);
+            data.updateEvent(logicId, eventId, eventEntity);
+        });
+        // 提交批量新增的Event
+        if (batchInsertExecutor != null && !batchInsertExecutor.isEmpty()) {
+            batchInsertExecutor.execute();
+        }
+        // 更新Event
+        updateEvents.forEach(eventEntity -> {
+            final String logicId = eventEntity.getLogicId();
+            final String eventId = eventEntity.get__Id();
+
+            // 更新Event
+            this.storageService.updateEvent(eventEntity, this.data);
+            data.updateEvent(logicId, eventId, eventEntity);
+        });
+        // 删除Event
+        deleteEvents.forEach(eventEntity -> {
+            this.storageService.deleteEvent(eventEntity, this.data);
+            data.removeEvent(eventEntity);
+        });
+        this.metrics.stop(RdbMetrics.SAVE, RdbMetrics.ALL_SD, "event", eventStartTime);
+
+        return saveResult;
+    }
+
+    /**
+     * 按操作类型循环处理待处理的Node，依赖其他Node的等待下一轮处理，直到全部处理完成
+     *
+     * @param batchInsertExecutor 批量新增执行者，未开启时为null
+     */
+    private void saveNodes(final BatchInsertExecutor batchInsertExecutor) {
+        // 批量新增后等待通知的Node
+        final List<Map.Entry<NodeEntity, UXDFNodeChangeListener>> createdNodes = Lists.newArrayList();
+
         // 处理Node
         List<NodeEntity> waitQueryNodes = Lists.newArrayList();
         List<NodeEntity> waitMatchNodes = Lists.newArrayList();
@@ -235,6 +362,7 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
             int handleNum = queryNodes.size() + matchNodes.size() + createOrUpdateNodes.size() + updateNodes.size() + createNodes.size();
             // 查询
             queryNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
                 final String logicId = nodeEntity.getLogicId();
                 final String nodeId = nodeEntity.get__Id();
 
@@ -246,12 +374,14 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 // 记录临时ID
                 idMapping.put(nodeId, existNode.get__Id());
                 data.updateNode(logicId, nodeId, existNode);
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.query.name(), startTime);
 
                 // 更新Event中关联的Id
                 // updateEventId(nodeEntity, nodeId, existEntity.get__Id());
             });
             // 匹配
             matchNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
                 final String logicId = nodeEntity.getLogicId();
                 final String nodeId = nodeEntity.get__Id();
                 // 填充冗余属性值失败，需要等待剩余数据处理结束
@@ -268,10 +398,12 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 // 记录临时ID
                 idMapping.put(nodeId, existNode.get__Id());
                 data.updateNode(logicId, nodeId, existNode);
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.match.name(), startTime);
             });
 
             // 新增或更新
             createOrUpdateNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
                 final String logicId = nodeEntity.getLogicId();
                 final String nodeId = nodeEntity.get__Id();
                 // 填充冗余属性值失败，需要等待剩余数据处理结束
@@ -292,10 +424,12 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                     updateNodes.add(nodeEntity);
                     data.updateNode(logicId, nodeId, existNode);
                 }
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.createOrUpdate.name(), startTime);
             });
 
             // 更新Node
             updateNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
                 final String logicId = nodeEntity.getLogicId();
                 final String nodeId = nodeEntity.get__Id();
                 // 填充冗余属性值失败，需要等待剩余数据处理结束
@@ -316,9 +450,9 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 }
 
                 // 更新前事件
-                UXDFNodeChangeListener nodeChangeListener = UXDFChangeListenerHelper
-                        .getNodeChangeListener(this.applicationContext, nodeEntity.get__Sd());
-                if (nodeChangeListener != null) {
+                final List<UXDFNodeChangeListener> nodeChangeListeners = UXDFChangeListenerHelper
+                        .getNodeChangeListeners(this.applicationContext, nodeEntity.get__Sd());
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                     nodeChangeListener.update(nodeEntity, data);
                 }
 
@@ -328,12 +462,14 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 data.updateNode(logicId, nodeId, nodeEntity);
 
                 // 更新后事件
-                if (nodeChangeListener != null) {
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                     nodeChangeListener.updated(nodeEntity, data);
                 }
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.update.name(), startTime);
             });
             // 新增Node
             createNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
                 final String logicId = nodeEntity.getLogicId();
                 final String nodeId = nodeEntity.get__Id();
                 // 填充冗余属性值失败，需要等待剩余数据处理结束
@@ -352,32 +488,46 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 }
 
                 // 新增前事件
-                UXDFNodeChangeListener nodeChangeListener = UXDFChangeListenerHelper
-                        .getNodeChangeListener(this.applicationContext, nodeEntity.get__Sd());
-                if (nodeChangeListener != null) {
+                final List<UXDFNodeChangeListener> nodeChangeListeners = UXDFChangeListenerHelper
+                        .getNodeChangeListeners(this.applicationContext, nodeEntity.get__Sd());
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                     nodeChangeListener.create(nodeEntity, data);
                 }
 
                 // 新增Node
-                int insertNum = this.storageService.createNode(nodeEntity, this.data);
-                saveResult.getNodeCreateNum().set(insertNum);
+                int insertNum = this.storageService.createNode(nodeEntity, this.data, batchInsertExecutor);
+                saveResult.getNodeCreateNum().addAndGet(insertNum);
 
                 // 记录ID映射
                 idMapping.put(nodeId, nodeEntity.get__Id());
 
                 data.updateNode(logicId, nodeId, nodeEntity);
 
-                // 新增后事件
-                if (nodeChangeListener != null) {
-                    nodeChangeListener.created(nodeEntity, data);
+                // 新增后事件，批量新增时等待提交后通知
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
+                    if (batchInsertExecutor == null) {
+                        nodeChangeListener.created(nodeEntity, data);
+                    } else {
+                        createdNodes.add(Maps.immutableEntry(nodeEntity, nodeChangeListener));
+                    }
                 }
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.create.name(), startTime);
             });
+            // 提交批量新增的Node，之后的删除和下一轮处理需要查询到新增结果
+            if (batchInsertExecutor != null && !batchInsertExecutor.isEmpty()) {
+                final long batchStartTime = this.metrics.start();
+                saveResult.getNodeCreateNum().addAndGet(batchInsertExecutor.execute());
+                this.metrics.stop(RdbMetrics.SAVE, RdbMetrics.ALL_SD, "batchCreate", batchStartTime);
+            }
+            createdNodes.forEach(created -> created.getValue().created(created.getKey(), data));
+            createdNodes.clear();
             deleteNodes.forEach(nodeEntity -> {
+                final long startTime = this.metrics.start();
 
                 // 删除前事件
-                UXDFNodeChangeListener nodeChangeListener = UXDFChangeListenerHelper
-                        .getNodeChangeListener(this.applicationContext, nodeEntity.get__Sd());
-                if (nodeChangeListener != null) {
+                final List<UXDFNodeChangeListener> nodeChangeListeners = UXDFChangeListenerHelper
+                        .getNodeChangeListeners(this.applicationContext, nodeEntity.get__Sd());
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                     nodeChangeListener.delete(nodeEntity, data);
                 }
 
@@ -389,9 +539,10 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
                 data.removeNode(nodeEntity);
 
                 // 删除后事件
-                if (nodeChangeListener != null) {
+                for (UXDFNodeChangeListener nodeChangeListener : nodeChangeListeners) {
                     nodeChangeListener.deleted(nodeEntity, data);
                 }
+                this.metrics.stop(RdbMetrics.SAVE, nodeEntity.get__Sd(), SdOperateType.delete.name(), startTime);
             });
 
             int waitNum = waitQueryNodes.size() +
@@ -453,75 +604,153 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
             deleteNodes.clear();
         }
         log.debug("save node end:{}", System.currentTimeMillis());
+    }
 
-        // 处理Event集合
-        Map<String, List<EventEntity>> eventMap = data.getDetachedEvent();
+    /**
+     * 根据关联唯一属性和关联默认值建立待处理Node之间的依赖关系，按依赖层级稳定排序各待处理集合。
+     * 被依赖的Node排在前面，同一集合中的依赖链在一次处理中即可完成填充，不再逐轮等待。
+     * 无法在当前数据中确定的依赖和循环依赖仍由等待处理兜底。
+     */
+    private void sortByDependency() {
+        // 待处理Node，Key为逻辑ID
+        final Map<String, NodeEntity> pendingNodes = Maps.newLinkedHashMap();
+        Iterables.concat(queryNodes, matchNodes, createOrUpdateNodes, updateNodes, createNodes)
+                .forEach(node -> pendingNodes.put(node.getLogicId(), node));
+        if (pendingNodes.size() < 2) {
+            return;
+        }
 
-        // 遍历需要保存的Event数据
-        eventMap.forEach((eventName, eventEntities) -> {
-            // 遍历每一类Event集合
-            eventEntities.forEach(eventEntity -> {
-                // 跳过空数据
-                if (eventEntity == null || eventEntity.isEmpty()) {
-                    return;
-                }
-                // 获取操作类型
-                SdOperateType operate = eventEntity.getOperate();
-                if (operate == null) {
-                    if (this.operate == null) {
-                        // 没有操作类型，不做操作。跳过
-                        return;
-                    } else {
-                        // 设置统一操作
-                        operate = this.operate;
-                        eventEntity.setOperate(operate);
-                    }
-                }
+        // 被依赖Node和依赖它的Node，以及每个Node未确定层级的依赖数量
+        final Map<String, List<String>> dependents = Maps.newHashMap();
+        final Map<String, Integer> unresolved = Maps.newHashMap();
+        pendingNodes.forEach((logicId, node) -> {
+            Set<String> dependencies = this.findDependencies(node, pendingNodes);
+            dependencies.remove(logicId);
+            dependencies.forEach(dependency -> dependents
+                    .computeIfAbsent(dependency, key -> Lists.newArrayList())
+                    .add(logicId));
+            unresolved.put(logicId, dependencies.size());
+        });
 
-                // 根据不同操作类型进行数据过滤，Event目前暂时不支持query、match、createOrUpdate操作
-                switch (operate) {
-                    case create: // 新增
-                        createEvents.add(eventEntity);
-                        break;
-                    case update: // 更新
-                        updateEvents.add(eventEntity);
-                        break;
-                    case delete: // 删除
-                        deleteEvents.add(eventEntity);
-                        break;
-                    case query: // 查询
-                    case match: // 匹配
-                    case createOrUpdate: // 新增或更新
-                    default: // 未知，理论不会出现
+        // 按层计算依赖层级
+        final Map<String, Integer> ranks = Maps.newHashMap();
+        Deque<String> ready = new ArrayDeque<>();
+        unresolved.forEach((logicId, count) -> {
+            if (count == 0) {
+                ranks.put(logicId, 0);
+                ready.add(logicId);
+            }
+        });
+        while (!ready.isEmpty()) {
+            final String logicId = ready.poll();
+            final int rank = ranks.get(logicId) + 1;
+            for (String dependent : dependents.getOrDefault(logicId, Collections.emptyList())) {
+                ranks.merge(dependent, rank, Math::max);
+                if (unresolved.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
                 }
-            });
+            }
+        }
+
+        // 依赖未能全部确定层级的Node处在循环依赖中，排在最后
+        final Comparator<NodeEntity> comparator = Comparator.comparingInt(node -> {
+            final String logicId = node.getLogicId();
+            return unresolved.get(logicId) > 0 ? Integer.MAX_VALUE : ranks.get(logicId);
         });
+        queryNodes.sort(comparator);
+        matchNodes.sort(comparator);
+        createOrUpdateNodes.sort(comparator);
+        updateNodes.sort(comparator);
+        createNodes.sort(comparator);
+    }
 
-        // 新增Event
-        createEvents.forEach(eventEntity -> {
-            final String logicId = eventEntity.getLogicId();
-            final String eventId = eventEntity.get__Id();
+    /**
+     * 查找Node填充关联唯一属性和关联默认值时依赖的待处理Node
+     *
+     * @param node         Node实例
+     * @param pendingNodes 待处理Node，Key为逻辑ID
+     * @return 依赖的待处理Node逻辑ID
+     */
+    private Set<String> findDependencies(final NodeEntity node, final Map<String, NodeEntity> pendingNodes) {
+        final Set<String> dependencies = Sets.newHashSet();
+        final SdNodeDefinition sdNode = UXDFLoader.getNode(node.get__Sd());
+        if (sdNode == null) {
+            return dependencies;
+        }
 
-            // 保存Event
-            this.storageService.createEvent(eventEntity, this.data);
-            data.updateEvent(logicId, eventId, eventEntity);
-        });
-        // 更新Event
-        updateEvents.forEach(eventEntity -> {
-            final String logicId = eventEntity.getLogicId();
-            final String eventId = eventEntity.get__Id();
+        // 关联唯一属性
+        if (AssociateUniquePropertyUtil.getPropertyName(sdNode) != null && sdNode.getUniqueIndex() != null) {
+            for (String uniqueIndex : sdNode.getUniqueIndex()) {
+                if (UXDFChain.haveRelationship(uniqueIndex)) {
+                    UXDFChainItem chainItem = UXDFChain.getInstance(uniqueIndex).iterator().next().get(0);
+                    final String targetNodeName = ChainPath.LEFT == chainItem.getChainPath()
+                            ? chainItem.getRightNodeName()
+                            : chainItem.getLeftNodeName();
+                    final String target = this.findTarget(node, chainItem, targetNodeName, pendingNodes);
+                    if (target != null) {
+                        dependencies.add(target);
+                    }
+                    break;
+                }
+            }
+        }
 
-            // 更新Event
-            this.storageService.updateEvent(eventEntity, this.data);
-            data.updateEvent(logicId, eventId, eventEntity);
-        });
-        // 删除Event
-        deleteEvents.forEach(eventEntity -> {
-            this.storageService.deleteEvent(eventEntity, this.data);
-            data.removeEvent(eventEntity);
-        });
+        // 关联默认值，只处理当前数据中能走完整个语法链的情况
+        for (Map.Entry<String, SdProperty> entry : sdNode.getProp().entrySet()) {
+            final Object defaultValue = entry.getValue().getDefaultValue();
+            if (node.get(entry.getKey()) != null || defaultValue == null) {
+                continue;
+            }
+            final FillDefaultValue fillDefaultValue = FillDefaultValue.getInstance(defaultValue);
+            if (fillDefaultValue == null) {
+                continue;
+            }
+            NodeEntity targetNode = node;
+            String target = null;
+            for (UXDFChainItem chainItem : fillDefaultValue.getChain().iterator().next()) {
+                target = this.findTarget(targetNode, chainItem, chainItem.getLastNode(), pendingNodes);
+                targetNode = target == null ? null : pendingNodes.get(target);
+                if (targetNode == null) {
+                    break;
+                }
+            }
+            if (targetNode != null && target != null) {
+                dependencies.add(target);
+            }
+        }
+        return dependencies;
+    }
 
-        return saveResult;
+    /**
+     * 在当前数据的Event中查找语法链指向的待处理Node
+     *
+     * @param sourceNode     源Node
+     * @param chainItem      语法链
+     * @param targetNodeName 目标Node名称
+     * @param pendingNodes   待处理Node，Key为逻辑ID
+     * @return 目标Node逻辑ID，不是待处理Node时返回null
+     */
+    private String findTarget(
+            final NodeEntity sourceNode,
+            final UXDFChainItem chainItem,
+            final String targetNodeName,
+            final Map<String, NodeEntity> pendingNodes
+    ) {
+        for (EventEntity eventEntity : this.data.getDetachedEvent(sourceNode)) {
+            if (!eventEntity.get__Sd().equals(chainItem.getEvent())) {
+                continue;
+            }
+            String target = null;
+            if (ChainPath.LEFT == chainItem.getChainPath() && eventEntity.get__RightSd().equals(targetNodeName)) {
+                target = eventEntity.rightLogicId();
+            } else if (ChainPath.RIGHT == chainItem.getChainPath() && eventEntity.get__LeftSd().equals(targetNodeName)) {
+                target = eventEntity.leftLogicId();
+            }
+            if (target != null && pendingNodes.containsKey(target)) {
+                return target;
+            }
+        }
+        return null;
     }
 
     /**
@@ -711,6 +940,14 @@ public class SaveExecutor implements Executor<SdDataSaveResult> {
         if (eventEntity == null || chainItem == null || !eventEntity.get__Sd().equals(chainItem.getEvent())) {
             return null;
         }
+        // 目标Node就是关系串的结束Node时按ID获取，可以使用缓存
+        if (chainItem.getChainPath().equals(ChainPath.LEFT)
+                && chainItem.getLastNode().equals(eventEntity.get__RightSd())) {
+            return this.storageService.getNodeEntityById(eventEntity.get__RightSd(), eventEntity.get__Right());
+        } else if (chainItem.getChainPath().equals(ChainPath.RIGHT)
+                && chainItem.getLastNode().equals(eventEntity.get__LeftSd())) {
+            return this.storageService.getNodeEntityById(eventEntity.get__LeftSd(), eventEntity.get__Left());
+        }
         final String lastNodeLabel = "last";
         chainItem.setLastLabel(lastNodeLabel);
         SdDataQueryRequest queryRequest = new SdDataQueryRequest();
@@ -53,6 +53,24 @@ public interface UXDFMapper {
             @Param("auth") DataAuth dataAuth
     );
 
+    /**
+     * 根据列值集合批量获得SD
+     *
+     * @param tableName     表名
+     * @param selectColumns 查询的列
+     * @param column        列名
+     * @param values        列值集合
+     * @param dataAuth      数据权限
+     * @return 查询结果
+     */
+    List<JSONObject> getByColumn(
+            @Param("table") String tableName,
+            @Param("selectColumns") Collection<String> selectColumns,
+            @Param("column") String column,
+            @Param("values") Collection<String> values,
+            @Param("auth") DataAuth dataAuth
+    );
+
     /**
      * 根据SD和参数集合查询符合结果的SD
      *
@@ -148,6 +166,30 @@ public interface UXDFMapper {
             @Param("rightSd") String rightSd
     );
 
+    /**
+     * 根据左Node ID集合批量删除Event
+     *
+     * @param eventTable Event对应的表
+     * @param leftIds    左Node ID集合
+     * @return 删除的数量
+     */
+    int deleteEventByLeftNodes(
+            @Param("table") String eventTable,
+            @Param("lefts") Collection<String> leftIds
+    );
+
+    /**
+     * 根据右Node ID集合批量删除Event
+     *
+     * @param eventTable Event对应的表
+     * @param rightIds   右Node ID集合
+     * @return 删除的数量
+     */
+    int deleteEventByRightNodes(
+            @Param("table") String eventTable,
+            @Param("rights") Collection<String> rightIds
+    );
+
     /**
      * 根据ID删除Event
      *
@@ -175,6 +217,20 @@ public interface UXDFMapper {
             @Param("auth") DataAuth dataAuth
     );
 
+    /**
+     * 根据ID集合批量删除Node
+     *
+     * @param nodeTable Node对应的表
+     * @param nodeIds   ID集合
+     * @param dataAuth  数据权限
+     * @return 删除的数量
+     */
+    int deleteNodes(
+            @Param("table") String nodeTable,
+            @Param("ids") Collection<String> nodeIds,
+            @Param("auth") DataAuth dataAuth
+    );
+
     /**
      * 移除表
      *
@@ -235,13 +291,39 @@ public interface UXDFMapper {
             @Param("orders") List<SdDataQueryOrder> orders
     );
 
+    /**
+     * 创建ID临时表，只用于Oracle，为事务级全局临时表
+     *
+     * @param tableName 临时表名
+     */
     void createTempIdTable(
             @Param("tableName") String tableName
     );
 
+    /**
+     * 写入ID临时表
+     *
+     * @param tableName 临时表名
+     * @param key       本次写入的Key
+     * @param ids       ID集合
+     * @return 写入的数量
+     */
     int insertTempId(
             @Param("tableName") String tableName,
-            @Param("ids") List<Long> ids
+            @Param("key") long key,
+            @Param("ids") List<?> ids
+    );
+
+    /**
+     * 删除ID临时表中指定Key的数据
+     *
+     * @param tableName 临时表名
+     * @param key       写入时的Key
+     * @return 删除的数量
+     */
+    int deleteTempId(
+            @Param("tableName") String tableName,
+            @Param("key") long key
     );
 
     int insertBinary(final UXDFBinaryFileInfo fileInfo);
@@ -252,6 +334,38 @@ public interface UXDFMapper {
             @Param("uuid") final String uuid
     );
 
+    /**
+     * 获得二进制内容的长度
+     *
+     * @param table  表名
+     * @param column 列名
+     * @param uuid   实例UUID
+     * @return 字节数，记录不存在或内容为空时返回null
+     */
+    Long getBinaryLength(
+            @Param("table") final String table,
+            @Param("column") final String column,
+            @Param("uuid") final String uuid
+    );
+
+    /**
+     * 获得二进制内容的一段
+     *
+     * @param table  表名
+     * @param column 列名
+     * @param uuid   实例UUID
+     * @param offset 开始位置，从1开始
+     * @param length 读取长度
+     * @return 内容
+     */
+    byte[] getBinaryChunk(
+            @Param("table") final String table,
+            @Param("column") final String column,
+            @Param("uuid") final String uuid,
+            @Param("offset") final long offset,
+            @Param("length") final int length
+    );
+
     /**
      * 检查表是否存在
      *
@@ -268,20 +382,55 @@ public interface UXDFMapper {
     void createIdArea();
 
     /**
-     * 获取ID分区
+     * 检查ID分区表是否有指定列
+     *
+     * @param column 列名
+     * @return 列名，不存在时为null
+     */
+    String checkIdAreaColumn(@Param("column") String column);
+
+    /**
+     * 为旧的ID分区表增加分段列，原有分区记录属于分段0
+     */
+    void addIdAreaStripe();
+
+    /**
+     * 为旧的ID分区表增加分段数量列，原有分区记录的分段数量为0
+     */
+    void addIdAreaStripes();
+
+    /**
+     * 获取并锁定分段的ID分区
+     *
+     * @param stripe 分段
+     * @return ID分区记录，不存在时为null
+     */
+    RdbIdArea getIdArea(@Param("stripe") int stripe);
+
+    /**
+     * 获取所有分段中最大的ID分区
      *
      * @return ID分区
      */
-    String getIdArea();
+    String getMaxIdArea();
 
-    void addIdArea(@Param("area") String area);
+    void addIdArea(@Param("area") String area, @Param("stripe") int stripe, @Param("stripes") int stripes);
 
     /**
      * 设置ID分区
      *
-     * @param area 分区
+     * @param area    分区
+     * @param stripe  分段
+     * @param stripes 分段数量
+     */
+    void setIdArea(@Param("area") String area, @Param("stripe") int stripe, @Param("stripes") int stripes);
+
+    /**
+     * 删除不小于分段数量的分段记录
+     *
+     * @param stripes 分段数量
      */
-    void setIdArea(@Param("area") String area);
+    void deleteIdAreaStripes(@Param("stripes") int stripes);
 
     /**
      * 删除指定左右ID的Event
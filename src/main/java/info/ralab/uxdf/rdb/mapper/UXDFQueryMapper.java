@@ -7,6 +7,7 @@ import info.ralab.uxdf.rdb.DataAuth;
 import info.ralab.uxdf.rdb.model.RdbQueryInfo;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.Collection;
 import java.util.List;
@@ -22,7 +23,34 @@ public interface UXDFQueryMapper {
             @Param("auth") DataAuth dataAuth
     );
 
+    /**
+     * 流式查询，结果逐行交给处理者，不返回结果集合
+     *
+     * @param queryInfoList 查询信息集合
+     * @param orders        排序
+     * @param page          分页
+     * @param dataAuth      数据权限
+     * @param resultHandler 结果处理者
+     */
+    void queryStream(
+            @Param("queryInfoList") Collection<RdbQueryInfo> queryInfoList,
+            @Param("queryOrderList") List<SdDataQueryOrder> orders,
+            @Param("queryPage") SdDataQueryPage page,
+            @Param("auth") DataAuth dataAuth,
+            ResultHandler<JSONObject> resultHandler
+    );
+
     long count(
             @Param("queryInfo") RdbQueryInfo queryInfo
     );
+
+    /**
+     * 使用数据库统计信息估算表行数
+     *
+     * @param table 表名
+     * @return 估算行数，没有统计信息时返回null
+     */
+    Long estimateCount(
+            @Param("table") String table
+    );
 }
@@ -0,0 +1,22 @@
+package info.ralab.uxdf.rdb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.InputStream;
+
+/**
+ * 写入二进制列的取值，长度已知时按长度流式写入，驱动不需要先读取全部内容。
+ */
+@Getter
+@AllArgsConstructor
+public class RdbBinaryValue {
+    /**
+     * 二进制内容
+     */
+    private final InputStream inputStream;
+    /**
+     * 内容长度，小于0时未知
+     */
+    private final long length;
+}
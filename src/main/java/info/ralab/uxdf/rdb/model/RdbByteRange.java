@@ -0,0 +1,115 @@
+package info.ralab.uxdf.rdb.model;
+
+import info.ralab.uxdf.UXDFException;
+import lombok.Getter;
+
+/**
+ * 二进制内容的字节范围，与HTTP的Range请求头格式一致，起止位置从0开始并且都包含在范围内。
+ * <p>
+ * 支持{@code bytes=start-end}、{@code bytes=start-}、{@code bytes=-suffixLength}，不支持多个范围。
+ */
+@Getter
+public class RdbByteRange {
+
+    private static final String UNIT_PREFIX = "bytes=";
+
+    /**
+     * 开始位置
+     */
+    private final long start;
+    /**
+     * 结束位置
+     */
+    private final long end;
+    /**
+     * 内容总长度
+     */
+    private final long total;
+
+    private RdbByteRange(final long start, final long end, final long total) {
+        this.start = start;
+        this.end = end;
+        this.total = total;
+    }
+
+    /**
+     * 全部内容的范围
+     *
+     * @param total 内容总长度
+     * @return 字节范围
+     */
+    public static RdbByteRange full(final long total) {
+        return new RdbByteRange(0, total - 1, total);
+    }
+
+    /**
+     * 解析Range请求头
+     *
+     * @param range Range请求头，为空时返回全部内容的范围
+     * @param total 内容总长度
+     * @return 字节范围
+     * @throws UXDFException 格式错误或范围无法满足
+     */
+    public static RdbByteRange parse(final String range, final long total) throws UXDFException {
+        if (range == null || range.trim().isEmpty()) {
+            return full(total);
+        }
+        final String value = range.trim();
+        if (!value.startsWith(UNIT_PREFIX) || value.indexOf(',') > -1) {
+            throw new UXDFException(String.format("不支持的字节范围[%s]。", range));
+        }
+        final String spec = value.substring(UNIT_PREFIX.length()).trim();
+        final int split = spec.indexOf('-');
+        if (split < 0) {
+            throw new UXDFException(String.format("不支持的字节范围[%s]。", range));
+        }
+
+        long start;
+        long end;
+        try {
+            final String startValue = spec.substring(0, split).trim();
+            final String endValue = spec.substring(split + 1).trim();
+            if (startValue.isEmpty()) {
+                // 最后的若干字节
+                start = Math.max(total - Long.parseLong(endValue), 0);
+                end = total - 1;
+            } else {
+                start = Long.parseLong(startValue);
+                end = endValue.isEmpty() ? total - 1 : Math.min(Long.parseLong(endValue), total - 1);
+            }
+        } catch (NumberFormatException e) {
+            throw new UXDFException(String.format("不支持的字节范围[%s]。", range));
+        }
+        if (start < 0 || start > end) {
+            throw new UXDFException(String.format("字节范围[%s]超出内容长度[%s]。", range, total));
+        }
+        return new RdbByteRange(start, end, total);
+    }
+
+    /**
+     * 范围内的字节数
+     *
+     * @return 字节数
+     */
+    public long getLength() {
+        return this.end - this.start + 1;
+    }
+
+    /**
+     * 是否只是部分内容
+     *
+     * @return 是否部分内容
+     */
+    public boolean isPartial() {
+        return this.start > 0 || this.end < this.total - 1;
+    }
+
+    /**
+     * 生成Content-Range响应头
+     *
+     * @return Content-Range响应头
+     */
+    public String getContentRange() {
+        return String.format("bytes %d-%d/%d", this.start, this.end, this.total);
+    }
+}
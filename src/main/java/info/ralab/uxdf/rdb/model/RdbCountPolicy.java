@@ -0,0 +1,19 @@
+package info.ralab.uxdf.rdb.model;
+
+/**
+ * 分页查询的总数统计方式
+ */
+public enum RdbCountPolicy {
+    /**
+     * 精确统计
+     */
+    EXACT,
+    /**
+     * 不统计，总数返回-1
+     */
+    SKIP,
+    /**
+     * 主Node没有过滤条件时使用表统计信息估算，否则精确统计
+     */
+    ESTIMATE
+}
@@ -0,0 +1,18 @@
+package info.ralab.uxdf.rdb.model;
+
+import lombok.Data;
+
+/**
+ * ID分区表中一个分段的记录
+ */
+@Data
+public class RdbIdArea {
+    /**
+     * 分段已分配的最大分区
+     */
+    private String area;
+    /**
+     * 分配时使用的分段数量，旧记录为0
+     */
+    private int stripes;
+}
@@ -0,0 +1,138 @@
+package info.ralab.uxdf.rdb.model;
+
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.model.SdDataQueryParam;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次保存过程中的Node实例标识映射。
+ * <p>
+ * 记录保存过程中从数据库读取过的Node，按ID和查询条件两种方式查找，同一Node在保存中只读取一次。
+ * 只记录找到的Node，未找到的结果不记录；Node被更新或删除时移除，保存和返回的都是副本。
+ */
+public class RdbIdentityMap {
+
+    private static final char KEY_SPLIT = '|';
+
+    /**
+     * Node名称和ID对应的Node
+     */
+    private final Map<String, Map<String, NodeEntity>> nodes = Maps.newHashMap();
+    /**
+     * Node名称和查询条件对应的Node ID
+     */
+    private final Map<String, Map<String, String>> lookups = Maps.newHashMap();
+
+    /**
+     * 按ID获取Node
+     *
+     * @param nodeName Node名称
+     * @param nodeId   Node ID
+     * @return Node实例，未记录时返回null
+     */
+    public NodeEntity getById(final String nodeName, final String nodeId) {
+        Map<String, NodeEntity> idNodes = this.nodes.get(nodeName);
+        return idNodes == null ? null : copy(idNodes.get(nodeId));
+    }
+
+    /**
+     * 按查询条件获取Node
+     *
+     * @param nodeName    Node名称
+     * @param queryParams 查询条件
+     * @return Node实例，未记录时返回null
+     */
+    public NodeEntity getByParams(final String nodeName, final List<SdDataQueryParam> queryParams) {
+        Map<String, String> nodeLookups = this.lookups.get(nodeName);
+        if (nodeLookups == null) {
+            return null;
+        }
+        final String nodeId = nodeLookups.get(makeKey(queryParams));
+        return nodeId == null ? null : this.getById(nodeName, nodeId);
+    }
+
+    /**
+     * 记录从数据库读取的Node
+     *
+     * @param node Node实例
+     */
+    public void put(final NodeEntity node) {
+        if (node == null || node.get__Sd() == null || node.get__Id() == null) {
+            return;
+        }
+        this.nodes.computeIfAbsent(node.get__Sd(), key -> Maps.newHashMap()).put(node.get__Id(), copy(node));
+    }
+
+    /**
+     * 记录使用查询条件从数据库读取的Node
+     *
+     * @param queryParams 查询条件
+     * @param node        Node实例
+     */
+    public void put(final List<SdDataQueryParam> queryParams, final NodeEntity node) {
+        if (node == null || node.get__Sd() == null || node.get__Id() == null) {
+            return;
+        }
+        this.put(node);
+        this.lookups.computeIfAbsent(node.get__Sd(), key -> Maps.newHashMap())
+                .put(makeKey(queryParams), node.get__Id());
+    }
+
+    /**
+     * 移除Node，属性变化后查询条件对应的结果可能不同，同时移除该Node名称的所有查询条件
+     *
+     * @param nodeName Node名称
+     * @param nodeId   Node ID
+     */
+    public void remove(final String nodeName, final String nodeId) {
+        Map<String, NodeEntity> idNodes = this.nodes.get(nodeName);
+        if (idNodes != null) {
+            idNodes.remove(nodeId);
+        }
+        this.lookups.remove(nodeName);
+    }
+
+    /**
+     * 移除所有记录
+     */
+    public void clear() {
+        this.nodes.clear();
+        this.lookups.clear();
+    }
+
+    /**
+     * 生成查询条件的Key，与条件顺序无关
+     *
+     * @param queryParams 查询条件
+     * @return Key
+     */
+    static String makeKey(final List<SdDataQueryParam> queryParams) {
+        StringBuilder key = new StringBuilder();
+        queryParams.stream()
+                .sorted(Comparator.comparing(SdDataQueryParam::getProperty))
+                .forEach(queryParam -> {
+                    // 属性值加上长度，避免不同属性值拼接后相同
+                    final String value = String.valueOf(queryParam.getValue());
+                    key.append(queryParam.getProperty())
+                            .append('=')
+                            .append(value.length())
+                            .append(':')
+                            .append(value)
+                            .append(KEY_SPLIT);
+                });
+        return key.toString();
+    }
+
+    private static NodeEntity copy(final NodeEntity node) {
+        if (node == null) {
+            return null;
+        }
+        NodeEntity copy = new NodeEntity();
+        copy.putAll(node);
+        return copy;
+    }
+}
@@ -0,0 +1,73 @@
+package info.ralab.uxdf.rdb.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 数量超过阈值的IN条件。
+ * <p>
+ * 在事务中写入临时表，通过子查询关联；不能使用临时表时拆分为多个IN条件，避免单个IN条件过长。
+ */
+@Getter
+public class RdbLargeIn {
+    /**
+     * 原始参数值
+     */
+    private final List<?> values;
+    /**
+     * 临时表名，未使用临时表时为null
+     */
+    private final String tempTable;
+    /**
+     * 临时表中本次参数值的Key
+     */
+    private final long tempKey;
+    /**
+     * 拆分后的IN条件，使用临时表时为null
+     */
+    private final List<? extends List<?>> chunks;
+
+    private RdbLargeIn(
+            final List<?> values,
+            final String tempTable,
+            final long tempKey,
+            final List<? extends List<?>> chunks
+    ) {
+        this.values = values;
+        this.tempTable = tempTable;
+        this.tempKey = tempKey;
+        this.chunks = chunks;
+    }
+
+    /**
+     * 使用临时表
+     *
+     * @param values    参数值
+     * @param tempTable 临时表名
+     * @param tempKey   临时表中本次参数值的Key
+     * @return IN条件
+     */
+    public static RdbLargeIn ofTempTable(final List<?> values, final String tempTable, final long tempKey) {
+        return new RdbLargeIn(values, tempTable, tempKey, null);
+    }
+
+    /**
+     * 拆分为多个IN条件
+     *
+     * @param values 参数值
+     * @param chunks 拆分后的参数值
+     * @return IN条件
+     */
+    public static RdbLargeIn ofChunks(final List<?> values, final List<? extends List<?>> chunks) {
+        return new RdbLargeIn(values, null, 0, chunks);
+    }
+
+    /**
+     * 使用原始参数值，临时表Key每次不同，不能用于缓存Key
+     */
+    @Override
+    public String toString() {
+        return String.valueOf(this.values);
+    }
+}
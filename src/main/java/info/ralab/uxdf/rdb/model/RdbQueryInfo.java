@@ -3,6 +3,7 @@ package info.ralab.uxdf.rdb.model;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import info.ralab.uxdf.definition.SdEventDefinition;
 import info.ralab.uxdf.definition.SdNodeDefinition;
@@ -10,6 +11,7 @@ import info.ralab.uxdf.model.SdDataQueryOrder;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class RdbQueryInfo {
@@ -78,6 +80,21 @@ public class RdbQueryInfo {
      */
     private boolean useExists = true;
 
+    /**
+     * 是否使用游标分页
+     */
+    private boolean seek;
+
+    /**
+     * 游标分页定位条件，组之间为or，组内为and
+     */
+    private List<List<RdbQueryParam>> seekParams;
+
+    /**
+     * 是否在查询结果中返回，不返回时只查询关联需要的列
+     */
+    private boolean returned = true;
+
     public void setNodeEntity(final boolean isNodeEntity) {
         this.nodeEntity = isNodeEntity;
         this.eventEntity = !this.nodeEntity;
@@ -103,4 +120,22 @@ public class RdbQueryInfo {
     public boolean hasExists() {
         return this.exists != null;
     }
+
+    /**
+     * 获取需要查询的列，不返回时只包含ID和左右关联ID
+     *
+     * @return 列别名和列名
+     */
+    public Map<String, String> getSelectColumns() {
+        if (this.returned) {
+            return this.columns;
+        }
+        Map<String, String> selectColumns = Maps.newLinkedHashMap();
+        for (String alias : new String[]{this.idAlias, this.leftAlias, this.rightAlias}) {
+            if (alias != null) {
+                selectColumns.put(alias, this.columns.get(alias));
+            }
+        }
+        return selectColumns;
+    }
 }
@@ -0,0 +1,102 @@
+package info.ralab.uxdf.rdb.model;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.model.SdDataQueryOrder;
+import lombok.Data;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的查询计划。
+ * <p>
+ * 只包含由查询请求结构决定的信息，不包含查询参数值。构建后只读，可以在多个查询之间共享。
+ */
+@Data
+public class RdbQueryPlan {
+    /**
+     * 主Node标签
+     */
+    private String mainLabel;
+    /**
+     * 查询信息模板，不包含查询参数
+     */
+    private List<RdbQueryInfo> queryInfoList = Lists.newArrayList();
+    /**
+     * 外层排序，属性为列别名
+     */
+    private List<SdDataQueryOrder> orders;
+
+    /**
+     * 复制查询信息模板，用于绑定本次查询的参数。
+     * 共享只读的列、关联和排序信息，重新创建参数集合和Exists条件并保持原有的引用关系。
+     *
+     * @return 查询信息集合
+     */
+    public List<RdbQueryInfo> copyQueryInfoList() {
+        final Map<List<RdbQueryParam>, List<RdbQueryParam>> paramsMapping = new IdentityHashMap<>();
+        final Map<RdbExistsInfo, RdbExistsInfo> existsMapping = new IdentityHashMap<>();
+
+        List<RdbQueryInfo> copyList = Lists.newArrayListWithCapacity(this.queryInfoList.size());
+        this.queryInfoList.forEach(template -> {
+            RdbQueryInfo queryInfo = new RdbQueryInfo();
+            queryInfo.setNodeEntity(template.isNodeEntity());
+            queryInfo.setNodeDefinition(template.getNodeDefinition());
+            queryInfo.setEventDefinition(template.getEventDefinition());
+            queryInfo.setIdAlias(template.getIdAlias());
+            queryInfo.setLeftAlias(template.getLeftAlias());
+            queryInfo.setRightAlias(template.getRightAlias());
+            queryInfo.setAlias(template.getAlias());
+            queryInfo.setTable(template.getTable());
+            queryInfo.setLabel(template.getLabel());
+            queryInfo.setColumns(template.getColumns());
+            queryInfo.setJoin(template.getJoin());
+            queryInfo.setOrders(template.getOrders());
+            queryInfo.setParams(paramsMapping.computeIfAbsent(template.getParams(), key -> Lists.newArrayList()));
+            copyList.add(queryInfo);
+        });
+
+        // 参数集合全部映射后再复制Exists条件
+        for (int i = 0; i < copyList.size(); i++) {
+            RdbQueryInfo template = this.queryInfoList.get(i);
+            RdbQueryInfo queryInfo = copyList.get(i);
+            if (template.getExists() != null) {
+                queryInfo.setExists(copyExists(template.getExists(), paramsMapping, existsMapping));
+            }
+            queryInfo.setUseExists(template.isUseExists());
+        }
+        return copyList;
+    }
+
+    /**
+     * 复制Exists条件
+     *
+     * @param template      Exists条件模板
+     * @param paramsMapping 参数集合映射
+     * @param existsMapping 已复制的Exists条件
+     * @return Exists条件
+     */
+    private static RdbExistsInfo copyExists(
+            final RdbExistsInfo template,
+            final Map<List<RdbQueryParam>, List<RdbQueryParam>> paramsMapping,
+            final Map<RdbExistsInfo, RdbExistsInfo> existsMapping
+    ) {
+        RdbExistsInfo existsInfo = existsMapping.get(template);
+        if (existsInfo != null) {
+            return existsInfo;
+        }
+        existsInfo = new RdbExistsInfo();
+        existsMapping.put(template, existsInfo);
+
+        existsInfo.setExistsTable(template.getExistsTable());
+        existsInfo.setSelfTable(template.getSelfTable());
+        existsInfo.setClose(template.isClose());
+        template.getExistsColumns().forEach(existsInfo::putExistsColumn);
+        existsInfo.setParams(paramsMapping.computeIfAbsent(template.getParams(), key -> Lists.newArrayList()));
+        for (RdbExistsInfo child : template.getExistsList()) {
+            existsInfo.getExistsList().add(copyExists(child, paramsMapping, existsMapping));
+        }
+        return existsInfo;
+    }
+}
@@ -0,0 +1,69 @@
+package info.ralab.uxdf.rdb.model;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.UXDFException;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 游标分页的定位信息，记录上一页最后一条主Node的排序属性值和ID
+ */
+@Data
+public class RdbSeekToken {
+    private static final String KEY_VALUES = "v";
+    private static final String KEY_ID = "i";
+
+    /**
+     * 排序属性值，顺序和查询请求中的排序一致
+     */
+    private List<Object> values = Lists.newArrayList();
+    /**
+     * ID
+     */
+    private String id;
+
+    /**
+     * 编码为不透明的游标字符串
+     *
+     * @return 游标
+     */
+    public String encode() {
+        JSONObject token = new JSONObject();
+        token.put(KEY_VALUES, this.values);
+        token.put(KEY_ID, this.id);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(token.toJSONString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param continuationToken 游标
+     * @return 定位信息
+     */
+    public static RdbSeekToken decode(final String continuationToken) {
+        try {
+            JSONObject token = JSON.parseObject(new String(
+                    Base64.getUrlDecoder().decode(continuationToken),
+                    StandardCharsets.UTF_8
+            ));
+            RdbSeekToken seekToken = new RdbSeekToken();
+            seekToken.getValues().addAll(token.getJSONArray(KEY_VALUES));
+            seekToken.setId(token.getString(KEY_ID));
+            if (seekToken.getId() == null) {
+                throw new UXDFException("分页游标缺少ID。");
+            }
+            return seekToken;
+        } catch (UXDFException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UXDFException(String.format("分页游标[%s]无效。", continuationToken));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package info.ralab.uxdf.rdb.model;
+
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.Sd;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Sd和关系型数据库映射关系的只读快照。
+ * <p>
+ * 构建完成后整体发布，读取时不需要加锁，也不会读到构建了一半的映射关系。
+ */
+@Getter
+public class RelationShipRdbSnapshot {
+    /**
+     * 版本号，每次重新构建递增
+     */
+    private final long version;
+    /**
+     * 构建时使用的Sd定义，用于判断Sd定义是否已经变化
+     */
+    private final Sd sd;
+    /**
+     * 只读的映射关系
+     */
+    private final RelationShipRdb relationShip;
+
+    public RelationShipRdbSnapshot(final long version, final Sd sd, final RelationShipRdb source) {
+        this.version = version;
+        this.sd = sd;
+
+        RelationShipRdb readOnly = new RelationShipRdb();
+        readOnly.setNode(Collections.unmodifiableMap(Maps.newHashMap(source.getNode())));
+        Map<String, Map<String, Map<String, RelationShipRdbTable>>> eventMap = Maps.newHashMap();
+        source.getEvent().forEach((eventName, leftMap) -> {
+            Map<String, Map<String, RelationShipRdbTable>> readOnlyLeftMap = Maps.newHashMap();
+            leftMap.forEach((leftNodeName, rightMap) -> readOnlyLeftMap.put(
+                    leftNodeName,
+                    Collections.unmodifiableMap(Maps.newHashMap(rightMap))
+            ));
+            eventMap.put(eventName, Collections.unmodifiableMap(readOnlyLeftMap));
+        });
+        readOnly.setEvent(Collections.unmodifiableMap(eventMap));
+        this.relationShip = readOnly;
+    }
+}
@@ -1,8 +1,10 @@
 package info.ralab.uxdf.rdb.model;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -10,4 +12,6 @@ public class RelationShipRdbTable {
     private String name;
     private String seqId;
     private Map<String, String> column = Maps.newHashMap();
+    // 按列值批量读取时查询的列，不包含二进制列
+    private List<String> selectColumns = Lists.newArrayList();
 }
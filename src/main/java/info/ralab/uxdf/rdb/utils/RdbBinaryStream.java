@@ -0,0 +1,133 @@
+package info.ralab.uxdf.rdb.utils;
+
+import info.ralab.uxdf.rdb.model.RdbByteRange;
+import lombok.Getter;
+
+import java.io.InputStream;
+
+/**
+ * 分段读取的二进制内容。
+ * <p>
+ * 只在读取时按分段大小查询下一段，内存中最多保留一段，不会读取整个大字段。
+ * 每段都是独立的查询，读取期间内容被修改时，已读取和未读取的部分可能来自不同版本。
+ */
+public class RdbBinaryStream extends InputStream {
+
+    /**
+     * 读取的字节范围
+     */
+    @Getter
+    private final RdbByteRange range;
+    private final int chunkSize;
+    private final ChunkReader reader;
+
+    /**
+     * 下一段的开始位置，从0开始
+     */
+    private long position;
+    private byte[] chunk;
+    private int chunkIndex;
+
+    /**
+     * @param range     字节范围
+     * @param chunkSize 分段大小
+     * @param reader    分段读取
+     */
+    public RdbBinaryStream(final RdbByteRange range, final int chunkSize, final ChunkReader reader) {
+        this.range = range;
+        this.chunkSize = chunkSize;
+        this.reader = reader;
+        this.position = range.getStart();
+    }
+
+    @Override
+    public int read() {
+        if (!this.fill()) {
+            return -1;
+        }
+        return this.chunk[this.chunkIndex++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.fill()) {
+            return -1;
+        }
+        final int readLength = Math.min(length, this.chunk.length - this.chunkIndex);
+        System.arraycopy(this.chunk, this.chunkIndex, bytes, offset, readLength);
+        this.chunkIndex += readLength;
+        return readLength;
+    }
+
+    @Override
+    public long skip(final long length) {
+        if (length <= 0) {
+            return 0;
+        }
+        // 先跳过当前段中未读取的部分，其余的直接移动下一段的开始位置
+        long skipped = 0;
+        if (this.chunk != null) {
+            skipped = Math.min(length, this.chunk.length - this.chunkIndex);
+            this.chunkIndex += (int) skipped;
+        }
+        final long remaining = Math.min(length - skipped, this.range.getEnd() + 1 - this.position);
+        if (remaining > 0) {
+            this.position += remaining;
+            skipped += remaining;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return this.chunk == null ? 0 : this.chunk.length - this.chunkIndex;
+    }
+
+    /**
+     * 当前段读取完时读取下一段
+     *
+     * @return 是否还有内容
+     */
+    private boolean fill() {
+        if (this.chunk != null && this.chunkIndex < this.chunk.length) {
+            return true;
+        }
+        this.chunk = null;
+        this.chunkIndex = 0;
+        if (this.position > this.range.getEnd()) {
+            return false;
+        }
+        final int length = (int) Math.min(this.chunkSize, this.range.getEnd() + 1 - this.position);
+        // 数据库中的位置从1开始
+        final byte[] data = this.reader.read(this.position + 1, length);
+        if (data == null || data.length == 0) {
+            // 内容比开始时短，结束读取
+            this.position = this.range.getEnd() + 1;
+            return false;
+        }
+        this.chunk = data;
+        this.position += data.length;
+        return true;
+    }
+
+    /**
+     * 分段读取
+     */
+    @FunctionalInterface
+    public interface ChunkReader {
+        /**
+         * 读取一段内容
+         *
+         * @param offset 开始位置，从1开始
+         * @param length 读取长度
+         * @return 内容，没有内容时返回null
+         */
+        byte[] read(long offset, int length);
+    }
+}
@@ -0,0 +1,125 @@
+package info.ralab.uxdf.rdb.utils;
+
+import com.alibaba.fastjson.JSONObject;
+import info.ralab.uxdf.definition.SdBaseType;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.SdEntity;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个Sd的查询结果行解码器。
+ * <p>
+ * 按映射关系版本预先计算列名、属性名和基本类型，每行只按数组顺序取值转换，不再合并属性定义。
+ */
+public class RdbRowDecoder {
+    /**
+     * 构建时的映射关系版本
+     */
+    @Getter
+    private final long version;
+
+    private final String[] columns;
+    private final String[] properties;
+    private final SdBaseType[] types;
+
+    /**
+     * @param version             映射关系版本
+     * @param propertyDefinitions 属性定义，按顺序转换
+     * @param columnMapping       属性和列映射
+     */
+    public RdbRowDecoder(
+            final long version,
+            final List<Map<String, SdProperty>> propertyDefinitions,
+            final Map<String, String> columnMapping
+    ) {
+        this.version = version;
+
+        int size = propertyDefinitions.stream().mapToInt(Map::size).sum();
+        String[] columns = new String[size];
+        String[] properties = new String[size];
+        SdBaseType[] types = new SdBaseType[size];
+        int index = 0;
+        for (Map<String, SdProperty> definitions : propertyDefinitions) {
+            for (Map.Entry<String, SdProperty> definition : definitions.entrySet()) {
+                final String column = columnMapping.get(definition.getKey());
+                // 没有映射列的属性不会出现在结果中
+                if (column == null) {
+                    continue;
+                }
+                columns[index] = column;
+                properties[index] = definition.getKey();
+                types[index] = definition.getValue().getBase();
+                index++;
+            }
+        }
+        this.columns = Arrays.copyOf(columns, index);
+        this.properties = Arrays.copyOf(properties, index);
+        this.types = Arrays.copyOf(types, index);
+    }
+
+    /**
+     * 将查询结果行转换到{@link SdEntity}中
+     *
+     * @param rdbResult 数据库结果
+     * @param sdEntity  Sd实例
+     * @throws SQLException SQL异常
+     * @throws IOException  输入输入异常
+     */
+    public void decode(final JSONObject rdbResult, final SdEntity sdEntity) throws SQLException, IOException {
+        for (int i = 0; i < this.columns.length; i++) {
+            final String column = this.columns[i];
+            // 如果Rdb结果未包含列，跳过
+            if (!rdbResult.containsKey(column)) {
+                continue;
+            }
+            Object value = rdbResult.get(column);
+            // 进行类型转换
+            switch (this.types[i]) {
+                // 字符
+                case String:
+                    // 是否大数据
+                    if (value instanceof Clob) {
+                        value = readClob((Clob) value);
+                    } else {
+                        value = rdbResult.getString(column);
+                    }
+                    break;
+                // 布尔值
+                case Boolean:
+                    value = rdbResult.getBoolean(column);
+                    break;
+                // 二进制、浮点、整数、时间不转换
+                default:
+            }
+            sdEntity.put(this.properties[i], value);
+        }
+    }
+
+    /**
+     * 读取大字段字符
+     *
+     * @param clob 大字段
+     * @return 字符串
+     * @throws SQLException SQL异常
+     * @throws IOException  输入输入异常
+     */
+    private static String readClob(final Clob clob) throws SQLException, IOException {
+        try (Reader reader = clob.getCharacterStream()) {
+            StringBuilder builder = new StringBuilder();
+            char[] chars = new char[1024];
+            int readLength;
+            while ((readLength = reader.read(chars)) > -1) {
+                builder.append(chars, 0, readLength);
+            }
+            return builder.toString();
+        }
+    }
+}
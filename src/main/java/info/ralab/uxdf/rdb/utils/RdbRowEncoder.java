@@ -0,0 +1,194 @@
+package info.ralab.uxdf.rdb.utils;
+
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.SdEntity;
+import info.ralab.uxdf.rdb.model.RelationShipRdbTable;
+import lombok.Getter;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 单个Sd的新增、更新参数模板。
+ * <p>
+ * 按映射关系版本预先计算槽位，每个槽位对应一列，按列名排序，顺序固定；槽位记录属性名、属性定义和取值转换。
+ * 填充参数时只按槽位顺序读取实例中有取值的属性，生成的列顺序相同，语句可以复用。
+ */
+public class RdbRowEncoder {
+    /**
+     * 构建时的映射关系版本
+     */
+    @Getter
+    private final long version;
+    /**
+     * 表名
+     */
+    @Getter
+    private final String table;
+    /**
+     * 序列
+     */
+    @Getter
+    private final String seqId;
+
+    private final String[] columns;
+    private final String[] properties;
+    private final SdProperty[] definitions;
+    private final Converter[] converters;
+    /**
+     * 有映射列但没有属性定义的属性
+     */
+    private final String[] undefinedProperties;
+
+    /**
+     * @param version             映射关系版本
+     * @param propertyDefinitions 属性定义，同名属性以先出现的为准
+     * @param mapping             映射关系
+     * @param converterMaker      按属性定义生成取值转换
+     */
+    public RdbRowEncoder(
+            final long version,
+            final List<Map<String, SdProperty>> propertyDefinitions,
+            final RelationShipRdbTable mapping,
+            final Function<SdProperty, Converter> converterMaker
+    ) {
+        this.version = version;
+        this.table = mapping.getName();
+        this.seqId = mapping.getSeqId();
+
+        final Map<String, String> columnMapping = mapping.getColumn();
+        Map<String, SdProperty> definitionMap = Maps.newHashMap();
+        propertyDefinitions.forEach(definitions -> definitions.forEach(definitionMap::putIfAbsent));
+
+        // 按列名排序，列顺序和属性定义、映射关系的遍历顺序无关
+        TreeMap<String, String> slots = new TreeMap<>();
+        columnMapping.forEach((property, column) -> {
+            if (definitionMap.containsKey(property)) {
+                slots.put(column, property);
+            }
+        });
+        final int size = slots.size();
+        this.columns = new String[size];
+        this.properties = new String[size];
+        this.definitions = new SdProperty[size];
+        this.converters = new Converter[size];
+        int index = 0;
+        for (Map.Entry<String, String> slot : slots.entrySet()) {
+            this.columns[index] = slot.getKey();
+            this.properties[index] = slot.getValue();
+            this.definitions[index] = definitionMap.get(slot.getValue());
+            this.converters[index] = converterMaker.apply(this.definitions[index]);
+            index++;
+        }
+        this.undefinedProperties = columnMapping.keySet().stream()
+                .filter(property -> !definitionMap.containsKey(property))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * 槽位数量
+     *
+     * @return 槽位数量
+     */
+    public int size() {
+        return this.columns.length;
+    }
+
+    /**
+     * 实例中包含属性的槽位
+     *
+     * @param sdEntity Sd实例
+     * @return 槽位集合
+     */
+    public BitSet present(final SdEntity sdEntity) {
+        BitSet present = new BitSet(this.columns.length);
+        for (int i = 0; i < this.properties.length; i++) {
+            if (sdEntity.containsKey(this.properties[i])) {
+                present.set(i);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * 获取实例中有映射列但没有属性定义的属性
+     *
+     * @param sdEntity Sd实例
+     * @return 属性名，不存在时返回null
+     */
+    public String findUndefinedProperty(final SdEntity sdEntity) {
+        for (String property : this.undefinedProperties) {
+            if (sdEntity.containsKey(property)) {
+                return property;
+            }
+        }
+        return null;
+    }
+
+    public String getColumn(final int slot) {
+        return this.columns[slot];
+    }
+
+    public String getProperty(final int slot) {
+        return this.properties[slot];
+    }
+
+    public SdProperty getDefinition(final int slot) {
+        return this.definitions[slot];
+    }
+
+    /**
+     * 获取槽位的取值，取值为空时使用默认值，并转换为数据库取值
+     *
+     * @param slot     槽位
+     * @param sdEntity Sd实例
+     * @return 数据库取值
+     */
+    public Object getValue(final int slot, final SdEntity sdEntity) {
+        Object value = sdEntity.get(this.properties[slot]);
+        if (value == null) {
+            value = this.definitions[slot].getDefaultValue();
+        }
+        return this.converters[slot].convert(sdEntity, value);
+    }
+
+    /**
+     * 判断槽位的数据库取值和原有记录是否相同，原有记录的取值使用同样的转换后比较
+     *
+     * @param slot     槽位
+     * @param value    数据库取值
+     * @param original 原有记录
+     * @return 是否相同
+     */
+    public boolean isUnchanged(final int slot, final Object value, final SdEntity original) {
+        final String property = this.properties[slot];
+        final Object originalValue = original.containsKey(property) ?
+                this.converters[slot].convert(original, original.get(property)) : null;
+        // 时间类型的实现类可能不同，只比较时间
+        if (value instanceof Date && originalValue instanceof Date) {
+            return ((Date) value).getTime() == ((Date) originalValue).getTime();
+        }
+        return Objects.equals(value, originalValue);
+    }
+
+    /**
+     * 属性取值转换
+     */
+    @FunctionalInterface
+    public interface Converter {
+        /**
+         * 转换属性取值
+         *
+         * @param sdEntity Sd实例
+         * @param value    属性取值
+         * @return 数据库取值
+         */
+        Object convert(SdEntity sdEntity, Object value);
+    }
+}
@@ -1,37 +1,129 @@
 package info.ralab.uxdf.rdb.utils;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import info.ralab.uxdf.event.UXDFNodeChangeListener;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
-public class UXDFChangeListenerHelper {
+/**
+ * Node实例变更监听注册表。
+ * <p>
+ * 监听按Bean名称和别名对应Node定义名称，名称为{@code Node名称#后缀}的监听同样对应该Node，一个Node可以有多个监听，
+ * 按{@link org.springframework.core.annotation.Order}排序。注册表在上下文刷新时构建，之后只读。
+ */
+@Component
+@Slf4j
+public class UXDFChangeListenerHelper implements ApplicationListener<ApplicationContextEvent> {
+
+    /**
+     * 多个监听对应同一Node时，Bean名称中Node名称和后缀的分隔符
+     */
+    public static final char NAME_SEPARATOR = '#';
+
+    /**
+     * 各上下文的监听注册表，Key为Node定义名称
+     */
+    private static final Map<ApplicationContext, Map<String, List<UXDFNodeChangeListener>>> REGISTRY =
+            Maps.newConcurrentMap();
+
+    @Override
+    public void onApplicationEvent(final ApplicationContextEvent event) {
+        if (event instanceof ContextRefreshedEvent) {
+            refresh(event.getApplicationContext());
+        } else if (event instanceof ContextClosedEvent) {
+            REGISTRY.remove(event.getApplicationContext());
+        }
+    }
+
+    /**
+     * 重新构建上下文的监听注册表
+     *
+     * @param applicationContext Spring上下文
+     */
+    public static void refresh(final ApplicationContext applicationContext) {
+        REGISTRY.put(applicationContext, build(applicationContext));
+    }
 
     /**
      * 根据Node定义名称获取对应实例变更监听
      *
      * @param applicationContext Spring上下文
      * @param nodeName           Node定义名称
-     * @return Node实例变更监听
+     * @return Node实例变更监听，没有监听时返回空集合
      */
-    public static UXDFNodeChangeListener getNodeChangeListener(
+    public static List<UXDFNodeChangeListener> getNodeChangeListeners(
             final ApplicationContext applicationContext,
             final String nodeName
     ) {
-        if (applicationContext == null || nodeName == null || nodeName.isEmpty()) {
-            return null;
+        if (applicationContext == null || nodeName == null) {
+            return Collections.emptyList();
         }
-        String[] names = applicationContext.getBeanNamesForType(UXDFNodeChangeListener.class);
-        if (names == null || names.length == 0) {
-            return null;
-        } else {
-            Arrays.sort(names);
-
-            if (Arrays.binarySearch(names, nodeName) > -1) {
-                return applicationContext.getBean(nodeName, UXDFNodeChangeListener.class);
-            } else {
-                return null;
-            }
+        Map<String, List<UXDFNodeChangeListener>> registry = REGISTRY.get(applicationContext);
+        if (registry == null) {
+            // 上下文刷新前使用，先构建注册表
+            registry = REGISTRY.computeIfAbsent(applicationContext, UXDFChangeListenerHelper::build);
+        }
+        return registry.getOrDefault(nodeName, Collections.emptyList());
+    }
+
+    /**
+     * 根据Node定义名称获取对应实例变更监听
+     *
+     * @param applicationContext Spring上下文
+     * @param nodeName           Node定义名称
+     * @return Node实例变更监听，有多个监听时返回第一个
+     * @see #getNodeChangeListeners(ApplicationContext, String)
+     */
+    public static UXDFNodeChangeListener getNodeChangeListener(
+            final ApplicationContext applicationContext,
+            final String nodeName
+    ) {
+        List<UXDFNodeChangeListener> listeners = getNodeChangeListeners(applicationContext, nodeName);
+        return listeners.isEmpty() ? null : listeners.get(0);
+    }
+
+    /**
+     * 构建监听注册表
+     *
+     * @param applicationContext Spring上下文
+     * @return 监听注册表
+     */
+    private static Map<String, List<UXDFNodeChangeListener>> build(final ApplicationContext applicationContext) {
+        Map<String, List<UXDFNodeChangeListener>> listenerMap = Maps.newHashMap();
+        for (String beanName : applicationContext.getBeanNamesForType(UXDFNodeChangeListener.class)) {
+            UXDFNodeChangeListener listener = applicationContext.getBean(beanName, UXDFNodeChangeListener.class);
+            List<String> names = Lists.newArrayList(beanName);
+            Collections.addAll(names, applicationContext.getAliases(beanName));
+            names.stream()
+                    .map(name -> {
+                        int index = name.indexOf(NAME_SEPARATOR);
+                        return index > 0 ? name.substring(0, index) : name;
+                    })
+                    .distinct()
+                    .forEach(nodeName -> listenerMap
+                            .computeIfAbsent(nodeName, key -> Lists.newArrayList())
+                            .add(listener));
         }
+
+        ImmutableMap.Builder<String, List<UXDFNodeChangeListener>> registry = ImmutableMap.builder();
+        listenerMap.forEach((nodeName, listeners) -> {
+            AnnotationAwareOrderComparator.sort(listeners);
+            registry.put(nodeName, ImmutableList.copyOf(listeners));
+        });
+        log.debug("node change listener registered: {}", listenerMap.keySet());
+        return registry.build();
     }
 }
@@ -26,9 +26,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.Reader;
-import java.sql.Clob;
-import java.sql.SQLException;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -41,6 +39,11 @@ import static info.ralab.uxdf.definition.SdBaseType.Binary;
 @Slf4j
 public class UXDFRdbConvert {
 
+    /**
+     * 更新时间属性，每次更新都会变化，不作为判断是否有变化的依据
+     */
+    private static final String ATTR_UPDATE_TIME = "__updateTime";
+
     private ApplicationContext applicationContext;
     private RdbLoader rdbLoader;
 
@@ -55,6 +58,15 @@ public class UXDFRdbConvert {
 
     private OracleTimestampConvert oracleTimestampConvert = new OracleTimestampConvert();
 
+    /**
+     * 查询结果行解码器，Key为Node名称或Event关系串
+     */
+    private final Map<String, RdbRowDecoder> rowDecoders = Maps.newConcurrentMap();
+    /**
+     * 新增、更新参数模板，Key为Node名称或Event关系串
+     */
+    private final Map<String, RdbRowEncoder> rowEncoders = Maps.newConcurrentMap();
+
 
     /**
      * Rdb数据集合转换为{@link NodeEntity}集合
@@ -101,36 +113,15 @@ public class UXDFRdbConvert {
         if (nodeName == null) {
             return null;
         }
-        SdNodeDefinition sdNode = UXDFLoader.getNode(nodeName);
-        if (sdNode == null) {
+        RdbRowDecoder rowDecoder = this.getNodeRowDecoder(nodeName);
+        if (rowDecoder == null) {
             return null;
         }
-        // 关系型数据库列映射
-        Map<String, String> columnMapping = rdbLoader.getRdbNodeMapping(nodeName).getColumn();
-        // Node基本属性定义
-        Map<String, SdProperty> nodeAttr = UXDFLoader.getBaseUXDF().getSd().getNode().getAttr();
-        // Node扩展属性定义
-        Map<String, SdProperty> nodeProp = sdNode.getProp();
-        // Node关联唯一属性定义
-        Map<String, SdProperty> nodeAssociatedUniqueProp = Maps.newHashMap();
-        String nodeAssociatedUniquePropName = AssociateUniquePropertyUtil.getPropertyName(UXDFLoader.getNode(nodeName));
-        if (nodeAssociatedUniquePropName != null) {
-            nodeAssociatedUniqueProp.put(
-                    nodeAssociatedUniquePropName,
-                    AssociateUniquePropertyUtil.getProperty(nodeAssociatedUniquePropName)
-            );
-        }
 
         NodeEntity nodeEntity = new NodeEntity();
         try {
-            // 转换基本属性
-            convertColumn(nodeAttr, columnMapping, rdbResult, nodeEntity);
-            // 转换扩展属性
-            convertColumn(nodeProp, columnMapping, rdbResult, nodeEntity);
-            if (nodeAssociatedUniquePropName != null) {
-                // 转换关联唯一属性
-                convertColumn(nodeAssociatedUniqueProp, columnMapping, rdbResult, nodeEntity);
-            }
+            // 转换基本属性、扩展属性、关联唯一属性
+            rowDecoder.decode(rdbResult, nodeEntity);
         } catch (Exception e) {
             throw new UXDFException(e);
         }
@@ -138,9 +129,8 @@ public class UXDFRdbConvert {
         // TODO 权限植入
 
         // 数据返回事件通知
-        UXDFNodeChangeListener nodeChangeListener = UXDFChangeListenerHelper
-                .getNodeChangeListener(this.applicationContext, nodeEntity.get__Sd());
-        if (nodeChangeListener != null) {
+        for (UXDFNodeChangeListener nodeChangeListener : UXDFChangeListenerHelper
+                .getNodeChangeListeners(this.applicationContext, nodeName)) {
             nodeChangeListener.query(nodeEntity);
         }
 
@@ -163,25 +153,15 @@ public class UXDFRdbConvert {
         final String eventName = rdbResult.getString(RdbAttr.A_SD);
         final String leftNode = rdbResult.getString(RdbAttr.A_LEFT_SD);
         final String rightNode = rdbResult.getString(RdbAttr.A_RIGHT_SD);
-        SdEventDefinition sdEvent = UXDFLoader.getEvent(eventName, leftNode, rightNode);
-        if (sdEvent == null) {
+        RdbRowDecoder rowDecoder = this.getEventRowDecoder(eventName, leftNode, rightNode);
+        if (rowDecoder == null) {
             return null;
         }
 
-        // 关系型数据库列映射
-        Map<String, String> columnMapping = rdbLoader.getRdbEventMapping(eventName).get(leftNode).get(rightNode).getColumn();
-        // Event基本属性定义
-        Map<String, SdProperty> eventAttr = UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr();
-        // Event扩展属性定义
-        Map<String, SdProperty> eventProp = sdEvent.getProp();
-
         EventEntity eventEntity = new EventEntity();
         try {
-            // 转换基本属性
-            convertColumn(eventAttr, columnMapping, rdbResult, eventEntity);
-
-            // 转换扩展属性
-            convertColumn(eventProp, columnMapping, rdbResult, eventEntity);
+            // 转换基本属性、扩展属性
+            rowDecoder.decode(rdbResult, eventEntity);
         } catch (Exception e) {
             throw new UXDFException(e);
         }
@@ -192,74 +172,78 @@ public class UXDFRdbConvert {
     }
 
     /**
-     * 转换列数据到{@link SdEntity}中
+     * 获取Node的结果行解码器，映射关系版本变化后重新构建
      *
-     * @param propertyDefinitions Sd属性定义
-     * @param columnMapping       Sd属性和列映射
-     * @param rdbResult           数据库结果
-     * @param sdEntity            Sd实例
-     * @throws SQLException SQL异常
-     * @throws IOException  输入输入异常
+     * @param nodeName Node名称
+     * @return 解码器，Node未定义时返回null
      */
-    private void convertColumn(
-            final Map<String, SdProperty> propertyDefinitions,
-            final Map<String, String> columnMapping,
-            final JSONObject rdbResult,
-            final SdEntity sdEntity
-    ) throws SQLException, IOException {
-        // 遍历属性定义
-        for (String propertyName : propertyDefinitions.keySet()) {
-            // 获取对应列名
-            final String column = columnMapping.get(propertyName);
-            // 如果Rdb结果未包含列，跳过
-            if (!rdbResult.containsKey(column)) {
-                continue;
-            }
-            // 获取属性定义
-            SdProperty prop = propertyDefinitions.get(propertyName);
-            // 获取取值
-            Object value = rdbResult.get(column);
-            // 进行类型转换
-            switch (prop.getBase()) {
-                // 二进制
-                case Binary:
-                    break;
-                // 浮点
-                case Float:
-                    break;
-                // 字符
-                case String:
-                    // 是否大数据
-                    if (value instanceof Clob) {
-                        Clob clob = (Clob) value;
-                        // 读取字符流
-                        try (Reader reader = clob.getCharacterStream()) {
-                            StringBuilder builder = new StringBuilder();
-                            char[] chars = new char[1024];
-                            int readLength;
-                            while ((readLength = reader.read(chars)) > -1) {
-                                builder.append(chars, 0, readLength);
-                            }
-                            value = builder.toString();
-                        }
-                    } else {
-                        value = rdbResult.getString(column);
-                    }
-                    break;
-                // 布尔值
-                case Boolean:
-                    value = rdbResult.getBoolean(column);
-                    break;
-                // 整数
-                case Integer:
-                    break;
-                // 时间
-                case Datetime:
-                    break;
-            }
+    private RdbRowDecoder getNodeRowDecoder(final String nodeName) {
+        final long version = this.rdbLoader.getRelationShipVersion();
+        RdbRowDecoder rowDecoder = this.rowDecoders.get(nodeName);
+        if (rowDecoder != null && rowDecoder.getVersion() == version) {
+            return rowDecoder;
+        }
 
-            sdEntity.put(propertyName, value);
+        SdNodeDefinition sdNode = UXDFLoader.getNode(nodeName);
+        if (sdNode == null) {
+            return null;
+        }
+        // Node关联唯一属性定义
+        Map<String, SdProperty> nodeAssociatedUniqueProp = Maps.newHashMap();
+        String nodeAssociatedUniquePropName = AssociateUniquePropertyUtil.getPropertyName(sdNode);
+        if (nodeAssociatedUniquePropName != null) {
+            nodeAssociatedUniqueProp.put(
+                    nodeAssociatedUniquePropName,
+                    AssociateUniquePropertyUtil.getProperty(nodeAssociatedUniquePropName)
+            );
+        }
+        rowDecoder = new RdbRowDecoder(
+                version,
+                Lists.newArrayList(
+                        // Node基本属性定义
+                        UXDFLoader.getBaseUXDF().getSd().getNode().getAttr(),
+                        // Node扩展属性定义
+                        sdNode.getProp(),
+                        nodeAssociatedUniqueProp
+                ),
+                this.rdbLoader.getRdbNodeMapping(nodeName).getColumn()
+        );
+        this.rowDecoders.put(nodeName, rowDecoder);
+        return rowDecoder;
+    }
+
+    /**
+     * 获取Event的结果行解码器，映射关系版本变化后重新构建
+     *
+     * @param eventName Event名称
+     * @param leftNode  左Node名称
+     * @param rightNode 右Node名称
+     * @return 解码器，Event未定义时返回null
+     */
+    private RdbRowDecoder getEventRowDecoder(final String eventName, final String leftNode, final String rightNode) {
+        final long version = this.rdbLoader.getRelationShipVersion();
+        final String key = String.format("%s-%s>%s", leftNode, eventName, rightNode);
+        RdbRowDecoder rowDecoder = this.rowDecoders.get(key);
+        if (rowDecoder != null && rowDecoder.getVersion() == version) {
+            return rowDecoder;
+        }
+
+        SdEventDefinition sdEvent = UXDFLoader.getEvent(eventName, leftNode, rightNode);
+        if (sdEvent == null) {
+            return null;
         }
+        rowDecoder = new RdbRowDecoder(
+                version,
+                Lists.newArrayList(
+                        // Event基本属性定义
+                        UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr(),
+                        // Event扩展属性定义
+                        sdEvent.getProp()
+                ),
+                this.rdbLoader.getRdbEventMapping(eventName, leftNode, rightNode).getColumn()
+        );
+        this.rowDecoders.put(key, rowDecoder);
+        return rowDecoder;
     }
 
     /**
@@ -269,66 +253,35 @@ public class UXDFRdbConvert {
      * @return 新增参数
      */
     public InsertParam makeNodeInsertParam(final NodeEntity node) {
-        // 获取关系型数据库映射关系
         final String nodeName = node.get__Sd();
-        RelationShipRdbTable nodeMapping = rdbLoader.getRdbNodeMapping(nodeName);
-        // 获取属性定义
-        Map<String, SdProperty> nodeAttr = UXDFLoader.getBaseUXDF().getSd().getNode().getAttr();
-        Map<String, SdProperty> nodeProp = UXDFLoader.getNode(nodeName).getProp();
-        // 表名
-        String tableName = nodeMapping.getName();
-        // 序列
-        String seqId = nodeMapping.getSeqId();
-        // 字段映射
-        Map<String, String> columnMapping = nodeMapping.getColumn();
+        final RdbRowEncoder rowEncoder = this.getNodeRowEncoder(nodeName);
+        // 属性定义未找到
+        final String undefinedProperty = rowEncoder.findUndefinedProperty(node);
+        if (undefinedProperty != null) {
+            throw new UXDFException(String.format("未找到属性[%s]定义。", undefinedProperty));
+        }
 
         // 构建新增参数
         InsertParam insertParam = new InsertParam();
-        insertParam.setSeqId(seqId);
+        insertParam.setSeqId(rowEncoder.getSeqId());
         insertParam.setId(node.get__Id());
-        insertParam.setTable(tableName);
+        insertParam.setTable(rowEncoder.getTable());
         insertParam.setSd(nodeName);
-        // 遍历Node实例的属性
-        node.keySet().forEach((propertyName) -> {
+        // 按槽位顺序处理实例中有取值的属性
+        final BitSet present = rowEncoder.present(node);
+        for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
             // 跳过ID
-            if (NodeEntity.ATTR_ID.equals(propertyName)) {
-                return;
+            if (NodeEntity.ATTR_ID.equals(rowEncoder.getProperty(slot))) {
+                continue;
             }
-            // 处理有映射关系的属性
-            if (columnMapping.containsKey(propertyName)) {
-                // 加入新增列集合
-                insertParam.getColumns().add(columnMapping.get(propertyName));
-                // 获取属性定义
-                SdProperty property = nodeProp.containsKey(propertyName) ?
-                        nodeProp.get(propertyName) : nodeAttr.get(propertyName);
-                // 如果属性不在默认和扩展中，尝试通过关联唯一获取
-                if (property == null) {
-                    property = AssociateUniquePropertyUtil.getProperty(propertyName);
-                }
-                // 属性定义未找到
-                if (property == null) {
-                    throw new UXDFException(String.format("未找到属性[%s]定义。", propertyName));
-                }
-                // 获取属性值
-                Object value = node.get(propertyName);
-                // 属性值为空时，尝试使用默认值填充
-                if (value == null) {
-                    value = property.getDefaultValue();
-                }
-                // 转换属性值
-                value = convertValue(node, property, value);
-                // 二进制需要额外处理
-                if (property.getBase() == Binary && value instanceof UXDFBinaryFileInfo) {
-                    try {
-                        value = UXDFBinaryFileInfos.convertToInputStream((UXDFBinaryFileInfo) value);
-                    } catch (IOException e) {
-                        throw new UXDFException(e);
-                    }
-                }
-                // 加入新增值集合
-                insertParam.getValues().add(value);
+            Object value = rowEncoder.getValue(slot, node);
+            // 二进制需要额外处理
+            if (rowEncoder.getDefinition(slot).getBase() == Binary && value instanceof UXDFBinaryFileInfo) {
+                value = toBinaryValue((UXDFBinaryFileInfo) value);
             }
-        });
+            insertParam.getColumns().add(rowEncoder.getColumn(slot));
+            insertParam.getValues().add(value);
+        }
 
         return insertParam;
     }
@@ -340,71 +293,60 @@ public class UXDFRdbConvert {
      * @return 更新参数
      */
     public UpdateParam makeNodeUpdateParam(final NodeEntity node) {
-        // 获取关系型数据库映射关系
-        final String nodeName = node.get__Sd();
-        RelationShipRdbTable nodeMapping = rdbLoader.getRdbNodeMapping(nodeName);
-        // 获取属性定义
-        Map<String, SdProperty> nodeAttr = UXDFLoader.getBaseUXDF().getSd().getNode().getAttr();
-        Map<String, SdProperty> nodeProp = UXDFLoader.getNode(nodeName).getProp();
-        // 表名
-        String tableName = nodeMapping.getName();
-        // 字段映射
-        Map<String, String> columnMapping = nodeMapping.getColumn();
+        return this.makeNodeUpdateParam(node, null);
+    }
+
+    /**
+     * 获取{@link NodeEntity}的RDB更新参数{@link UpdateParam}，只更新和原有记录取值不同的列
+     *
+     * @param node         Node实例
+     * @param originalNode 原有记录，为null时更新实例中的所有属性
+     * @return 更新参数，除更新时间外没有变化并且没有同步锁时返回null
+     */
+    public UpdateParam makeNodeUpdateParam(final NodeEntity node, final NodeEntity originalNode) {
+        final RdbRowEncoder rowEncoder = this.getNodeRowEncoder(node.get__Sd());
 
         UpdateParam updateParam = new UpdateParam(
                 node.get__Id(),
-                tableName
+                rowEncoder.getTable()
         );
         // 设置同步锁
         if (node.get(SdEntity.DYNA_SYNC_LOCK) instanceof SyncLock) {
             SyncLock syncLock = (SyncLock) node.get(SdEntity.DYNA_SYNC_LOCK);
             // 替换属性为列
+            final Map<String, String> columnMapping = this.rdbLoader.getRdbNodeMapping(node.get__Sd()).getColumn();
             if (columnMapping.containsKey(syncLock.getColumn())) {
                 syncLock.setColumn(columnMapping.get(syncLock.getColumn()));
                 updateParam.setSyncLock(syncLock);
             }
         }
 
-        // 遍历属性
-        node.keySet().forEach((propertyName) -> {
-            // 处理在列映射中的属性
-            if (columnMapping.containsKey(propertyName)) {
-                // 获取属性定义
-                SdProperty property = nodeProp.containsKey(propertyName) ?
-                        nodeProp.get(propertyName) : nodeAttr.get(propertyName);
-                // 属性定义不是默认属性也不是扩展属性，尝试获取关联唯一属性
-                if (property == null) {
-                    property = AssociateUniquePropertyUtil.getProperty(propertyName);
-                }
-                // 获取列名称
-                final String column = columnMapping.get(propertyName);
-                // 获取属性取值
-                Object value = node.get(propertyName);
-                // 属性取值为空，尝试用默认值
-                if (value == null) {
-                    value = property.getDefaultValue();
-                }
-                // 转换取值
-                value = convertValue(node, property, value);
-                // 二进制需要额外处理
-                if (property.getBase() == Binary) {
-                    if (value instanceof UXDFBinaryFileInfo) {
-                        try {
-                            value = UXDFBinaryFileInfos.convertToInputStream((UXDFBinaryFileInfo) value);
-                        } catch (IOException e) {
-                            throw new UXDFException(e);
-                        }
-                        // 将字段和取值添加到更新参数
-                        updateParam.getColumnValues().add(new UpdateColumnValue(column, value));
-                    }
-                    // TODO 二进制暂时不支持更新删除
-                } else {
-                    // 将字段和取值添加到更新参数
-                    updateParam.getColumnValues().add(new UpdateColumnValue(column, value));
+        // 按槽位顺序处理实例中有取值的属性
+        boolean changed = false;
+        final BitSet present = rowEncoder.present(node);
+        for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+            Object value = rowEncoder.getValue(slot, node);
+            // 二进制需要额外处理
+            if (rowEncoder.getDefinition(slot).getBase() == Binary) {
+                // TODO 二进制暂时不支持更新删除
+                if (!(value instanceof UXDFBinaryFileInfo)) {
+                    continue;
                 }
+                value = toBinaryValue((UXDFBinaryFileInfo) value);
+            } else if (originalNode != null && rowEncoder.isUnchanged(slot, value, originalNode)) {
+                // 和原有记录相同，不更新
+                continue;
             }
-        });
+            if (!ATTR_UPDATE_TIME.equals(rowEncoder.getProperty(slot))) {
+                changed = true;
+            }
+            updateParam.getColumnValues().add(new UpdateColumnValue(rowEncoder.getColumn(slot), value));
+        }
 
+        // 只有更新时间变化，不需要更新
+        if (originalNode != null && !changed && updateParam.getSyncLock() == null) {
+            return null;
+        }
         return updateParam;
     }
 
@@ -416,19 +358,12 @@ public class UXDFRdbConvert {
      */
     public InsertParam makeEventInsertParam(final EventEntity event) {
         final String eventName = event.get__Sd();
-        final String leftNode = event.get__LeftSd();
-        final String rightNode = event.get__RightSd();
-        RelationShipRdbTable eventMapping = rdbLoader.getRdbEventMapping(eventName).get(leftNode).get(rightNode);
-        Map<String, SdProperty> eventAttr = UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr();
-        Map<String, SdProperty> eventProp = UXDFLoader.getEvent(eventName).get(leftNode).get(rightNode).getProp();
-        String tableName = eventMapping.getName();
-        String seqId = eventMapping.getSeqId();
-        Map<String, String> columnMapping = eventMapping.getColumn();
+        final RdbRowEncoder rowEncoder = this.getEventRowEncoder(eventName, event.get__LeftSd(), event.get__RightSd());
 
         InsertParam insertParam = new InsertParam();
-        insertParam.setSeqId(seqId);
+        insertParam.setSeqId(rowEncoder.getSeqId());
         insertParam.setId(event.get__Id());
-        insertParam.setTable(tableName);
+        insertParam.setTable(rowEncoder.getTable());
         insertParam.setSd(eventName);
 
         insertParam.setLeft(event.get__Left());
@@ -436,22 +371,15 @@ public class UXDFRdbConvert {
 
         insertParam.setRight(event.get__Right());
         insertParam.setRightSd(event.get__RightSd());
-        event.keySet().forEach((key) -> {
-            if (EventEntity.ATTR_ID.equals(key)) {
-                return;
-            }
-            if (columnMapping.containsKey(key)) {
-                insertParam.getColumns().add(columnMapping.get(key));
-                SdProperty prop = eventProp.containsKey(key) ? eventProp.get(key) : eventAttr.get(key);
-                Object value = event.get(key);
-                if (value == null) {
-                    value = prop.getDefaultValue();
-                }
-                value = convertValue(event, prop, value);
 
-                insertParam.getValues().add(value);
+        final BitSet present = rowEncoder.present(event);
+        for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+            if (EventEntity.ATTR_ID.equals(rowEncoder.getProperty(slot))) {
+                continue;
             }
-        });
+            insertParam.getColumns().add(rowEncoder.getColumn(slot));
+            insertParam.getValues().add(rowEncoder.getValue(slot, event));
+        }
 
         return insertParam;
     }
@@ -463,34 +391,159 @@ public class UXDFRdbConvert {
      * @return 更新参数
      */
     public UpdateParam makeEventUpdateParam(final EventEntity event) {
-        final String eventName = event.get__Sd();
-        final String leftNode = event.get__LeftSd();
-        final String rightNode = event.get__RightSd();
-        RelationShipRdbTable eventMapping = rdbLoader.getRdbEventMapping(eventName).get(leftNode).get(rightNode);
-        Map<String, SdProperty> eventAttr = UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr();
-        Map<String, SdProperty> eventProp = UXDFLoader.getEvent(eventName).get(leftNode).get(rightNode).getProp();
-        String tableName = eventMapping.getName();
-        Map<String, String> columnMapping = eventMapping.getColumn();
+        final RdbRowEncoder rowEncoder = this.getEventRowEncoder(
+                event.get__Sd(),
+                event.get__LeftSd(),
+                event.get__RightSd()
+        );
 
         UpdateParam updateParam = new UpdateParam(
                 event.get__Id(),
-                tableName
+                rowEncoder.getTable()
         );
-        event.keySet().forEach((key) -> {
-            if (columnMapping.containsKey(key)) {
-                SdProperty prop = eventProp.containsKey(key) ? eventProp.get(key) : eventAttr.get(key);
-                final String column = columnMapping.get(key);
-                Object value = event.get(key);
-                if (value == null) {
-                    value = prop.getDefaultValue();
-                }
-                value = convertValue(event, prop, value);
+        final BitSet present = rowEncoder.present(event);
+        for (int slot = present.nextSetBit(0); slot >= 0; slot = present.nextSetBit(slot + 1)) {
+            updateParam.getColumnValues().add(new UpdateColumnValue(
+                    rowEncoder.getColumn(slot),
+                    rowEncoder.getValue(slot, event)
+            ));
+        }
+
+        return updateParam;
+    }
+
+    /**
+     * 获取Node的新增、更新参数模板，映射关系版本变化后重新构建
+     *
+     * @param nodeName Node名称
+     * @return 参数模板
+     */
+    private RdbRowEncoder getNodeRowEncoder(final String nodeName) {
+        final long version = this.rdbLoader.getRelationShipVersion();
+        RdbRowEncoder rowEncoder = this.rowEncoders.get(nodeName);
+        if (rowEncoder != null && rowEncoder.getVersion() == version) {
+            return rowEncoder;
+        }
 
-                updateParam.getColumnValues().add(new UpdateColumnValue(column, value));
+        SdNodeDefinition sdNode = UXDFLoader.getNode(nodeName);
+        if (sdNode == null) {
+            throw new UXDFException(String.format("未找到Node[%s]定义。", nodeName));
+        }
+        // Node关联唯一属性定义
+        Map<String, SdProperty> nodeAssociatedUniqueProp = Maps.newHashMap();
+        String nodeAssociatedUniquePropName = AssociateUniquePropertyUtil.getPropertyName(sdNode);
+        if (nodeAssociatedUniquePropName != null) {
+            nodeAssociatedUniqueProp.put(
+                    nodeAssociatedUniquePropName,
+                    AssociateUniquePropertyUtil.getProperty(nodeAssociatedUniquePropName)
+            );
+        }
+        rowEncoder = new RdbRowEncoder(
+                version,
+                Lists.newArrayList(
+                        // Node扩展属性定义优先
+                        sdNode.getProp(),
+                        // Node基本属性定义
+                        UXDFLoader.getBaseUXDF().getSd().getNode().getAttr(),
+                        nodeAssociatedUniqueProp
+                ),
+                this.rdbLoader.getRdbNodeMapping(nodeName),
+                this::makeConverter
+        );
+        this.rowEncoders.put(nodeName, rowEncoder);
+        return rowEncoder;
+    }
+
+    /**
+     * 获取Event的新增、更新参数模板，映射关系版本变化后重新构建
+     *
+     * @param eventName Event名称
+     * @param leftNode  左Node名称
+     * @param rightNode 右Node名称
+     * @return 参数模板
+     */
+    private RdbRowEncoder getEventRowEncoder(final String eventName, final String leftNode, final String rightNode) {
+        final long version = this.rdbLoader.getRelationShipVersion();
+        final String key = String.format("%s-%s>%s", leftNode, eventName, rightNode);
+        RdbRowEncoder rowEncoder = this.rowEncoders.get(key);
+        if (rowEncoder != null && rowEncoder.getVersion() == version) {
+            return rowEncoder;
+        }
+
+        SdEventDefinition sdEvent = UXDFLoader.getEvent(eventName, leftNode, rightNode);
+        if (sdEvent == null) {
+            throw new UXDFException(String.format("未找到Event[%s]定义。", key));
+        }
+        rowEncoder = new RdbRowEncoder(
+                version,
+                Lists.newArrayList(
+                        // Event扩展属性定义优先
+                        sdEvent.getProp(),
+                        // Event基本属性定义
+                        UXDFLoader.getBaseUXDF().getSd().getEvent().getAttr()
+                ),
+                this.rdbLoader.getRdbEventMapping(eventName, leftNode, rightNode),
+                this::makeConverter
+        );
+        this.rowEncoders.put(key, rowEncoder);
+        return rowEncoder;
+    }
+
+    /**
+     * 按属性基本类型生成取值转换，多值属性逐个转换
+     *
+     * @param property 属性定义
+     * @return 取值转换
+     */
+    private RdbRowEncoder.Converter makeConverter(final SdProperty property) {
+        final RdbRowEncoder.Converter converter;
+        switch (property.getBase()) {
+            case Integer:
+                converter = (sdEntity, value) -> SdEntity.getBaseInteger(value);
+                break;
+            case String:
+                converter = (sdEntity, value) -> SdEntity.getBaseString(value);
+                break;
+            case Float:
+                converter = (sdEntity, value) -> SdEntity.getBaseFloat(value);
+                break;
+            case Boolean:
+                converter = (sdEntity, value) -> SdEntity.getBaseBoolean(value);
+                break;
+            case Datetime:
+                converter = (sdEntity, value) -> SdEntity.getBaseDate(value, oracleTimestampConvert);
+                break;
+            case Binary:
+                converter = (sdEntity, value) -> SdEntity.getBaseBinary(value, sdEntity, new BinaryConvert(sdEntity));
+                break;
+            default:
+                converter = (sdEntity, value) -> value;
+        }
+        return (sdEntity, value) -> {
+            if (value instanceof List) {
+                List<Object> values = Lists.newArrayList();
+                ((List<?>) value).forEach(valueItem -> values.add(converter.convert(sdEntity, valueItem)));
+                return values;
             }
-        });
+            return converter.convert(sdEntity, value);
+        };
+    }
 
-        return updateParam;
+    /**
+     * 二进制文件转换为写入取值，文件的长度已知，按长度流式写入
+     *
+     * @param fileInfo 二进制文件
+     * @return 写入取值
+     */
+    private static RdbBinaryValue toBinaryValue(final UXDFBinaryFileInfo fileInfo) {
+        try {
+            return new RdbBinaryValue(
+                    UXDFBinaryFileInfos.convertToInputStream(fileInfo),
+                    fileInfo.isFile() ? fileInfo.getLength() : -1
+            );
+        } catch (IOException e) {
+            throw new UXDFException(e);
+        }
     }
 
     /**
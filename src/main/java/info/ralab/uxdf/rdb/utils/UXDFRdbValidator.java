@@ -1,16 +1,20 @@
 package info.ralab.uxdf.rdb.utils;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import info.ralab.uxdf.UXDFAuthException;
 import info.ralab.uxdf.UXDFException;
 import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.chain.UXDFChain;
 import info.ralab.uxdf.definition.*;
 import info.ralab.uxdf.instance.EventEntity;
 import info.ralab.uxdf.instance.IdMaker;
 import info.ralab.uxdf.instance.NodeEntity;
 import info.ralab.uxdf.instance.SdEntity;
+import info.ralab.uxdf.model.SdDataQueryLogic;
 import info.ralab.uxdf.model.SdDataQueryParam;
 import info.ralab.uxdf.model.SdDataQueryRequest;
 import info.ralab.uxdf.model.SdDataQueryResult;
@@ -18,6 +22,7 @@ import info.ralab.uxdf.rdb.convert.OracleTimestampConvert;
 import info.ralab.uxdf.rdb.exception.UXDFSaveErrorType;
 import info.ralab.uxdf.rdb.exception.UXDFSaveException;
 import info.ralab.uxdf.service.StorageService;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSource;
@@ -39,6 +44,18 @@ public class UXDFRdbValidator {
      */
     @Getter
     private List<String> denyUpdateSd = Lists.newArrayList();
+    /**
+     * 预查询时IN条件的最大数量
+     */
+    private static final int PREFETCH_PARTITION_SIZE = 500;
+    /**
+     * 当前线程保存过程中预查询的唯一性结果，Key为Node名称
+     */
+    private final ThreadLocal<Map<String, PrefetchResult>> prefetchResults = new ThreadLocal<>();
+    /**
+     * 当前线程最近一次更新检查读取的原有记录，供更新时判断哪些列有变化
+     */
+    private final ThreadLocal<CheckedNode> checkedNodes = new ThreadLocal<>();
 
     public UXDFRdbValidator(
             final StorageService storageService,
@@ -111,15 +128,20 @@ public class UXDFRdbValidator {
 
                 // 唯一性约束检查
                 if (uniqueIndexArray != null && uniqueIndexArray.length != 0) {
-                    // 判断数据库中是否已经存在相同记录
-                    SdDataQueryRequest queryRequest = new SdDataQueryRequest();
-                    queryRequest.getChains().add(nodeName);
-                    queryRequest.getParams().put(nodeName, Lists.newArrayList(
-                            SdDataQueryParam.equal(NodeEntity.ATTR_UUID, node.get__Uuid())
-                    ));
-
-                    SdDataQueryResult queryResult = this.storageService.queryData(queryRequest);
-                    if (!queryResult.getUxdf().getData().isNodeEmpty()) {
+                    // 优先使用预查询结果
+                    Boolean uuidExists = this.prefetchUuidExists(nodeName, node.get__Uuid(), null);
+                    if (uuidExists == null) {
+                        // 判断数据库中是否已经存在相同记录
+                        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+                        queryRequest.getChains().add(nodeName);
+                        queryRequest.getParams().put(nodeName, Lists.newArrayList(
+                                SdDataQueryParam.equal(NodeEntity.ATTR_UUID, node.get__Uuid())
+                        ));
+
+                        SdDataQueryResult queryResult = this.storageService.queryData(queryRequest);
+                        uuidExists = !queryResult.getUxdf().getData().isNodeEmpty();
+                    }
+                    if (uuidExists) {
                         String[] displayArray = nodeImpl.getDisplay();
                         StringBuilder display = new StringBuilder();
                         if (displayArray != null && displayArray.length > 0) {
@@ -141,12 +163,18 @@ public class UXDFRdbValidator {
                 if (!IdMaker.effective(id)) {
                     throw new UXDFException("更新操作的实体逻辑ID不是有效ID。");
                 }
-                // 获取原有记录
-                SdDataQueryResult queryResultById = this.storageService.getDataById(
-                        nodeName,
-                        id
-                );
-                if (queryResultById.getUxdf().getData().isNodeEmpty()) {
+                // 获取原有记录，优先使用预查询结果
+                Boolean idExists = this.prefetchIdExists(nodeName, id);
+                CheckedNode checkedNode = null;
+                if (idExists == null) {
+                    NodeEntity originalNode = this.storageService.getNodeEntityById(nodeName, id);
+                    idExists = originalNode != null;
+                    checkedNode = new CheckedNode(originalNode, false);
+                } else if (idExists) {
+                    checkedNode = new CheckedNode(this.getPrefetchResult(nodeName).getExistNodes().get(id), true);
+                }
+                this.checkedNodes.set(checkedNode);
+                if (!idExists) {
                     throw new UXDFException(String.format("[%s|%s]不存在。", nodeTitle, id));
                 }
 
@@ -162,17 +190,22 @@ public class UXDFRdbValidator {
 
                 // 唯一性约束检查
                 if (uniqueIndexArray != null && uniqueIndexArray.length != 0) {
-                    // 判断数据库中是否已经存在相同记录
-                    SdDataQueryRequest queryRequestByUuid = new SdDataQueryRequest();
-                    queryRequestByUuid.getChains().add(nodeName);
-                    queryRequestByUuid.getParams().put(nodeName, Lists.newArrayList(
-                            SdDataQueryParam.equal(NodeEntity.ATTR_UUID, node.get__Uuid()),
-                            // 更新的时候，排除当前记录
-                            SdDataQueryParam.notEqual(NodeEntity.ATTR_ID, node.get__Id())
-                    ));
-
-                    SdDataQueryResult queryResult = this.storageService.queryData(queryRequestByUuid);
-                    if (!queryResult.getUxdf().getData().isNodeEmpty()) {
+                    // 优先使用预查询结果，更新的时候排除当前记录
+                    Boolean uuidExists = this.prefetchUuidExists(nodeName, node.get__Uuid(), id);
+                    if (uuidExists == null) {
+                        // 判断数据库中是否已经存在相同记录
+                        SdDataQueryRequest queryRequestByUuid = new SdDataQueryRequest();
+                        queryRequestByUuid.getChains().add(nodeName);
+                        queryRequestByUuid.getParams().put(nodeName, Lists.newArrayList(
+                                SdDataQueryParam.equal(NodeEntity.ATTR_UUID, node.get__Uuid()),
+                                // 更新的时候，排除当前记录
+                                SdDataQueryParam.notEqual(NodeEntity.ATTR_ID, node.get__Id())
+                        ));
+
+                        SdDataQueryResult queryResult = this.storageService.queryData(queryRequestByUuid);
+                        uuidExists = !queryResult.getUxdf().getData().isNodeEmpty();
+                    }
+                    if (uuidExists) {
                         throw new UXDFException(String.format("[%s]违反唯一约束。", nodeTitle));
                     }
                 }
@@ -200,6 +233,268 @@ public class UXDFRdbValidator {
                 }
         }
 
+        // 记录通过检查的写入，保证同一次保存中后续的检查结果正确
+        this.recordPrefetch(nodeName, operate, id, node.get__Uuid());
+    }
+
+    /**
+     * 批量预查询待保存Node的唯一性和存在性，之后当前线程中的{@link #check(NodeEntity)}优先使用预查询结果。
+     * 必须和{@link #clearPrefetch()}成对使用。
+     *
+     * @param createNodes 待新增或待新增更新的Node，预查询UUID
+     * @param updateNodes 待更新的Node，预查询ID和UUID
+     */
+    public void prefetch(final Collection<NodeEntity> createNodes, final Collection<NodeEntity> updateNodes) {
+        Map<String, PrefetchResult> results = Maps.newHashMap();
+        // 按Node名称汇总UUID和ID
+        Map<String, Set<String>> uuidMap = Maps.newHashMap();
+        Map<String, Set<String>> idMap = Maps.newHashMap();
+        createNodes.forEach(node -> this.collectUuid(node, uuidMap));
+        updateNodes.forEach(node -> {
+            this.collectUuid(node, uuidMap);
+            if (IdMaker.effective(node.get__Id())) {
+                idMap.computeIfAbsent(node.get__Sd(), key -> Sets.newHashSet()).add(node.get__Id());
+            }
+        });
+
+        // 每个Node表使用IN条件查询一次
+        uuidMap.forEach((nodeName, uuids) -> {
+            PrefetchResult result = results.computeIfAbsent(nodeName, key -> new PrefetchResult());
+            result.getCheckedUuids().addAll(uuids);
+            this.queryIn(nodeName, NodeEntity.ATTR_UUID, uuids)
+                    .forEach(node -> result.putUuid(node.get__Uuid(), node.get__Id()));
+        });
+        idMap.forEach((nodeName, ids) -> {
+            PrefetchResult result = results.computeIfAbsent(nodeName, key -> new PrefetchResult());
+            result.getCheckedIds().addAll(ids);
+            this.queryIn(nodeName, NodeEntity.ATTR_ID, ids).forEach(node -> {
+                result.getExistIds().add(node.get__Id());
+                result.getExistNodes().put(node.get__Id(), node);
+            });
+        });
+
+        this.prefetchResults.set(results);
+    }
+
+    /**
+     * 清除当前线程的预查询结果
+     */
+    public void clearPrefetch() {
+        this.prefetchResults.remove();
+    }
+
+    /**
+     * 取出当前线程最近一次更新检查读取的原有记录，取出后清除。
+     * 预查询的记录从数据库读取；未预查询时通过{@link StorageService#getNodeEntityById(String, String)}读取，可能来自缓存。
+     *
+     * @param nodeName   Node名称
+     * @param nodeId     Node ID
+     * @param allowCache 是否接受可能来自缓存的记录
+     * @return 原有记录，没有读取或不可用时返回null
+     */
+    public NodeEntity takeCheckedNode(final String nodeName, final String nodeId, final boolean allowCache) {
+        final CheckedNode checkedNode = this.checkedNodes.get();
+        this.checkedNodes.remove();
+        if (checkedNode == null || checkedNode.node == null || (!checkedNode.prefetched && !allowCache)) {
+            return null;
+        }
+        final NodeEntity node = checkedNode.node;
+        return Objects.equals(nodeName, node.get__Sd()) && Objects.equals(nodeId, node.get__Id()) ? node : null;
+    }
+
+    /**
+     * 收集Node的UUID，只处理唯一属性已经完整且不依赖关联的Node
+     *
+     * @param node    Node实例
+     * @param uuidMap Node名称和UUID集合
+     */
+    private void collectUuid(final NodeEntity node, final Map<String, Set<String>> uuidMap) {
+        SdNodeDefinition nodeImpl = UXDFLoader.getNode(node.get__Sd());
+        if (nodeImpl == null) {
+            return;
+        }
+        String[] uniqueIndexArray = nodeImpl.getUniqueIndex();
+        if (uniqueIndexArray == null || uniqueIndexArray.length == 0) {
+            return;
+        }
+        for (String uniqueIndex : uniqueIndexArray) {
+            // 关联唯一属性需要在保存过程中填充，无法预先生成UUID
+            if (UXDFChain.haveRelationship(uniqueIndex) || node.get(uniqueIndex) == null) {
+                return;
+            }
+        }
+        // 在副本上生成，只用于预查询，不修改待保存的Node
+        NodeEntity uuidNode = new NodeEntity();
+        uuidNode.putAll(node);
+        uuidNode.generateUUID();
+        uuidMap.computeIfAbsent(node.get__Sd(), key -> Sets.newHashSet()).add(uuidNode.get__Uuid());
+    }
+
+    /**
+     * 使用IN条件分批查询Node
+     *
+     * @param nodeName     Node名称
+     * @param propertyName 属性名称
+     * @param values       属性值集合
+     * @return Node集合
+     */
+    private List<NodeEntity> queryIn(final String nodeName, final String propertyName, final Set<String> values) {
+        List<NodeEntity> nodes = Lists.newArrayList();
+        for (List<String> partition : Iterables.partition(values, PREFETCH_PARTITION_SIZE)) {
+            SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+            queryRequest.getChains().add(nodeName);
+            queryRequest.getParams().put(nodeName, Lists.newArrayList(
+                    new SdDataQueryParam(propertyName, Lists.newArrayList(partition), SdDataQueryLogic.EQ)
+            ));
+            SdDataQueryResult queryResult = this.storageService.queryData(queryRequest);
+            nodes.addAll(queryResult.getUxdf().getData().getUnmodifiableNode());
+        }
+        return nodes;
+    }
+
+    /**
+     * 通过预查询结果判断UUID是否已经存在
+     *
+     * @param nodeName  Node名称
+     * @param uuid      UUID
+     * @param excludeId 需要排除的ID
+     * @return 是否存在，未预查询时返回null
+     */
+    private Boolean prefetchUuidExists(final String nodeName, final String uuid, final String excludeId) {
+        PrefetchResult result = this.getPrefetchResult(nodeName);
+        if (result == null || uuid == null || !result.getCheckedUuids().contains(uuid)) {
+            return null;
+        }
+        Set<String> ids = result.getUuidIds().get(uuid);
+        if (ids == null) {
+            return false;
+        }
+        return ids.stream().anyMatch(existId -> !existId.equals(excludeId));
+    }
+
+    /**
+     * 通过预查询结果判断ID是否已经存在
+     *
+     * @param nodeName Node名称
+     * @param id       ID
+     * @return 是否存在，未预查询时返回null
+     */
+    private Boolean prefetchIdExists(final String nodeName, final String id) {
+        PrefetchResult result = this.getPrefetchResult(nodeName);
+        if (result == null || !result.getCheckedIds().contains(id)) {
+            return null;
+        }
+        return result.getExistIds().contains(id);
+    }
+
+    /**
+     * 将通过检查的操作写入预查询结果
+     *
+     * @param nodeName Node名称
+     * @param operate  操作
+     * @param id       ID
+     * @param uuid     UUID
+     */
+    private void recordPrefetch(final String nodeName, final SdOperateType operate, final String id, final String uuid) {
+        PrefetchResult result = this.getPrefetchResult(nodeName);
+        if (result == null) {
+            return;
+        }
+        switch (operate) {
+            case create:
+            case update:
+                // 移除旧的UUID对应关系，预查询的记录即将被修改，之后不再使用
+                result.removeId(id);
+                result.getExistNodes().remove(id);
+                if (uuid != null) {
+                    result.getCheckedUuids().add(uuid);
+                    result.putUuid(uuid, id);
+                }
+                result.getCheckedIds().add(id);
+                result.getExistIds().add(id);
+                break;
+            case delete:
+                result.removeId(id);
+                result.getExistNodes().remove(id);
+                result.getCheckedIds().add(id);
+                result.getExistIds().remove(id);
+                break;
+            default:
+        }
+    }
+
+    private PrefetchResult getPrefetchResult(final String nodeName) {
+        Map<String, PrefetchResult> results = this.prefetchResults.get();
+        return results == null ? null : results.get(nodeName);
+    }
+
+    /**
+     * 单个Node表的预查询结果
+     */
+    @Getter
+    private static class PrefetchResult {
+        /**
+         * 已经查询过的UUID
+         */
+        private Set<String> checkedUuids = Sets.newHashSet();
+        /**
+         * 已存在的UUID和对应ID
+         */
+        private Map<String, Set<String>> uuidIds = Maps.newHashMap();
+        /**
+         * ID和对应的UUID，用于移除旧的UUID对应关系，不需要遍历所有UUID
+         */
+        private Map<String, String> idUuids = Maps.newHashMap();
+        /**
+         * 已经查询过的ID
+         */
+        private Set<String> checkedIds = Sets.newHashSet();
+        /**
+         * 已存在的ID
+         */
+        private Set<String> existIds = Sets.newHashSet();
+        /**
+         * 预查询读取的原有记录，Key为ID
+         */
+        private Map<String, NodeEntity> existNodes = Maps.newHashMap();
+
+        /**
+         * 记录UUID和ID的对应关系
+         *
+         * @param uuid UUID
+         * @param id   ID
+         */
+        private void putUuid(final String uuid, final String id) {
+            this.uuidIds.computeIfAbsent(uuid, key -> Sets.newHashSet()).add(id);
+            this.idUuids.put(id, uuid);
+        }
+
+        /**
+         * 移除ID原有的UUID对应关系
+         *
+         * @param id ID
+         */
+        private void removeId(final String id) {
+            final String uuid = this.idUuids.remove(id);
+            if (uuid == null) {
+                return;
+            }
+            Set<String> ids = this.uuidIds.get(uuid);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    /**
+     * 更新检查读取的原有记录
+     */
+    @AllArgsConstructor
+    private static class CheckedNode {
+        // 原有记录
+        private final NodeEntity node;
+        // 是否来自预查询
+        private final boolean prefetched;
     }
 
     /**
@@ -0,0 +1,146 @@
+package info.ralab.uxdf.instance;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import info.ralab.uxdf.rdb.RdbMetrics;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbIdArea;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class RdbIdAreaMakerTest {
+
+    @Test
+    public void testRestartFrom() {
+        for (int stripes = 1; stripes <= 5; stripes++) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                for (long maxArea = 0; maxArea < 40; maxArea++) {
+                    final long start = RdbIdAreaMaker.restartFrom(maxArea, stripe, stripes);
+                    Assert.assertEquals(stripe, start % stripes);
+                    Assert.assertTrue(start >= maxArea);
+                    Assert.assertTrue(start - maxArea < stripes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContinuable() {
+        // 分段数从4减少到2时，分段1的最大分区除以2仍余1，但分段数不同，需要重新开始
+        final RdbIdArea idArea = makeIdArea(21, 4);
+        Assert.assertTrue(RdbIdAreaMaker.isContinuable(idArea, 1, 4));
+        Assert.assertFalse(RdbIdAreaMaker.isContinuable(idArea, 1, 2));
+        // 旧记录没有分段数
+        Assert.assertFalse(RdbIdAreaMaker.isContinuable(makeIdArea(21, 0), 1, 4));
+        Assert.assertFalse(RdbIdAreaMaker.isContinuable(makeIdArea(22, 4), 1, 4));
+        Assert.assertFalse(RdbIdAreaMaker.isContinuable(null, 1, 4));
+    }
+
+    @Test
+    public void testNoOverlapWhenStripesChange() {
+        final Map<Integer, RdbIdArea> table = Maps.newTreeMap();
+        final UXDFMapper uxdfMapper = makeMapper(table);
+        final Set<String> issued = Sets.newHashSet();
+
+        for (int stripes : new int[]{4, 2, 4, 3, 1}) {
+            RdbIdAreaMaker idAreaMaker = new RdbIdAreaMaker(
+                    uxdfMapper,
+                    Mockito.mock(PlatformTransactionManager.class),
+                    Mockito.mock(RdbMetrics.class)
+            );
+            ReflectionTestUtils.setField(idAreaMaker, "blockSize", 4);
+            ReflectionTestUtils.setField(idAreaMaker, "stripes", stripes);
+            try {
+                for (int i = 0; i < 200; i++) {
+                    final String area = idAreaMaker.next();
+                    Assert.assertTrue(String.format("area %s issued twice, stripes %d", area, stripes), issued.add(area));
+                }
+            } finally {
+                // 等待后台预留结束，模拟的分区表没有行锁
+                awaitPrefetch(idAreaMaker);
+                idAreaMaker.destroy();
+            }
+            // 超出分段数的记录不会保留
+            Assert.assertTrue(table.keySet().stream().allMatch(stripe -> stripe < stripes));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void awaitPrefetch(final RdbIdAreaMaker idAreaMaker) {
+        final CompletableFuture<?> prefetching = ((AtomicReference<CompletableFuture<?>>) ReflectionTestUtils
+                .getField(idAreaMaker, "prefetching")).get();
+        if (prefetching != null) {
+            prefetching.join();
+        }
+    }
+
+    private static RdbIdArea makeIdArea(final long area, final int stripes) {
+        RdbIdArea idArea = new RdbIdArea();
+        idArea.setArea(IdMaker.fillDigits(Long.toString(area, IdMaker.RADIX)));
+        idArea.setStripes(stripes);
+        return idArea;
+    }
+
+    /**
+     * 使用内存中的分段记录模拟ID分区表
+     *
+     * @param table 分段记录
+     * @return Mapper
+     */
+    private static UXDFMapper makeMapper(final Map<Integer, RdbIdArea> table) {
+        UXDFMapper uxdfMapper = Mockito.mock(UXDFMapper.class);
+        Mockito.when(uxdfMapper.getIdArea(anyInt())).thenAnswer(invocation -> {
+            synchronized (table) {
+                final RdbIdArea idArea = table.get(invocation.<Integer>getArgument(0));
+                if (idArea == null) {
+                    return null;
+                }
+                RdbIdArea copy = new RdbIdArea();
+                copy.setArea(idArea.getArea());
+                copy.setStripes(idArea.getStripes());
+                return copy;
+            }
+        });
+        Mockito.when(uxdfMapper.getMaxIdArea()).thenAnswer(invocation -> {
+            synchronized (table) {
+                return table.values().stream().map(RdbIdArea::getArea).max(String::compareTo).orElse(null);
+            }
+        });
+        Mockito.doAnswer(invocation -> {
+            synchronized (table) {
+                RdbIdArea idArea = new RdbIdArea();
+                idArea.setArea(invocation.getArgument(0));
+                idArea.setStripes(invocation.getArgument(2));
+                table.put(invocation.getArgument(1), idArea);
+            }
+            return null;
+        }).when(uxdfMapper).addIdArea(anyString(), anyInt(), anyInt());
+        Mockito.doAnswer(invocation -> {
+            synchronized (table) {
+                RdbIdArea idArea = table.get(invocation.<Integer>getArgument(1));
+                idArea.setArea(invocation.getArgument(0));
+                idArea.setStripes(invocation.getArgument(2));
+            }
+            return null;
+        }).when(uxdfMapper).setIdArea(anyString(), anyInt(), anyInt());
+        Mockito.doAnswer(invocation -> {
+            synchronized (table) {
+                final int stripes = invocation.getArgument(0);
+                table.keySet().removeIf(stripe -> stripe >= stripes);
+            }
+            return null;
+        }).when(uxdfMapper).deleteIdAreaStripes(anyInt());
+        return uxdfMapper;
+    }
+}
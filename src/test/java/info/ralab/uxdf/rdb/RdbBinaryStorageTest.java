@@ -0,0 +1,43 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.rdb.model.RdbByteRange;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RdbBinaryStorageTest {
+
+    private RdbLoader rdbLoader;
+    private RdbBinaryStorage binaryStorage;
+
+    @Before
+    public void setUp() {
+        this.rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.binaryStorage = new RdbBinaryStorage();
+        ReflectionTestUtils.setField(this.binaryStorage, "rdbLoader", this.rdbLoader);
+        ReflectionTestUtils.setField(this.binaryStorage, "chunkSize", 1024);
+        ReflectionTestUtils.setField(this.binaryStorage, "mysqlChunkCount", 16);
+    }
+
+    @Test
+    public void testMysqlChunkSize() {
+        // 内容较小时使用配置的分段大小
+        Assert.assertEquals(1024, this.binaryStorage.getChunkSize(RdbByteRange.full(10000)));
+        // 内容较大时分段数量不超过上限
+        Assert.assertEquals(6250, this.binaryStorage.getChunkSize(RdbByteRange.full(100000)));
+        Assert.assertEquals(6251, this.binaryStorage.getChunkSize(RdbByteRange.full(100001)));
+        // 按范围长度计算
+        Assert.assertEquals(1024, this.binaryStorage.getChunkSize(RdbByteRange.parse("bytes=0-9999", 100000)));
+
+        ReflectionTestUtils.setField(this.binaryStorage, "mysqlChunkCount", 0);
+        Assert.assertEquals(1024, this.binaryStorage.getChunkSize(RdbByteRange.full(100000)));
+    }
+
+    @Test
+    public void testOracleChunkSize() {
+        ReflectionTestUtils.setField(this.rdbLoader, "datasourceDriveName", "oracle.jdbc.OracleDriver");
+        // Oracle通过定位器按范围读取，不放大分段
+        Assert.assertEquals(1024, this.binaryStorage.getChunkSize(RdbByteRange.full(100000)));
+    }
+}
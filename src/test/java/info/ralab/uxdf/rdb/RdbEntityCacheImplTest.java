@@ -0,0 +1,92 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.instance.NodeEntity;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+public class RdbEntityCacheImplTest {
+
+    private RdbEntityCacheImpl entityCache;
+
+    @Before
+    public void setUp() {
+        this.entityCache = new RdbEntityCacheImpl();
+        ReflectionTestUtils.setField(this.entityCache, "ttl", 60L);
+        ReflectionTestUtils.setField(this.entityCache, "maximumSize", 100L);
+        this.entityCache.init();
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(this.entityCache);
+    }
+
+    @Test
+    public void testEvict() {
+        this.entityCache.putByUniqueKey(Lists.newArrayList("user1"), makeUser(1L));
+        this.entityCache.putById(makeNode("Role", 2L));
+        Assert.assertNotNull(this.entityCache.getById("User", "1"));
+        Assert.assertNotNull(this.entityCache.getByUniqueKey("User", Lists.newArrayList("user1")));
+
+        // 只清除指定Node定义的缓存
+        this.entityCache.evict("User");
+        Assert.assertNull(this.entityCache.getById("User", "1"));
+        Assert.assertNull(this.entityCache.getByUniqueKey("User", Lists.newArrayList("user1")));
+        Assert.assertNotNull(this.entityCache.getById("Role", "2"));
+
+        // 清除后可以再次缓存
+        this.entityCache.putById(makeUser(1L));
+        Assert.assertNotNull(this.entityCache.getById("User", "1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEvictInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        this.entityCache.putById(makeUser(1L));
+
+        this.entityCache.evict("User");
+        this.entityCache.evict("User");
+        // 同一事务中重复清除只递增一次版本
+        Map<String, ?> versions = (Map<String, ?>) ReflectionTestUtils.getField(this.entityCache, "versions");
+        Assert.assertEquals("1", String.valueOf(versions.get("User")));
+        // 事务结束前不使用缓存
+        this.entityCache.putById(makeUser(1L));
+        Assert.assertNull(this.entityCache.getById("User", "1"));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        Assert.assertEquals(1, synchronizations.size());
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // 事务结束后再次清除，之后正常使用缓存
+        Assert.assertEquals("2", String.valueOf(versions.get("User")));
+        this.entityCache.putById(makeUser(1L));
+        Assert.assertNotNull(this.entityCache.getById("User", "1"));
+    }
+
+    private static NodeEntity makeUser(final long id) {
+        NodeEntity node = makeNode("User", id);
+        node.put("username", "user" + id);
+        return node;
+    }
+
+    private static NodeEntity makeNode(final String nodeName, final long id) {
+        return new NodeEntity()
+                .id(id)
+                .sd(nodeName);
+    }
+}
@@ -0,0 +1,55 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.UXDFException;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RelationShipRdbTable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class RdbLoaderTest {
+
+    @Test
+    public void testIdAreaWithoutStripes() {
+        UXDFMapper uxdfMapper = Mockito.mock(UXDFMapper.class);
+        Mockito.when(uxdfMapper.checkTableExists("ID_AREA")).thenReturn("ID_AREA");
+        Mockito.when(uxdfMapper.checkIdAreaColumn("STRIPE")).thenReturn("STRIPE");
+        try {
+            // 不自动生成DDL时缺少分段列，启动失败并给出需要执行的语句
+            RdbTestSupport.makeRdbLoader(uxdfMapper);
+            Assert.fail();
+        } catch (UXDFException e) {
+            Assert.assertTrue(e.getMessage().contains("ALTER TABLE ID_AREA ADD COLUMN `STRIPES`"));
+            Assert.assertFalse(e.getMessage().contains("ADD COLUMN `STRIPE` "));
+        }
+        Mockito.verify(uxdfMapper, Mockito.never()).addIdAreaStripes();
+    }
+
+    @Test
+    public void testIdAreaWithStripes() {
+        UXDFMapper uxdfMapper = Mockito.mock(UXDFMapper.class);
+        Mockito.when(uxdfMapper.checkTableExists("ID_AREA")).thenReturn("ID_AREA");
+        Mockito.when(uxdfMapper.checkIdAreaColumn(Mockito.anyString())).then(invocation -> invocation.getArgument(0));
+
+        Assert.assertNotNull(RdbTestSupport.makeRdbLoader(uxdfMapper).getRdbNodeMapping("User"));
+        Mockito.verify(uxdfMapper, Mockito.never()).createIdArea();
+    }
+
+    @Test
+    public void testTempIdTable() {
+        UXDFMapper uxdfMapper = Mockito.mock(UXDFMapper.class);
+        Mockito.when(uxdfMapper.checkTableExists(RdbTempIdTable.TABLE_NAME)).thenReturn(RdbTempIdTable.TABLE_NAME);
+        // MySQL不使用ID表
+        Assert.assertFalse(RdbTestSupport.makeRdbLoader(uxdfMapper).hasTempIdTable());
+        Mockito.verify(uxdfMapper, Mockito.never()).createTempIdTable(Mockito.anyString());
+    }
+
+    @Test
+    public void testSelectColumnsWithoutBinary() {
+        RelationShipRdbTable table = RdbTestSupport.makeRdbLoader().getRdbNodeMapping("BinaryFile");
+        // 批量读取时不查询二进制列
+        Assert.assertFalse(table.getSelectColumns().contains(table.getColumn().get("content")));
+        Assert.assertTrue(table.getSelectColumns().contains(table.getColumn().get("key")));
+        Assert.assertEquals(table.getColumn().size() - 1, table.getSelectColumns().size());
+    }
+}
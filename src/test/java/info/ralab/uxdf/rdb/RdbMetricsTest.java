@@ -0,0 +1,54 @@
+package info.ralab.uxdf.rdb;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class RdbMetricsTest {
+
+    private MeterRegistry registry;
+    private RdbMetrics metrics;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> registryProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(registryProvider.getIfAvailable(any())).thenReturn(this.registry);
+        this.metrics = new RdbMetrics(registryProvider);
+        ReflectionTestUtils.setField(this.metrics, "enabled", true);
+    }
+
+    @Test
+    public void testReuseMeters() {
+        this.metrics.stop(RdbMetrics.SAVE, "User", "create", this.metrics.start());
+        this.metrics.stop(RdbMetrics.SAVE, "User", "create", this.metrics.start());
+        this.metrics.stop(RdbMetrics.SAVE, null, "create", this.metrics.start());
+        this.metrics.record(RdbMetrics.QUERY_ROWS, "User", "query", 10);
+        this.metrics.record(RdbMetrics.QUERY_ROWS, "User", "query", 20);
+
+        // 相同名称和标签只注册一次
+        Assert.assertEquals(3, this.registry.getMeters().size());
+        Assert.assertEquals(2, this.registry.get(RdbMetrics.SAVE).tag(RdbMetrics.TAG_SD, "User").timer().count());
+        Assert.assertEquals(1, this.registry.get(RdbMetrics.SAVE)
+                .tag(RdbMetrics.TAG_SD, RdbMetrics.ALL_SD)
+                .timer()
+                .count());
+        Assert.assertEquals(30, this.registry.get(RdbMetrics.QUERY_ROWS).summary().totalAmount(), 0);
+    }
+
+    @Test
+    public void testDisabled() {
+        ReflectionTestUtils.setField(this.metrics, "enabled", false);
+        this.metrics.stop(RdbMetrics.SAVE, "User", "create", this.metrics.start());
+        this.metrics.record(RdbMetrics.QUERY_ROWS, "User", "query", 10);
+        Assert.assertTrue(this.registry.getMeters().isEmpty());
+    }
+}
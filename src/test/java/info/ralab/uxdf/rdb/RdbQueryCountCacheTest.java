@@ -0,0 +1,81 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.model.SdDataQueryLogic;
+import info.ralab.uxdf.rdb.model.RdbQueryInfo;
+import info.ralab.uxdf.rdb.model.RdbQueryParam;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RdbQueryCountCacheTest {
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testMakeKey() {
+        Assert.assertEquals(
+                RdbQueryCountCache.makeKey(makeQueryInfo("a", "b")),
+                RdbQueryCountCache.makeKey(makeQueryInfo("a", "b"))
+        );
+        // 参数值带长度，拼接后相同的不同参数Key不同
+        Assert.assertNotEquals(
+                RdbQueryCountCache.makeKey(makeQueryInfo("a|P_B EQ b", null)),
+                RdbQueryCountCache.makeKey(makeQueryInfo("a", "b"))
+        );
+    }
+
+    @Test
+    public void testCache() {
+        RdbQueryCountCache countCache = makeCountCache(10);
+        AtomicLong counted = new AtomicLong();
+        Assert.assertEquals(1, countCache.get(makeQueryInfo("a", null), counted::incrementAndGet));
+        Assert.assertEquals(1, countCache.get(makeQueryInfo("a", null), counted::incrementAndGet));
+        Assert.assertEquals(2, countCache.get(makeQueryInfo("b", null), counted::incrementAndGet));
+    }
+
+    @Test
+    public void testDefaultNoCache() {
+        RdbQueryCountCache countCache = makeCountCache(0);
+        AtomicLong counted = new AtomicLong();
+        countCache.get(makeQueryInfo("a", null), counted::incrementAndGet);
+        Assert.assertEquals(2, countCache.get(makeQueryInfo("a", null), counted::incrementAndGet));
+    }
+
+    @Test
+    public void testNoCacheInTransaction() {
+        RdbQueryCountCache countCache = makeCountCache(10);
+        AtomicLong counted = new AtomicLong();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        countCache.get(makeQueryInfo("a", null), counted::incrementAndGet);
+        Assert.assertEquals(2, countCache.get(makeQueryInfo("a", null), counted::incrementAndGet));
+
+        // 事务中的总数没有发布给其他读取
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        Assert.assertEquals(3, countCache.get(makeQueryInfo("a", null), counted::incrementAndGet));
+    }
+
+    private static RdbQueryCountCache makeCountCache(final long ttl) {
+        RdbQueryCountCache countCache = new RdbQueryCountCache();
+        ReflectionTestUtils.setField(countCache, "ttl", ttl);
+        ReflectionTestUtils.setField(countCache, "maximumSize", 16L);
+        countCache.init();
+        return countCache;
+    }
+
+    private static RdbQueryInfo makeQueryInfo(final String first, final String second) {
+        RdbQueryInfo queryInfo = new RdbQueryInfo();
+        queryInfo.setTable("TN_USER");
+        queryInfo.getParams().add(new RdbQueryParam("P_A", first, SdDataQueryLogic.EQ));
+        if (second != null) {
+            queryInfo.getParams().add(new RdbQueryParam("P_B", second, SdDataQueryLogic.EQ));
+        }
+        return queryInfo;
+    }
+}
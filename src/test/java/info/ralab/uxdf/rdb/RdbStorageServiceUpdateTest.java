@@ -0,0 +1,146 @@
+package info.ralab.uxdf.rdb;
+
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbAttr;
+import info.ralab.uxdf.rdb.model.UpdateColumnValue;
+import info.ralab.uxdf.rdb.model.UpdateParam;
+import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import info.ralab.uxdf.rdb.utils.UXDFRdbValidator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+/**
+ * 只更新变化的列时，原有记录使用检查时从数据库读取的记录，可能来自缓存时重新从数据库读取
+ */
+public class RdbStorageServiceUpdateTest {
+
+    private RdbLoader rdbLoader;
+    private UXDFMapper uxdfMapper;
+    private RdbEntityCache rdbEntityCache;
+    private UXDFRdbValidator rdbValidator;
+    private RdbStorageService storageService;
+
+    @Before
+    public void setUp() {
+        this.rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.uxdfMapper = Mockito.mock(UXDFMapper.class);
+        this.rdbEntityCache = Mockito.mock(RdbEntityCache.class);
+        this.storageService = new RdbStorageService(
+                null,
+                this.rdbLoader,
+                null,
+                null,
+                null,
+                null,
+                null,
+                this.rdbEntityCache,
+                null,
+                new UXDFRdbConvert(null, this.rdbLoader),
+                null,
+                this.uxdfMapper,
+                null,
+                null
+        );
+        this.rdbValidator = Mockito.mock(UXDFRdbValidator.class);
+        ReflectionTestUtils.setField(this.storageService, "rdbValidator", this.rdbValidator);
+        ReflectionTestUtils.setField(this.storageService, "updateChangedOnly", true);
+        Mockito.when(this.uxdfMapper.update(any(UpdateParam.class))).thenReturn(1);
+    }
+
+    @Test
+    public void testIgnoreStaleCache() {
+        // 缓存中是过期的记录，数据库中的昵称已经被修改
+        Mockito.when(this.rdbEntityCache.getById(anyString(), anyString())).thenReturn(makeUser("a"));
+        this.mockDatabase(makeUser("b"));
+
+        // 改回缓存中的取值
+        Assert.assertEquals(1, this.storageService.updateNode(makeUser("a"), null));
+
+        ArgumentCaptor<UpdateParam> updateParam = ArgumentCaptor.forClass(UpdateParam.class);
+        Mockito.verify(this.uxdfMapper).update(updateParam.capture());
+        Map<String, Object> columnValues = updateParam.getValue().getColumnValues().stream()
+                .collect(Collectors.toMap(UpdateColumnValue::getColumn, UpdateColumnValue::getValue));
+        Assert.assertEquals("a", columnValues.get(this.getColumn("nickname")));
+        Assert.assertFalse(columnValues.containsKey(this.getColumn("username")));
+        Mockito.verify(this.rdbEntityCache, Mockito.never()).getById(anyString(), anyString());
+    }
+
+    @Test
+    public void testUseCheckedNode() {
+        // 缓存未启用，检查时读取的记录来自数据库
+        Mockito.when(this.rdbValidator.takeCheckedNode("User", "1", true)).thenReturn(makeUser("b"));
+
+        Assert.assertEquals(1, this.storageService.updateNode(makeUser("a"), null));
+        Mockito.verify(this.uxdfMapper, Mockito.never())
+                .getByColumn(anyString(), anyCollection(), anyString(), anyCollection(), any());
+    }
+
+    @Test
+    public void testRereadCachedCheckedNode() {
+        // 缓存启用时，未预查询的记录可能来自缓存，重新从数据库读取
+        Mockito.when(this.rdbEntityCache.isEnabled()).thenReturn(true);
+        Mockito.when(this.rdbValidator.takeCheckedNode("User", "1", true)).thenReturn(makeUser("a"));
+        this.mockDatabase(makeUser("b"));
+
+        Assert.assertEquals(1, this.storageService.updateNode(makeUser("a"), null));
+        Mockito.verify(this.rdbValidator).takeCheckedNode("User", "1", false);
+    }
+
+    @Test
+    public void testSkipUnchanged() {
+        this.mockDatabase(makeUser("a"));
+
+        // 和数据库中的记录相同，不更新
+        Assert.assertEquals(0, this.storageService.updateNode(makeUser("a"), null));
+        Mockito.verify(this.uxdfMapper, Mockito.never()).update(any(UpdateParam.class));
+    }
+
+    private void mockDatabase(final NodeEntity node) {
+        // 数据库中的记录包含UUID
+        node.generateUUID();
+        JSONObject row = new JSONObject();
+        row.put(RdbAttr.A_SD, node.get__Sd());
+        node.forEach((property, value) -> {
+            final String column = this.getColumn(property);
+            if (column != null) {
+                row.put(column, value);
+            }
+        });
+        Mockito.when(this.uxdfMapper.getByColumn(
+                eq(this.rdbLoader.getRdbNodeMapping("User").getName()),
+                anyCollection(),
+                anyString(),
+                anyCollection(),
+                isNull()
+        )).thenReturn(Lists.newArrayList(row));
+    }
+
+    private String getColumn(final String property) {
+        return this.rdbLoader.getRdbNodeMapping("User").getColumn().get(property);
+    }
+
+    private static NodeEntity makeUser(final String nickname) {
+        NodeEntity node = new NodeEntity()
+                .id(1L)
+                .sd("User");
+        node.put("nickname", nickname);
+        node.put("username", "user1");
+        return node;
+    }
+}
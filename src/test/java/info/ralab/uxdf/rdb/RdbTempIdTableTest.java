@@ -0,0 +1,146 @@
+package info.ralab.uxdf.rdb;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.model.RdbLargeIn;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class RdbTempIdTableTest {
+
+    private RdbTempIdTable tempIdTable;
+    private UXDFMapper uxdfMapper;
+    private RdbLoader rdbLoader;
+
+    @Before
+    public void setUp() {
+        this.uxdfMapper = Mockito.mock(UXDFMapper.class);
+        this.rdbLoader = Mockito.mock(RdbLoader.class);
+        Mockito.when(this.rdbLoader.hasTempIdTable()).thenReturn(true);
+        this.tempIdTable = new RdbTempIdTable();
+        ReflectionTestUtils.setField(this.tempIdTable, "uxdfMapper", this.uxdfMapper);
+        ReflectionTestUtils.setField(this.tempIdTable, "rdbLoader", this.rdbLoader);
+        ReflectionTestUtils.setField(this.tempIdTable, "threshold", 1000);
+        ReflectionTestUtils.setField(this.tempIdTable, "padding", true);
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testPad() {
+        Assert.assertEquals(2, this.tempIdTable.pad(makeValues(2)).size());
+        Assert.assertEquals(4, this.tempIdTable.pad(makeValues(3)).size());
+        Assert.assertEquals(4, this.tempIdTable.pad(makeValues(4)).size());
+        Assert.assertEquals(8, this.tempIdTable.pad(makeValues(5)).size());
+        // 不超过阈值
+        Assert.assertEquals(1000, this.tempIdTable.pad(makeValues(600)).size());
+
+        // 补齐的值重复最后一个参数值
+        List<?> padded = this.tempIdTable.pad(makeValues(5));
+        Assert.assertEquals(makeValues(5), padded.subList(0, 5));
+        Assert.assertTrue(padded.subList(5, 8).stream().allMatch("ID5"::equals));
+
+        ReflectionTestUtils.setField(this.tempIdTable, "threshold", 100);
+        Assert.assertEquals(100, this.tempIdTable.pad(makeValues(70)).size());
+
+        ReflectionTestUtils.setField(this.tempIdTable, "padding", false);
+        Assert.assertEquals(5, this.tempIdTable.pad(makeValues(5)).size());
+    }
+
+    @Test
+    public void testBindUnderThreshold() {
+        Assert.assertNull(this.tempIdTable.bind(makeValues(1000)));
+        ReflectionTestUtils.setField(this.tempIdTable, "threshold", 0);
+        Assert.assertNull(this.tempIdTable.bind(makeValues(5000)));
+    }
+
+    @Test
+    public void testBindChunksWithoutTransaction() {
+        ReflectionTestUtils.setField(this.tempIdTable, "threshold", 2000);
+        List<String> values = makeValues(4500);
+        RdbLargeIn largeIn = this.tempIdTable.bind(values);
+
+        Assert.assertNotNull(largeIn);
+        Assert.assertNull(largeIn.getTempTable());
+        // 每个IN条件不超过Oracle的1000个
+        Assert.assertEquals(5, largeIn.getChunks().size());
+        Assert.assertTrue(largeIn.getChunks().stream().allMatch(chunk -> chunk.size() <= 1000));
+        Assert.assertEquals(values, largeIn.getChunks().stream().flatMap(List::stream).collect(Collectors.toList()));
+        Assert.assertEquals(String.valueOf(values), largeIn.toString());
+        Mockito.verifyZeroInteractions(this.uxdfMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBindTempTableInTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        List<String> values = makeValues(1200);
+        RdbLargeIn largeIn = this.tempIdTable.bind(values);
+
+        Assert.assertNotNull(largeIn);
+        Assert.assertEquals(RdbTempIdTable.TABLE_NAME, largeIn.getTempTable());
+        Assert.assertTrue(largeIn.getTempKey() > 0);
+        Assert.assertNull(largeIn.getChunks());
+
+        ArgumentCaptor<List> partitions = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.uxdfMapper, Mockito.times(3)).insertTempId(
+                eq(RdbTempIdTable.TABLE_NAME),
+                eq(largeIn.getTempKey()),
+                partitions.capture()
+        );
+        Assert.assertEquals(values, partitions.getAllValues().stream()
+                .flatMap(partition -> ((List<?>) partition).stream())
+                .collect(Collectors.toList()));
+
+        this.tempIdTable.release(largeIn);
+        Mockito.verify(this.uxdfMapper).deleteTempId(RdbTempIdTable.TABLE_NAME, largeIn.getTempKey());
+    }
+
+    @Test
+    public void testBindWithoutTempTable() {
+        // 没有ID表时，事务中也拆分为多个IN条件
+        Mockito.when(this.rdbLoader.hasTempIdTable()).thenReturn(false);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        RdbLargeIn largeIn = this.tempIdTable.bind(makeValues(1200));
+
+        Assert.assertNull(largeIn.getTempTable());
+        Assert.assertEquals(2, largeIn.getChunks().size());
+        Mockito.verifyZeroInteractions(this.uxdfMapper);
+    }
+
+    @Test
+    public void testBindNotStringInTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        List<Long> values = Lists.newArrayList();
+        for (long i = 0; i < 1200; i++) {
+            values.add(i);
+        }
+        RdbLargeIn largeIn = this.tempIdTable.bind(values);
+
+        // 临时表只保存字符
+        Assert.assertNull(largeIn.getTempTable());
+        Assert.assertEquals(2, largeIn.getChunks().size());
+        Mockito.verify(this.uxdfMapper, Mockito.never()).insertTempId(Mockito.anyString(), anyLong(), anyList());
+    }
+
+    private static List<String> makeValues(final int size) {
+        return IntStream.rangeClosed(1, size).mapToObj(i -> "ID" + i).collect(Collectors.toList());
+    }
+}
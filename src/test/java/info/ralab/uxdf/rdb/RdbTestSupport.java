@@ -0,0 +1,67 @@
+package info.ralab.uxdf.rdb;
+
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 不启动Spring和数据库的单元测试环境。
+ * <p>
+ * Sd定义使用测试资源中的uxdf定义，映射关系由MySql的Sql生成构建，Mapper只返回默认值。
+ */
+public final class RdbTestSupport {
+
+    private RdbTestSupport() {
+    }
+
+    /**
+     * 使用默认配置的命名策略
+     *
+     * @return 命名策略
+     */
+    public static PrefixNameStrategy makeNameStrategy() {
+        PrefixNameStrategy nameStrategy = new PrefixNameStrategy();
+        nameStrategy.setNodePrefix("TN_");
+        nameStrategy.setNodePkPrefix("PN_");
+        nameStrategy.setEventPrefix("TE_");
+        nameStrategy.setEventPkPrefix("PE_");
+        nameStrategy.setIndexPrefix("I_U_");
+        nameStrategy.setSeqPrefix("S_");
+        nameStrategy.setTrgPrefix("TRG_");
+        nameStrategy.setAttrPrefix("A_");
+        nameStrategy.setPropPrefix("P_");
+        nameStrategy.setRedundancyPropPrefix("R_");
+        nameStrategy.setMaxLength(30);
+        return nameStrategy;
+    }
+
+    /**
+     * 构建MySql的映射关系加载，不检查库表结构
+     *
+     * @return 映射关系加载
+     */
+    public static RdbLoader makeRdbLoader() {
+        return makeRdbLoader(Mockito.mock(UXDFMapper.class));
+    }
+
+    /**
+     * 使用指定的Mapper构建MySql的映射关系加载，不自动生成DDL
+     *
+     * @param uxdfMapper Mapper
+     * @return 映射关系加载
+     */
+    public static RdbLoader makeRdbLoader(final UXDFMapper uxdfMapper) {
+        RdbQueryPlanCache queryPlanCache = new RdbQueryPlanCache();
+        ReflectionTestUtils.setField(queryPlanCache, "maximumSize", 0L);
+        queryPlanCache.init();
+
+        RdbLoader rdbLoader = new RdbLoader();
+        ReflectionTestUtils.setField(rdbLoader, "uxdfMapper", uxdfMapper);
+        ReflectionTestUtils.setField(rdbLoader, "rdbQueryPlanCache", queryPlanCache);
+        ReflectionTestUtils.setField(rdbLoader, "mysqlSqlGenerator", new SqlGeneratorMySqlImpl(makeNameStrategy(), null));
+        ReflectionTestUtils.setField(rdbLoader, "datasourceDriveName", "com.mysql.cj.jdbc.Driver");
+        ReflectionTestUtils.setField(rdbLoader, "autoGenerateDDL", false);
+        rdbLoader.load(true);
+        return rdbLoader;
+    }
+}
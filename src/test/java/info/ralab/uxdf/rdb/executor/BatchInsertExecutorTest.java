@@ -0,0 +1,102 @@
+package info.ralab.uxdf.rdb.executor;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdNodeDefinition;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbTestSupport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class BatchInsertExecutorTest {
+
+    private RdbLoader rdbLoader;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        this.rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(this.jdbcTemplate.batchUpdate(
+                anyString(),
+                anyCollection(),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        )).thenAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(1);
+            int[] results = new int[rows.size()];
+            Arrays.fill(results, 1);
+            return new int[][]{results};
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGroupByPresentColumns() {
+        final String emailColumn = this.rdbLoader.getRdbNodeMapping("User").getColumn().get("email");
+
+        BatchInsertExecutor executor = new BatchInsertExecutor(this.rdbLoader, this.jdbcTemplate, 500);
+        executor.addNode(makeUser(1L, null));
+        executor.addNode(makeUser(2L, "a@b.com"));
+        executor.addNode(makeUser(3L, null));
+
+        Assert.assertEquals(3, executor.execute().intValue());
+        Assert.assertTrue(executor.isEmpty());
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection> rowsCaptor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(this.jdbcTemplate, Mockito.times(2)).batchUpdate(
+                sqlCaptor.capture(),
+                rowsCaptor.capture(),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        );
+        List<String> sqls = sqlCaptor.getAllValues();
+        List<Collection> rows = rowsCaptor.getAllValues();
+        // 没有邮箱的实例不写入邮箱列，由数据库默认值填充
+        Assert.assertFalse(sqls.get(0).contains(emailColumn));
+        Assert.assertEquals(2, rows.get(0).size());
+        Assert.assertTrue(sqls.get(1).contains(emailColumn));
+        Assert.assertEquals(1, rows.get(1).size());
+    }
+
+    @Test
+    public void testInsertColumnsSorted() {
+        final SdNodeDefinition sdNode = UXDFLoader.getNode("User");
+        List<String> columns = this.rdbLoader.getInsertColumns(sdNode, makeUser(1L, "a@b.com"));
+        List<String> sorted = Lists.newArrayList(columns);
+        Collections.sort(sorted);
+        Assert.assertEquals(sorted, columns);
+
+        final String placeholders = String.join(",", Collections.nCopies(columns.size(), "?"));
+        Assert.assertTrue(this.rdbLoader.generateInsertSql(sdNode, columns).endsWith("values(" + placeholders + ")"));
+    }
+
+    private static NodeEntity makeUser(final long id, final String email) {
+        NodeEntity node = new NodeEntity()
+                .id(id)
+                .sd("User");
+        node.put("nickname", "nickname" + id);
+        node.put("username", "username" + id);
+        if (email != null) {
+            node.put("email", email);
+        }
+        return node;
+    }
+}
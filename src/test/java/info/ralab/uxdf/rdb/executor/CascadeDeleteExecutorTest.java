@@ -0,0 +1,198 @@
+package info.ralab.uxdf.rdb.executor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import info.ralab.uxdf.SdData;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdOperateType;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.model.SdDataQueryParam;
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.model.SdDataQueryResult;
+import info.ralab.uxdf.rdb.RdbEntityCache;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbMetrics;
+import info.ralab.uxdf.rdb.RdbStorageService;
+import info.ralab.uxdf.rdb.RdbTestSupport;
+import info.ralab.uxdf.rdb.exception.UXDFSaveException;
+import info.ralab.uxdf.rdb.mapper.UXDFMapper;
+import info.ralab.uxdf.rdb.utils.UXDFRdbValidator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.context.MessageSource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+public class CascadeDeleteExecutorTest {
+
+    private RdbLoader rdbLoader;
+    private UXDFMapper uxdfMapper;
+    private UXDFRdbValidator rdbValidator;
+    private RdbMetrics rdbMetrics;
+    private RdbEntityCache rdbEntityCache;
+    private RdbStorageService storageService;
+    /**
+     * 查询链 -> 当前Node ID -> 依赖的目标Node
+     */
+    private Map<String, Map<String, List<Supplier<NodeEntity>>>> links;
+
+    @Before
+    public void setUp() {
+        this.rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.uxdfMapper = Mockito.mock(UXDFMapper.class);
+        this.rdbValidator = Mockito.mock(UXDFRdbValidator.class);
+        this.rdbMetrics = Mockito.mock(RdbMetrics.class);
+        this.rdbEntityCache = Mockito.mock(RdbEntityCache.class);
+        this.storageService = Mockito.mock(RdbStorageService.class);
+        this.links = Maps.newHashMap();
+
+        Mockito.when(this.storageService.getRdbValidator()).thenReturn(this.rdbValidator);
+        Mockito.when(this.storageService.getRdbMetrics()).thenReturn(this.rdbMetrics);
+        Mockito.when(this.storageService.getRdbEntityCache()).thenReturn(this.rdbEntityCache);
+        Mockito.when(this.storageService.queryData(any(SdDataQueryRequest.class))).thenAnswer(invocation -> {
+            SdDataQueryRequest queryRequest = invocation.getArgument(0);
+            final String chain = queryRequest.getChains().get(0);
+            final String nodeName = chain.split("[-<]")[0];
+            SdDataQueryParam idParam = queryRequest.getParams().get(nodeName).get(0);
+            SdDataQueryResult queryResult = new SdDataQueryResult(UXDFLoader.getBaseUXDF());
+            Map<String, List<Supplier<NodeEntity>>> targets = this.links.getOrDefault(chain, Maps.newHashMap());
+            for (Object id : (Collection<?>) idParam.getValue()) {
+                targets.getOrDefault(String.valueOf(id), Lists.newArrayList())
+                        .forEach(target -> queryResult.getUxdf().getData().addNodeIfAbsent(target.get()));
+            }
+            return queryResult;
+        });
+        // 每个ID删除一行
+        Mockito.when(this.uxdfMapper.deleteEventByLeftNodes(anyString(), anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(1).size());
+        Mockito.when(this.uxdfMapper.deleteEventByRightNodes(anyString(), anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(1).size());
+        Mockito.when(this.uxdfMapper.deleteNodes(anyString(), anyCollection(), isNull()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(1).size());
+    }
+
+    @Test
+    public void testRejectWithoutEnforce() {
+        // Line-BELONG_TO>Tower对于Line是必须的，不强制删除时不能删除Tower
+        SdData sdData = new SdData();
+        CascadeDeleteExecutor executor = new CascadeDeleteExecutor(
+                this.storageService,
+                this.rdbLoader,
+                this.uxdfMapper,
+                Mockito.mock(MessageSource.class),
+                makeNode("Tower", 1L),
+                sdData
+        );
+        try {
+            executor.execute();
+            Assert.fail();
+        } catch (UXDFSaveException e) {
+            // 期望的异常
+        }
+        Mockito.verify(this.storageService, Mockito.never()).queryData(any(SdDataQueryRequest.class));
+        Mockito.verifyZeroInteractions(this.uxdfMapper, this.rdbEntityCache);
+        Assert.assertTrue(sdData.getUnmodifiableNode().isEmpty());
+    }
+
+    @Test
+    public void testCascadeChainWithCycle() {
+        final String towerTable = this.getNodeTable("Tower");
+        final String lineTable = this.getNodeTable("Line");
+        final String titleTable = this.getNodeTable("TowerTitle");
+
+        // Tower <-(必须)- Line -(必须)-> TowerTitle -(必须)-> Tower，Tower还有一个非必须的Event
+        Map<String, List<CascadeDeleteExecutor.CascadeStep>> plans = Maps.newHashMap();
+        plans.put("Tower", Lists.newArrayList(
+                new CascadeDeleteExecutor.CascadeStep("Tower", "BELONG_TO", "E_BELONG_TO", "Line", false, true),
+                new CascadeDeleteExecutor.CascadeStep("Tower", "HAVE", "E_HAVE", "Role", true, false)
+        ));
+        plans.put("Line", Lists.newArrayList(
+                new CascadeDeleteExecutor.CascadeStep("Line", "LINK_TO", "E_LINK_TO", "TowerTitle", true, true)
+        ));
+        plans.put("TowerTitle", Lists.newArrayList(
+                new CascadeDeleteExecutor.CascadeStep("TowerTitle", "QUOTE", "E_QUOTE", "Tower", true, true)
+        ));
+        this.link("Tower<BELONG_TO-TN:Line", "1", () -> makeNode("Line", 2L));
+        this.link("Tower<BELONG_TO-TN:Line", "1", () -> makeNode("Line", 3L));
+        this.link("Line-LINK_TO>TN:TowerTitle", "2", () -> makeNode("TowerTitle", 4L));
+        // 回到已经收集过的Tower，不再继续
+        this.link("TowerTitle-QUOTE>TN:Tower", "4", () -> makeNode("Tower", 1L));
+
+        NodeEntity tower = makeNode("Tower", 1L);
+        tower.setOperateDeleteEnforce(Boolean.TRUE);
+        SdData sdData = new SdData();
+        CascadeDeleteExecutor executor = new CascadeDeleteExecutor(
+                this.storageService,
+                this.rdbLoader,
+                this.uxdfMapper,
+                Mockito.mock(MessageSource.class),
+                tower,
+                sdData
+        ) {
+            @Override
+            List<CascadeStep> getPlan(final String nodeName) {
+                return plans.getOrDefault(nodeName, Lists.newArrayList());
+            }
+        };
+
+        // Event 1 + 1 + 2 + 1，Node 1 + 2 + 1
+        Assert.assertEquals(9, executor.execute().intValue());
+
+        // 每层每个必须的步骤只查询一次，非必须的步骤不查询
+        Mockito.verify(this.storageService, Mockito.times(3)).queryData(any(SdDataQueryRequest.class));
+        Mockito.verify(this.rdbValidator, Mockito.times(4)).check(any(NodeEntity.class));
+        Mockito.verify(this.rdbMetrics).record(RdbMetrics.CASCADE_DEPTH, "Tower", SdOperateType.delete.name(), 3);
+        Mockito.verify(this.rdbMetrics).record(RdbMetrics.CASCADE_NODES, "Tower", SdOperateType.delete.name(), 4);
+
+        // 按表批量删除
+        Mockito.verify(this.uxdfMapper).deleteEventByRightNodes(eq("E_BELONG_TO"), ids("1"));
+        Mockito.verify(this.uxdfMapper).deleteEventByLeftNodes(eq("E_HAVE"), ids("1"));
+        Mockito.verify(this.uxdfMapper).deleteEventByLeftNodes(eq("E_LINK_TO"), ids("2", "3"));
+        Mockito.verify(this.uxdfMapper).deleteEventByLeftNodes(eq("E_QUOTE"), ids("4"));
+        Mockito.verify(this.uxdfMapper).deleteNodes(eq(towerTable), ids("1"), isNull());
+        Mockito.verify(this.uxdfMapper).deleteNodes(eq(lineTable), ids("2", "3"), isNull());
+        Mockito.verify(this.uxdfMapper).deleteNodes(eq(titleTable), ids("4"), isNull());
+        Mockito.verifyNoMoreInteractions(this.uxdfMapper);
+        Mockito.verify(this.rdbEntityCache).evict("Tower");
+        Mockito.verify(this.rdbEntityCache).evict("Line");
+        Mockito.verify(this.rdbEntityCache).evict("TowerTitle");
+
+        // 返回所有被删除的Node
+        Assert.assertEquals(4, sdData.getUnmodifiableNode().size());
+        sdData.getUnmodifiableNode().forEach(node -> Assert.assertEquals(SdOperateType.delete, node.getOperate()));
+    }
+
+    private void link(final String chain, final String id, final Supplier<NodeEntity> target) {
+        this.links.computeIfAbsent(chain, key -> Maps.newHashMap())
+                .computeIfAbsent(id, key -> Lists.newArrayList())
+                .add(target);
+    }
+
+    private String getNodeTable(final String nodeName) {
+        return this.rdbLoader.getRdbNodeMapping(nodeName).getName();
+    }
+
+    private static Collection<String> ids(final String... ids) {
+        return argThat(partition -> partition.size() == ids.length
+                && Sets.newHashSet(partition).equals(Sets.newHashSet(ids)));
+    }
+
+    private static NodeEntity makeNode(final String nodeName, final long id) {
+        return new NodeEntity()
+                .id(id)
+                .sd(nodeName);
+    }
+}
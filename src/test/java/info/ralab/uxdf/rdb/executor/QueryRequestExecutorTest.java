@@ -0,0 +1,134 @@
+package info.ralab.uxdf.rdb.executor;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.UXDFException;
+import info.ralab.uxdf.instance.SdEntity;
+import info.ralab.uxdf.model.SdDataQueryLogic;
+import info.ralab.uxdf.model.SdDataQueryOrder;
+import info.ralab.uxdf.model.SdDataQueryPage;
+import info.ralab.uxdf.model.SdDataQueryRequest;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbTestSupport;
+import info.ralab.uxdf.rdb.model.RdbQueryParam;
+import info.ralab.uxdf.rdb.model.RdbSeekToken;
+import info.ralab.uxdf.rdb.utils.UXDFRdbConvert;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class QueryRequestExecutorTest {
+
+    private RdbLoader rdbLoader;
+    private Map<String, String> columnMapping;
+
+    @Before
+    public void setUp() {
+        this.rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.columnMapping = this.rdbLoader.getRdbNodeMapping("User").getColumn();
+    }
+
+    @Test
+    public void testSeekParamsMultipleOrders() {
+        QueryRequestExecutor executor = this.makeExecutor(
+                SdDataQueryOrder.asc("nickname"),
+                SdDataQueryOrder.desc("username")
+        );
+        List<List<RdbQueryParam>> seekParams = executor.makeSeekParams("User", makeToken("100", "a", "b"));
+
+        // nickname > a or (nickname = a and username < b) or (nickname = a and username = b and id < 100)
+        Assert.assertEquals(3, seekParams.size());
+        this.assertParam(seekParams.get(0).get(0), "nickname", "a", SdDataQueryLogic.GT);
+        Assert.assertEquals(1, seekParams.get(0).size());
+
+        Assert.assertEquals(2, seekParams.get(1).size());
+        this.assertParam(seekParams.get(1).get(0), "nickname", "a", SdDataQueryLogic.EQ);
+        this.assertParam(seekParams.get(1).get(1), "username", "b", SdDataQueryLogic.LT);
+
+        Assert.assertEquals(3, seekParams.get(2).size());
+        this.assertParam(seekParams.get(2).get(0), "nickname", "a", SdDataQueryLogic.EQ);
+        this.assertParam(seekParams.get(2).get(1), "username", "b", SdDataQueryLogic.EQ);
+        // ID的方向和最后一个排序一致
+        this.assertParam(seekParams.get(2).get(2), SdEntity.ATTR_ID, "100", SdDataQueryLogic.LT);
+    }
+
+    @Test
+    public void testSeekParamsAsc() {
+        QueryRequestExecutor executor = this.makeExecutor(SdDataQueryOrder.asc("nickname"));
+        List<List<RdbQueryParam>> seekParams = executor.makeSeekParams("User", makeToken("100", "a"));
+
+        Assert.assertEquals(2, seekParams.size());
+        this.assertParam(seekParams.get(0).get(0), "nickname", "a", SdDataQueryLogic.GT);
+        this.assertParam(seekParams.get(1).get(0), "nickname", "a", SdDataQueryLogic.EQ);
+        this.assertParam(seekParams.get(1).get(1), SdEntity.ATTR_ID, "100", SdDataQueryLogic.GT);
+    }
+
+    @Test
+    public void testSeekParamsOrderById() {
+        QueryRequestExecutor executor = this.makeExecutor(SdDataQueryOrder.desc(SdEntity.ATTR_ID));
+        List<List<RdbQueryParam>> seekParams = executor.makeSeekParams("User", makeToken("100", "100"));
+
+        // 排序中已经包含ID，不再追加
+        Assert.assertEquals(1, seekParams.size());
+        Assert.assertEquals(1, seekParams.get(0).size());
+        this.assertParam(seekParams.get(0).get(0), SdEntity.ATTR_ID, "100", SdDataQueryLogic.LT);
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testSeekParamsMismatch() {
+        QueryRequestExecutor executor = this.makeExecutor(
+                SdDataQueryOrder.asc("nickname"),
+                SdDataQueryOrder.desc("username")
+        );
+        executor.makeSeekParams("User", makeToken("100", "a"));
+    }
+
+    @Test
+    public void testCheckSeekOrders() {
+        this.makeExecutor(SdDataQueryOrder.asc("nickname"), SdDataQueryOrder.desc(SdEntity.ATTR_ID))
+                .checkSeekOrders("User");
+        this.makeExecutor(SdDataQueryOrder.desc("__updateTime")).checkSeekOrders("User");
+        try {
+            // 邮箱不是必填属性，值为空的行无法定位
+            this.makeExecutor(SdDataQueryOrder.asc("email")).checkSeekOrders("User");
+            Assert.fail();
+        } catch (UXDFException e) {
+            Assert.assertTrue(e.getMessage().contains("email"));
+        }
+    }
+
+    private QueryRequestExecutor makeExecutor(final SdDataQueryOrder... orders) {
+        SdDataQueryRequest queryRequest = new SdDataQueryRequest();
+        queryRequest.getChains().add("User");
+        queryRequest.setMain(new SdDataQueryRequest.PageOrder());
+        queryRequest.getMain().setAlias("User");
+        queryRequest.getMain().setPage(new SdDataQueryPage());
+        queryRequest.getMain().setOrders(Lists.newArrayList(orders));
+        return new QueryRequestExecutor(
+                this.rdbLoader,
+                new UXDFRdbConvert(null, this.rdbLoader),
+                null,
+                queryRequest
+        );
+    }
+
+    private void assertParam(
+            final RdbQueryParam param,
+            final String property,
+            final String value,
+            final SdDataQueryLogic logic
+    ) {
+        Assert.assertEquals(this.columnMapping.get(property), param.getColumn());
+        Assert.assertEquals(value, String.valueOf(param.getValue()));
+        Assert.assertEquals(logic, param.getLogic());
+    }
+
+    private static RdbSeekToken makeToken(final String id, final Object... values) {
+        RdbSeekToken seekToken = new RdbSeekToken();
+        seekToken.getValues().addAll(Lists.newArrayList(values));
+        seekToken.setId(id);
+        return seekToken;
+    }
+}
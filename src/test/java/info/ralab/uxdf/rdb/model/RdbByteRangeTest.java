@@ -0,0 +1,77 @@
+package info.ralab.uxdf.rdb.model;
+
+import info.ralab.uxdf.UXDFException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RdbByteRangeTest {
+
+    @Test
+    public void testFull() {
+        RdbByteRange range = RdbByteRange.parse(null, 100);
+        Assert.assertEquals(0, range.getStart());
+        Assert.assertEquals(99, range.getEnd());
+        Assert.assertEquals(100, range.getLength());
+        Assert.assertFalse(range.isPartial());
+        Assert.assertFalse(RdbByteRange.parse(" ", 100).isPartial());
+    }
+
+    @Test
+    public void testStartEnd() {
+        RdbByteRange range = RdbByteRange.parse("bytes=10-19", 100);
+        Assert.assertEquals(10, range.getStart());
+        Assert.assertEquals(19, range.getEnd());
+        Assert.assertEquals(10, range.getLength());
+        Assert.assertTrue(range.isPartial());
+        Assert.assertEquals("bytes 10-19/100", range.getContentRange());
+
+        // 结束位置超出内容长度时截断
+        Assert.assertEquals(99, RdbByteRange.parse("bytes=10-1000", 100).getEnd());
+    }
+
+    @Test
+    public void testOpenEnded() {
+        RdbByteRange range = RdbByteRange.parse("bytes=90-", 100);
+        Assert.assertEquals(90, range.getStart());
+        Assert.assertEquals(99, range.getEnd());
+        Assert.assertEquals("bytes 90-99/100", range.getContentRange());
+    }
+
+    @Test
+    public void testSuffix() {
+        RdbByteRange range = RdbByteRange.parse("bytes=-10", 100);
+        Assert.assertEquals(90, range.getStart());
+        Assert.assertEquals(99, range.getEnd());
+
+        // 后缀长度超过内容长度时返回全部内容
+        range = RdbByteRange.parse("bytes=-1000", 100);
+        Assert.assertEquals(0, range.getStart());
+        Assert.assertEquals(99, range.getEnd());
+        Assert.assertFalse(range.isPartial());
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testUnsatisfiable() {
+        RdbByteRange.parse("bytes=100-", 100);
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testReversed() {
+        RdbByteRange.parse("bytes=20-10", 100);
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testMultiRange() {
+        RdbByteRange.parse("bytes=0-9,20-29", 100);
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testUnit() {
+        RdbByteRange.parse("items=0-9", 100);
+    }
+
+    @Test(expected = UXDFException.class)
+    public void testNotNumber() {
+        RdbByteRange.parse("bytes=a-9", 100);
+    }
+}
@@ -0,0 +1,73 @@
+package info.ralab.uxdf.rdb.model;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.model.SdDataQueryParam;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class RdbIdentityMapTest {
+
+    @Test
+    public void testMakeKey() {
+        // 与条件顺序无关
+        Assert.assertEquals(
+                RdbIdentityMap.makeKey(Lists.newArrayList(
+                        SdDataQueryParam.equal("nickname", "a"),
+                        SdDataQueryParam.equal("username", "b")
+                )),
+                RdbIdentityMap.makeKey(Lists.newArrayList(
+                        SdDataQueryParam.equal("username", "b"),
+                        SdDataQueryParam.equal("nickname", "a")
+                ))
+        );
+        // 属性值包含分隔符时不会与其他条件拼接后相同
+        Assert.assertNotEquals(
+                RdbIdentityMap.makeKey(Lists.newArrayList(
+                        SdDataQueryParam.equal("nickname", "a|username=1:b")
+                )),
+                RdbIdentityMap.makeKey(Lists.newArrayList(
+                        SdDataQueryParam.equal("nickname", "a"),
+                        SdDataQueryParam.equal("username", "b")
+                ))
+        );
+        Assert.assertNotEquals(
+                RdbIdentityMap.makeKey(Lists.newArrayList(SdDataQueryParam.equal("nickname", "a"))),
+                RdbIdentityMap.makeKey(Lists.newArrayList(SdDataQueryParam.equal("nickname", "b")))
+        );
+    }
+
+    @Test
+    public void testLookupAndRemove() {
+        RdbIdentityMap identityMap = new RdbIdentityMap();
+        NodeEntity user = makeUser(1L, "a");
+        List<SdDataQueryParam> queryParams = Lists.newArrayList(SdDataQueryParam.equal("nickname", "a"));
+        identityMap.put(queryParams, user);
+
+        NodeEntity found = identityMap.getByParams("User", Lists.newArrayList(SdDataQueryParam.equal("nickname", "a")));
+        Assert.assertEquals(user, found);
+        // 返回的是副本
+        Assert.assertNotSame(user, found);
+        found.put("nickname", "changed");
+        Assert.assertEquals("a", identityMap.getById("User", user.get__Id()).get("nickname"));
+
+        identityMap.put(makeUser(2L, "b"));
+        identityMap.remove("User", user.get__Id());
+        Assert.assertNull(identityMap.getById("User", user.get__Id()));
+        Assert.assertNull(identityMap.getByParams("User", queryParams));
+        Assert.assertNotNull(identityMap.getById("User", makeUser(2L, "b").get__Id()));
+
+        identityMap.clear();
+        Assert.assertNull(identityMap.getById("User", makeUser(2L, "b").get__Id()));
+    }
+
+    private static NodeEntity makeUser(final long id, final String nickname) {
+        NodeEntity node = new NodeEntity()
+                .id(id)
+                .sd("User");
+        node.put("nickname", nickname);
+        return node;
+    }
+}
@@ -0,0 +1,107 @@
+package info.ralab.uxdf.rdb.utils;
+
+import com.google.common.collect.Lists;
+import info.ralab.uxdf.rdb.model.RdbByteRange;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class RdbBinaryStreamTest {
+
+    private byte[] content;
+    /**
+     * 每次读取的开始位置和长度
+     */
+    private List<long[]> reads;
+
+    @Before
+    public void setUp() {
+        this.content = new byte[100];
+        for (int i = 0; i < this.content.length; i++) {
+            this.content[i] = (byte) i;
+        }
+        this.reads = Lists.newArrayList();
+    }
+
+    @Test
+    public void testReadAll() {
+        RdbBinaryStream stream = this.open(RdbByteRange.full(100), 30);
+
+        Assert.assertArrayEquals(this.content, readAll(stream));
+        // 按分段读取，最后一段只读取剩余部分
+        Assert.assertEquals(4, this.reads.size());
+        Assert.assertArrayEquals(new long[]{1, 30}, this.reads.get(0));
+        Assert.assertArrayEquals(new long[]{91, 10}, this.reads.get(3));
+        Assert.assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void testReadRange() {
+        RdbBinaryStream stream = this.open(RdbByteRange.parse("bytes=10-24", 100), 8);
+
+        Assert.assertEquals(10, stream.read());
+        Assert.assertArrayEquals(Arrays.copyOfRange(this.content, 11, 25), readAll(stream));
+        // 数据库中的位置从1开始
+        Assert.assertArrayEquals(new long[]{11, 8}, this.reads.get(0));
+        Assert.assertArrayEquals(new long[]{19, 7}, this.reads.get(1));
+    }
+
+    @Test
+    public void testSkip() {
+        RdbBinaryStream stream = this.open(RdbByteRange.full(100), 10);
+
+        Assert.assertEquals(0, stream.read());
+        Assert.assertEquals(9, stream.available());
+        // 先跳过当前段中剩余的部分，其余的不读取
+        Assert.assertEquals(30, stream.skip(30));
+        Assert.assertEquals(0, stream.available());
+        Assert.assertEquals(31, stream.read());
+        Assert.assertEquals(2, this.reads.size());
+        Assert.assertArrayEquals(new long[]{32, 10}, this.reads.get(1));
+
+        // 不能跳过范围结束位置
+        Assert.assertEquals(68, stream.skip(1000));
+        Assert.assertEquals(-1, stream.read());
+        Assert.assertEquals(0, stream.skip(10));
+        Assert.assertEquals(0, stream.skip(-1));
+    }
+
+    @Test
+    public void testShorterContent() {
+        // 读取期间内容变短，读取到的内容为空时结束
+        RdbBinaryStream stream = new RdbBinaryStream(
+                RdbByteRange.full(100),
+                30,
+                (offset, length) -> offset > 50 ?
+                        null : Arrays.copyOfRange(this.content, (int) offset - 1, (int) offset - 1 + length)
+        );
+        Assert.assertEquals(60, readAll(stream).length);
+        Assert.assertEquals(-1, stream.read());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadOutOfBounds() {
+        this.open(RdbByteRange.full(100), 10).read(new byte[10], 5, 10);
+    }
+
+    private RdbBinaryStream open(final RdbByteRange range, final int chunkSize) {
+        return new RdbBinaryStream(range, chunkSize, (offset, length) -> {
+            this.reads.add(new long[]{offset, length});
+            return Arrays.copyOfRange(this.content, (int) offset - 1, (int) offset - 1 + length);
+        });
+    }
+
+    private static byte[] readAll(final RdbBinaryStream stream) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int length;
+        while ((length = stream.read(buffer, 0, buffer.length)) != -1) {
+            output.write(buffer, 0, length);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package info.ralab.uxdf.rdb.utils;
+
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdBaseType;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.NodeEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class RdbRowDecoderTest {
+
+    @Test
+    public void testDecode() throws Exception {
+        final SdProperty stringProperty = UXDFLoader.getNode("User").getProp().get("nickname");
+        final SdProperty booleanProperty = UXDFLoader.getNode("Signifier").getProp().values().stream()
+                .filter(property -> property.getBase() == SdBaseType.Boolean)
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+
+        Map<String, SdProperty> definitions = Maps.newLinkedHashMap();
+        definitions.put("name", stringProperty);
+        definitions.put("flag", booleanProperty);
+        definitions.put("missing", stringProperty);
+        definitions.put("unmapped", stringProperty);
+        Map<String, String> columnMapping = Maps.newHashMap();
+        columnMapping.put("name", "P_NAME");
+        columnMapping.put("flag", "P_FLAG");
+        columnMapping.put("missing", "P_MISSING");
+
+        RdbRowDecoder rowDecoder = new RdbRowDecoder(3, Lists.newArrayList(definitions), columnMapping);
+        Assert.assertEquals(3, rowDecoder.getVersion());
+
+        JSONObject row = new JSONObject();
+        row.put("P_NAME", 123);
+        row.put("P_FLAG", 1);
+        NodeEntity nodeEntity = new NodeEntity();
+        rowDecoder.decode(row, nodeEntity);
+
+        // 字符、布尔按属性类型转换
+        Assert.assertEquals("123", nodeEntity.get("name"));
+        Assert.assertEquals(Boolean.TRUE, nodeEntity.get("flag"));
+        // 结果中没有的列和没有映射列的属性不写入
+        Assert.assertFalse(nodeEntity.containsKey("missing"));
+        Assert.assertFalse(nodeEntity.containsKey("unmapped"));
+    }
+}
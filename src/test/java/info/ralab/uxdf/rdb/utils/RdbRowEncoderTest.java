@@ -0,0 +1,115 @@
+package info.ralab.uxdf.rdb.utils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import info.ralab.uxdf.UXDFLoader;
+import info.ralab.uxdf.definition.SdProperty;
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.model.RelationShipRdbTable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Map;
+
+public class RdbRowEncoderTest {
+
+    private RdbRowEncoder rowEncoder;
+
+    @Before
+    public void setUp() {
+        final SdProperty stringProperty = UXDFLoader.getNode("User").getProp().get("nickname");
+        // 布尔类型，默认值为false
+        final SdProperty defaultProperty = UXDFLoader.getNode("Signifier").getProp().get("isGeneral");
+
+        Map<String, SdProperty> definitions = Maps.newLinkedHashMap();
+        definitions.put("name", stringProperty);
+        definitions.put("general", defaultProperty);
+        definitions.put("time", stringProperty);
+        RelationShipRdbTable mapping = new RelationShipRdbTable();
+        mapping.setName("T_TEST");
+        mapping.setSeqId("S_TEST");
+        mapping.getColumn().put("time", "P_A_TIME");
+        mapping.getColumn().put("name", "P_C_NAME");
+        mapping.getColumn().put("general", "P_B_GENERAL");
+        mapping.getColumn().put("undefined", "P_D_UNDEFINED");
+
+        this.rowEncoder = new RdbRowEncoder(
+                5,
+                Lists.newArrayList(definitions),
+                mapping,
+                property -> (sdEntity, value) -> value
+        );
+    }
+
+    @Test
+    public void testSlots() {
+        Assert.assertEquals(5, this.rowEncoder.getVersion());
+        Assert.assertEquals("T_TEST", this.rowEncoder.getTable());
+        Assert.assertEquals("S_TEST", this.rowEncoder.getSeqId());
+        // 只有有属性定义的列，按列名排序
+        Assert.assertEquals(3, this.rowEncoder.size());
+        Assert.assertEquals("P_A_TIME", this.rowEncoder.getColumn(0));
+        Assert.assertEquals("P_B_GENERAL", this.rowEncoder.getColumn(1));
+        Assert.assertEquals("P_C_NAME", this.rowEncoder.getColumn(2));
+        Assert.assertEquals("name", this.rowEncoder.getProperty(2));
+    }
+
+    @Test
+    public void testPresent() {
+        NodeEntity node = new NodeEntity();
+        node.put("name", "a");
+        // 取值为null也表示包含
+        node.put("general", null);
+        node.put("other", "b");
+
+        BitSet present = this.rowEncoder.present(node);
+        Assert.assertFalse(present.get(0));
+        Assert.assertTrue(present.get(1));
+        Assert.assertTrue(present.get(2));
+        Assert.assertEquals(2, present.cardinality());
+    }
+
+    @Test
+    public void testGetValue() {
+        NodeEntity node = new NodeEntity();
+        node.put("name", "a");
+        node.put("general", null);
+
+        Assert.assertEquals("a", this.rowEncoder.getValue(2, node));
+        // 取值为空时使用默认值
+        Assert.assertEquals(
+                this.rowEncoder.getDefinition(1).getDefaultValue(),
+                this.rowEncoder.getValue(1, node)
+        );
+        Assert.assertNotNull(this.rowEncoder.getValue(1, node));
+    }
+
+    @Test
+    public void testIsUnchanged() {
+        NodeEntity original = new NodeEntity();
+        original.put("name", "a");
+        original.put("time", new Date(1000L));
+
+        Assert.assertTrue(this.rowEncoder.isUnchanged(2, "a", original));
+        Assert.assertFalse(this.rowEncoder.isUnchanged(2, "b", original));
+        // 时间类型的实现类不同时只比较时间
+        Assert.assertTrue(this.rowEncoder.isUnchanged(0, new Timestamp(1000L), original));
+        Assert.assertFalse(this.rowEncoder.isUnchanged(0, new Timestamp(1001L), original));
+        // 原有记录中没有的属性视为null
+        Assert.assertTrue(this.rowEncoder.isUnchanged(1, null, original));
+        Assert.assertFalse(this.rowEncoder.isUnchanged(1, Boolean.FALSE, original));
+    }
+
+    @Test
+    public void testFindUndefinedProperty() {
+        NodeEntity node = new NodeEntity();
+        node.put("name", "a");
+        Assert.assertNull(this.rowEncoder.findUndefinedProperty(node));
+        node.put("undefined", "b");
+        Assert.assertEquals("undefined", this.rowEncoder.findUndefinedProperty(node));
+    }
+}
@@ -0,0 +1,74 @@
+package info.ralab.uxdf.rdb.utils;
+
+import info.ralab.uxdf.instance.NodeEntity;
+import info.ralab.uxdf.rdb.RdbLoader;
+import info.ralab.uxdf.rdb.RdbTestSupport;
+import info.ralab.uxdf.rdb.model.UpdateColumnValue;
+import info.ralab.uxdf.rdb.model.UpdateParam;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class UXDFRdbConvertTest {
+
+    private Map<String, String> columnMapping;
+    private UXDFRdbConvert uxdfRdbConvert;
+
+    @Before
+    public void setUp() {
+        final RdbLoader rdbLoader = RdbTestSupport.makeRdbLoader();
+        this.columnMapping = rdbLoader.getRdbNodeMapping("User").getColumn();
+        this.uxdfRdbConvert = new UXDFRdbConvert(null, rdbLoader);
+    }
+
+    @Test
+    public void testUpdateChangedOnly() {
+        NodeEntity node = makeUser("a", "b");
+        node.set__UpdateTime(new Date());
+
+        UpdateParam updateParam = this.uxdfRdbConvert.makeNodeUpdateParam(node, makeUser("a", "old"));
+        Assert.assertNotNull(updateParam);
+        Map<String, Object> columnValues = toColumnValues(updateParam);
+        // 和原有记录相同的列不更新
+        Assert.assertFalse(columnValues.containsKey(this.columnMapping.get("nickname")));
+        Assert.assertEquals("b", columnValues.get(this.columnMapping.get("username")));
+        Assert.assertTrue(columnValues.containsKey(this.columnMapping.get("__updateTime")));
+    }
+
+    @Test
+    public void testUpdateNoChange() {
+        NodeEntity node = makeUser("a", "b");
+        node.set__UpdateTime(new Date());
+
+        // 除更新时间外没有变化时不更新
+        Assert.assertNull(this.uxdfRdbConvert.makeNodeUpdateParam(node, makeUser("a", "b")));
+    }
+
+    @Test
+    public void testUpdateWithoutOriginal() {
+        NodeEntity node = makeUser("a", "b");
+
+        // 没有原有记录时更新实例中的所有属性
+        Map<String, Object> columnValues = toColumnValues(this.uxdfRdbConvert.makeNodeUpdateParam(node, null));
+        Assert.assertEquals("a", columnValues.get(this.columnMapping.get("nickname")));
+        Assert.assertEquals("b", columnValues.get(this.columnMapping.get("username")));
+    }
+
+    private static NodeEntity makeUser(final String nickname, final String username) {
+        NodeEntity node = new NodeEntity()
+                .id(1L)
+                .sd("User");
+        node.put("nickname", nickname);
+        node.put("username", username);
+        return node;
+    }
+
+    private static Map<String, Object> toColumnValues(final UpdateParam updateParam) {
+        return updateParam.getColumnValues().stream()
+                .collect(Collectors.toMap(UpdateColumnValue::getColumn, UpdateColumnValue::getValue));
+    }
+}